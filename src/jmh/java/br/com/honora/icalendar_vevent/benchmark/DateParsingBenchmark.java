@@ -0,0 +1,38 @@
+package br.com.honora.icalendar_vevent.benchmark;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.honora.icalendar_vevent.utils.DateUtils;
+
+/**
+ * {@link DateUtils#parseFlexibleOffsetDateTime} nos quatro formatos aceitos; os
+ * últimos passam pelas tentativas (e exceções) dos formatos anteriores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateParsingBenchmark {
+
+    @Param({ "2025-09-04T00:00:00Z", "2025-09-04T00:00:00-03:00", "2025-09-04T00:00:00", "2025-09-04" })
+    public String input;
+
+    @Benchmark
+    public OffsetDateTime parseFlexible() {
+        return DateUtils.parseFlexibleOffsetDateTime(input);
+    }
+}
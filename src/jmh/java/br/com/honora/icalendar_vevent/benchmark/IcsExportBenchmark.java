@@ -0,0 +1,59 @@
+package br.com.honora.icalendar_vevent.benchmark;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.ics.IcsWriter;
+import br.com.honora.icalendar_vevent.recurrence.CompiledRecurrence;
+
+/**
+ * O corpo de buildIcsForSchedule (sem o banco): uma série diária longa com
+ * milhares de EXDATEs e muitos overrides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IcsExportBenchmark {
+
+    @Param({ "100", "5000" })
+    public int exdates;
+
+    @Param({ "10", "500" })
+    public int overrides;
+
+    private Schedule schedule;
+    private String rrule;
+
+    @Setup
+    public void setUp() {
+        schedule = SyntheticSchedules.dailySeries(exdates, 50, overrides, 7L);
+        rrule = CompiledRecurrence.toRruleString(schedule.getRruleJson());
+    }
+
+    @Benchmark
+    public String buildIcs() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        IcsWriter ics = new IcsWriter(sb, Instant.now());
+        ics.beginCalendar();
+        ics.writeSchedule(schedule, rrule);
+        ics.endCalendar();
+        return sb.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.honora.icalendar_vevent.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.recurrence.CompiledRecurrence;
+import net.fortuna.ical4j.model.Recur;
+
+/**
+ * RRULE JSON -> string RFC 5545 -> {@link Recur} (o que cada miss do cache de
+ * recorrência paga) e a compilação completa com o expansor nativo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurrenceCompileBenchmark {
+
+    @Param({
+            "{\"freq\":\"DAILY\",\"interval\":1}",
+            "{\"freq\":\"WEEKLY\",\"interval\":2,\"byday\":[\"MO\",\"WE\",\"FR\"],\"count\":120}",
+            "{\"freq\":\"MONTHLY\",\"interval\":1,\"until_utc\":\"2030-12-31T23:59:59Z\"}" })
+    public String rruleJson;
+
+    private JsonNode rrule;
+
+    @Setup
+    public void setUp() throws Exception {
+        rrule = new ObjectMapper().readTree(rruleJson);
+    }
+
+    @Benchmark
+    public Recur buildRruleAndParse() throws Exception {
+        return new Recur(CompiledRecurrence.toRruleString(rrule));
+    }
+
+    @Benchmark
+    public CompiledRecurrence compile() {
+        return CompiledRecurrence.compile(rrule, LocalDateTime.of(2015, 1, 5, 7, 0), SyntheticSchedules.ZONE);
+    }
+}
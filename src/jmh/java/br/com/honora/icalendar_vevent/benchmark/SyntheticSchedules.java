@@ -0,0 +1,103 @@
+package br.com.honora.icalendar_vevent.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+
+/**
+ * Schedules em memória, com os filhos já "carregados", para os benchmarks: séries
+ * diárias longas (desde 2015) e semanais com BYDAY, com EXDATEs, RDATEs e
+ * overrides espalhados ao longo da série. Determinístico pela semente.
+ */
+public final class SyntheticSchedules {
+
+    public static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2015, 1, 5, 7, 0);
+
+    private SyntheticSchedules() {
+    }
+
+    /** count schedules, alternating daily and weekly (MO, WE, FR) series. */
+    public static List<Schedule> fleet(int count, int exdatesPerSchedule, int rdatesPerSchedule,
+            int overridesPerSchedule, long seed) {
+        Random random = new Random(seed);
+        List<Schedule> schedules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ObjectNode rrule = MAPPER.createObjectNode();
+            if (i % 2 == 0) {
+                rrule.put("freq", "DAILY").put("interval", 1);
+            } else {
+                rrule.put("freq", "WEEKLY").put("interval", 1).putArray("byday").add("MO").add("WE").add("FR");
+            }
+            schedules.add(schedule(rrule, FIRST_START.plusDays(random.nextInt(365)).plusMinutes(15L * (i % 40)),
+                    exdatesPerSchedule, rdatesPerSchedule, overridesPerSchedule, random));
+        }
+        return schedules;
+    }
+
+    /** One long-lived daily series with the given amount of children. */
+    public static Schedule dailySeries(int exdates, int rdates, int overrides, long seed) {
+        ObjectNode rrule = MAPPER.createObjectNode().put("freq", "DAILY").put("interval", 1);
+        return schedule(rrule, FIRST_START, exdates, rdates, overrides, new Random(seed));
+    }
+
+    private static Schedule schedule(ObjectNode rrule, LocalDateTime startLocal, int exdates, int rdates,
+            int overrides, Random random) {
+        OffsetDateTime startUtc = startLocal.atZone(ZONE).toOffsetDateTime();
+        Schedule s = Schedule.builder()
+                .id(new UUID(random.nextLong(), random.nextLong()))
+                .rruleJson(rrule)
+                .tzid(ZONE.getId())
+                .seriesStartLocal(startLocal)
+                .seriesStartUtc(startUtc)
+                .durationSeconds(12 * 3600)
+                .summary("Plantão sintético")
+                .notes("Benchmark")
+                .hasExdates(exdates > 0)
+                .hasRdates(rdates > 0)
+                .hasOverrides(overrides > 0)
+                .createdAt(startUtc)
+                .updatedAt(startUtc)
+                .build();
+        // ids explícitos: os filhos usam equals/hashCode pelo id
+        int spanDays = 12 * 365;
+        for (int i = 0; i < exdates; i++) {
+            s.addExdate(ScheduleExdate.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .exdateLocal(startLocal.plusDays(random.nextInt(spanDays)))
+                    .build());
+        }
+        for (int i = 0; i < rdates; i++) {
+            s.addRdate(ScheduleRdate.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .rdateLocal(startLocal.plusDays(random.nextInt(spanDays)).plusHours(3))
+                    .durationSeconds(3600)
+                    .build());
+        }
+        for (int i = 0; i < overrides; i++) {
+            LocalDateTime recurrenceId = startLocal.plusDays(random.nextInt(spanDays));
+            s.addOverride(ScheduleOverride.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .recurrenceIdLocal(recurrenceId)
+                    .newStartLocal(recurrenceId.plusHours(1))
+                    .newDurationSeconds(6 * 3600)
+                    .summary("Troca de plantão")
+                    .build());
+        }
+        return s;
+    }
+}
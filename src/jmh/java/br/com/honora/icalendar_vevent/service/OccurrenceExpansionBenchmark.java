@@ -0,0 +1,65 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.honora.icalendar_vevent.benchmark.SyntheticSchedules;
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * O laço de expansão de findOccurrencesBetween para um único schedule com filhos
+ * já carregados: série diária desde 2015, consultada em janelas de um mês e de um
+ * ano, com poucos ou milhares de EXDATEs e muitos overrides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OccurrenceExpansionBenchmark {
+
+    private static final OffsetDateTime FROM = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+
+    @Param({ "10", "5000" })
+    public int exdates;
+
+    @Param({ "500" })
+    public int overrides;
+
+    @Param({ "31", "365" })
+    public int windowDays;
+
+    private Schedule schedule;
+    private OccurrenceExpander expander;
+    private OffsetDateTime to;
+
+    @Setup
+    public void setUp() {
+        schedule = SyntheticSchedules.dailySeries(exdates, 200, overrides, 11L);
+        expander = new OccurrenceExpander(new RecurrenceCache(1000, Duration.ofHours(1), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        to = FROM.plusDays(windowDays).minusSeconds(1);
+    }
+
+    @Benchmark
+    public List<ScheduleOccurrenceResponse> expand() {
+        return expander.expand(schedule, FROM, to);
+    }
+}
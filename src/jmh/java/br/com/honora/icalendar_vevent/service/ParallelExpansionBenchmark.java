@@ -0,0 +1,82 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import br.com.honora.icalendar_vevent.benchmark.SyntheticSchedules;
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Phase 3 of findOccurrencesBetween (expand + merge, children preloaded) over a
+ * quarter, sequential (parallelism = 1) versus the bounded fork-join expansion.
+ * <p>
+ * mvn -Pjmh compile exec:exec -Djmh.args="ParallelExpansionBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelExpansionBenchmark {
+
+    private static final OffsetDateTime FROM = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    private static final OffsetDateTime TO = OffsetDateTime.parse("2025-03-31T23:59:59Z");
+
+    @Param({ "1", "2", "4", "8" })
+    public int parallelism;
+
+    @Param({ "2000" })
+    public int schedules;
+
+    private List<Schedule> candidates;
+    private OccurrenceExpander expander;
+    private ParallelOccurrenceExpansion parallelExpansion;
+
+    @Setup
+    public void setUp() {
+        candidates = SyntheticSchedules.fleet(schedules, 200, 20, 20, 42L);
+        expander = new OccurrenceExpander(new RecurrenceCache(100_000, Duration.ofHours(1), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        parallelExpansion = new ParallelOccurrenceExpansion(expander, parallelism, 1, 256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelExpansion.shutdown();
+    }
+
+    @Benchmark
+    public void expandAndMerge(Blackhole bh) {
+        List<Iterator<ScheduleOccurrenceResponse>> perSchedule;
+        if (parallelExpansion.appliesTo(candidates.size())) {
+            perSchedule = parallelExpansion.expandAll(candidates, FROM, TO);
+        } else {
+            perSchedule = new ArrayList<>(candidates.size());
+            for (Schedule s : candidates) {
+                perSchedule.add(expander.iterator(s, FROM, TO));
+            }
+        }
+        new MergedOccurrenceIterator(perSchedule).forEachRemaining(bh::consume);
+    }
+}
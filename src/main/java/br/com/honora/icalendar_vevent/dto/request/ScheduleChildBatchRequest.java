@@ -0,0 +1,47 @@
+package br.com.honora.icalendar_vevent.dto.request;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Mudanças em lote nos filhos de um schedule: upserts (mesma semântica dos PUTs
+ * individuais) e remoções pela data/hora local. As remoções são aplicadas antes dos
+ * upserts; com a mesma chave repetida vale a última.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleChildBatchRequest {
+
+    @JsonProperty("scheduleId")
+    private UUID scheduleId; // só no lote entre schedules; em /{id}/children/batch vem do path
+
+    @JsonProperty("exdates")
+    private List<ScheduleExdateRequest> exdates;
+
+    @JsonProperty("removeExdates")
+    private List<LocalDateTime> removeExdates;
+
+    @JsonProperty("rdates")
+    private List<ScheduleRdateRequest> rdates;
+
+    @JsonProperty("removeRdates")
+    private List<LocalDateTime> removeRdates;
+
+    @JsonProperty("overrides")
+    private List<ScheduleOverrideRequest> overrides;
+
+    @JsonProperty("removeOverrides")
+    private List<LocalDateTime> removeOverrides;
+}
@@ -1,22 +1,22 @@
-package br.com.honora.icalendar_vevent.dto.request;
-
-import java.time.LocalDateTime;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-public class ScheduleExdateRequest {
-
-    @JsonProperty("exdateLocal")
-    private LocalDateTime exdateLocal;
-}
+package br.com.honora.icalendar_vevent.dto.request;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleExdateRequest {
+
+    @JsonProperty("exdateLocal")
+    private LocalDateTime exdateLocal;
+}
@@ -1,26 +1,26 @@
-package br.com.honora.icalendar_vevent.dto.request;
-
-import java.time.LocalDateTime;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-public class ScheduleRdateRequest {
-
-    @JsonProperty("rdateLocal")
-    private LocalDateTime rdateLocal;
-
-    @JsonProperty("durationSeconds")
-    private Integer durationSeconds;
-
-}
+package br.com.honora.icalendar_vevent.dto.request;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleRdateRequest {
+
+    @JsonProperty("rdateLocal")
+    private LocalDateTime rdateLocal;
+
+    @JsonProperty("durationSeconds")
+    private Integer durationSeconds;
+
+}
@@ -0,0 +1,13 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.time.OffsetDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BusyIntervalResponse {
+    private OffsetDateTime start;
+    private OffsetDateTime end; // exclusivo
+}
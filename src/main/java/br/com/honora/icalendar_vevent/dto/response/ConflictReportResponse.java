@@ -0,0 +1,18 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ConflictReportResponse {
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private int capacity;
+    private List<ConflictResponse> conflicts; // pares sobrepostos, em ordem de início do segundo
+    private List<BusyIntervalResponse> overCapacity; // trechos com mais de capacity ocorrências simultâneas
+    private boolean truncated; // conflicts parou em schedule.conflicts.max-pairs
+}
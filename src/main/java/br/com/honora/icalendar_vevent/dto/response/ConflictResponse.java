@@ -0,0 +1,15 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.time.OffsetDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ConflictResponse {
+    private ScheduleOccurrenceResponse first; // a que começou antes (ou no mesmo instante)
+    private ScheduleOccurrenceResponse second;
+    private OffsetDateTime overlapStart;
+    private OffsetDateTime overlapEnd; // exclusivo
+}
@@ -0,0 +1,15 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FreeBusyResponse {
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private List<BusyIntervalResponse> busy; // em ordem, sem sobreposição, recortados a [from, to]
+}
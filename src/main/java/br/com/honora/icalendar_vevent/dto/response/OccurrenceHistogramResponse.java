@@ -0,0 +1,20 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class OccurrenceHistogramResponse {
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private String bucket; // HOUR ou DAY
+    private String tzid; // fuso em que os buckets começam
+    private List<OffsetDateTime> bucketStarts; // início de cada bucket; o último vai até o próximo início
+    private long[] counts; // ocorrências que começam em cada bucket
+    private long total;
+    private List<ScheduleOccurrenceCountResponse> schedules; // só os schedules com ocorrências, por id
+}
@@ -0,0 +1,21 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScheduleImportResponse {
+    private int imported;
+    private int failed;
+    private List<ItemError> errors; // um por item rejeitado, na ordem da entrada
+
+    @Getter
+    @AllArgsConstructor
+    public static class ItemError {
+        private int index; // posição do item na entrada (0-based)
+        private String message;
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScheduleOccurrenceCountResponse {
+    private UUID scheduleId;
+    private long total;
+    private long[] counts; // por bucket, só com bySchedule=true
+}
@@ -0,0 +1,13 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScheduleOccurrencePageResponse {
+    private List<ScheduleOccurrenceResponse> items;
+    private String nextCursor; // null na última página
+}
@@ -0,0 +1,13 @@
+package br.com.honora.icalendar_vevent.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SchedulePageResponse {
+    private List<ScheduleResponse> items;
+    private String nextCursor; // null na última página
+}
@@ -0,0 +1,27 @@
+package br.com.honora.icalendar_vevent.ics;
+
+import java.util.List;
+
+/** Propriedades de um VEVENT, na ordem do arquivo (sem as de VALARMs aninhados). */
+public record IcsEvent(List<IcsProperty> properties) {
+
+    /** First property with this name, or null. */
+    public IcsProperty first(String name) {
+        for (IcsProperty p : properties) {
+            if (p.name().equals(name)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    public List<IcsProperty> all(String name) {
+        return properties.stream().filter(p -> p.name().equals(name)).toList();
+    }
+
+    /** Value of the first property with this name, or null. */
+    public String value(String name) {
+        IcsProperty p = first(name);
+        return p != null ? p.value() : null;
+    }
+}
@@ -0,0 +1,242 @@
+package br.com.honora.icalendar_vevent.ics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+
+/**
+ * Converte VEVENTs lidos pelo {@link IcsReader} nos mesmos requests da API: o
+ * mestre vira um {@link ScheduleRequest} (RRULE/EXDATE/RDATE) e cada VEVENT com
+ * RECURRENCE-ID um {@link ScheduleOverrideRequest} no fuso da série. Horários
+ * flutuantes e datas sem TZID são lidos em UTC. Só as partes de RRULE que o JSON
+ * armazenado representa são aceitas (FREQ, INTERVAL, BYDAY, COUNT, UNTIL e
+ * WKST=MO); qualquer outra rejeita o evento.
+ */
+public final class IcsEventMapper {
+
+    private static final DateTimeFormatter ICS_LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int ONE_DAY_SECONDS = 86_400;
+    private static final ZoneId UTC = ZoneId.of("UTC"); // tzid "UTC", não "Z"
+
+    /** Instante de uma propriedade de data: horário local no seu fuso. */
+    private record Moment(LocalDateTime local, ZoneId zone, boolean date) {
+        ZonedDateTime zoned() {
+            return local.atZone(zone);
+        }
+
+        LocalDateTime localIn(ZoneId target) {
+            return zoned().withZoneSameInstant(target).toLocalDateTime();
+        }
+    }
+
+    private IcsEventMapper() {
+    }
+
+    public static boolean isOverride(IcsEvent e) {
+        return e.first("RECURRENCE-ID") != null;
+    }
+
+    public static boolean isCancelled(IcsEvent e) {
+        return "CANCELLED".equalsIgnoreCase(e.value("STATUS"));
+    }
+
+    /** Master VEVENT as a create request; a VEVENT without RRULE becomes a single-occurrence series. */
+    public static ScheduleRequest toScheduleRequest(IcsEvent e) {
+        Moment start = moment(required(e, "DTSTART"), UTC);
+        ObjectNode rrule = e.first("RRULE") != null
+                ? toRruleJson(e.value("RRULE"), start)
+                : JsonNodeFactory.instance.objectNode().put("freq", "DAILY").put("count", 1);
+
+        List<ScheduleExdateRequest> exdates = new ArrayList<>();
+        for (IcsProperty p : e.all("EXDATE")) {
+            for (Moment m : moments(p, start.zone())) {
+                exdates.add(ScheduleExdateRequest.builder().exdateLocal(m.localIn(start.zone())).build());
+            }
+        }
+        List<ScheduleRdateRequest> rdates = new ArrayList<>();
+        for (IcsProperty p : e.all("RDATE")) {
+            if ("PERIOD".equalsIgnoreCase(p.param("VALUE"))) {
+                throw new IllegalArgumentException("RDATE;VALUE=PERIOD is not supported");
+            }
+            for (Moment m : moments(p, start.zone())) {
+                rdates.add(ScheduleRdateRequest.builder().rdateLocal(m.localIn(start.zone())).build());
+            }
+        }
+
+        return ScheduleRequest.builder()
+                .rrule(rrule)
+                .tzid(start.zone().getId())
+                .seriesStartLocal(start.local())
+                .seriesStartUtc(start.zoned().toOffsetDateTime())
+                .seriesUntilUtc(seriesUntilUtc(rrule, start))
+                .durationSeconds(durationSeconds(e, start))
+                .summary(unescapeText(e.value("SUMMARY")))
+                .notes(unescapeText(e.value("DESCRIPTION")))
+                .exdates(exdates)
+                .rdates(rdates)
+                .build();
+    }
+
+    /** RECURRENCE-ID of an override, as local time in the series zone. */
+    public static LocalDateTime recurrenceIdLocal(IcsEvent e, ZoneId seriesZone) {
+        return moment(required(e, "RECURRENCE-ID"), seriesZone).localIn(seriesZone);
+    }
+
+    /** Override VEVENT in the series zone; a missing duration is left to the series default. */
+    public static ScheduleOverrideRequest toOverrideRequest(IcsEvent e, ZoneId seriesZone) {
+        Moment start = moment(required(e, "DTSTART"), seriesZone);
+        return ScheduleOverrideRequest.builder()
+                .recurrenceIdLocal(recurrenceIdLocal(e, seriesZone))
+                .newStartLocal(start.localIn(seriesZone))
+                .newDurationSeconds(durationSeconds(e, start))
+                .summary(unescapeText(e.value("SUMMARY")))
+                .notes(unescapeText(e.value("DESCRIPTION")))
+                .build();
+    }
+
+    private static ObjectNode toRruleJson(String rrule, Moment start) {
+        ObjectNode json = JsonNodeFactory.instance.objectNode();
+        for (String part : rrule.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Malformed RRULE: " + rrule);
+            }
+            String value = part.substring(eq + 1);
+            switch (part.substring(0, eq).toUpperCase(Locale.ROOT)) {
+                case "FREQ" -> json.put("freq", value.toUpperCase(Locale.ROOT));
+                case "INTERVAL" -> json.put("interval", Integer.parseInt(value));
+                case "COUNT" -> json.put("count", Integer.parseInt(value));
+                case "BYDAY" -> {
+                    ArrayNode days = json.putArray("byday");
+                    for (String day : value.split(",")) {
+                        days.add(day.toUpperCase(Locale.ROOT));
+                    }
+                }
+                case "UNTIL" -> {
+                    Moment until = moment(value, null, start.zone());
+                    // UNTIL em DATE inclui o dia inteiro
+                    ZonedDateTime end = until.date() ? until.zoned().plusDays(1).minusSeconds(1) : until.zoned();
+                    json.put("until_utc", end.toInstant().toString());
+                }
+                case "WKST" -> {
+                    // não é armazenado: só o padrão (segunda-feira) preserva a expansão
+                    if (!value.equalsIgnoreCase("MO")) {
+                        throw new IllegalArgumentException("Unsupported RRULE part: " + part);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported RRULE part: " + part);
+            }
+        }
+        return json;
+    }
+
+    // UNTIL também poda a busca de candidatos; a coluna exige until > início
+    private static OffsetDateTime seriesUntilUtc(ObjectNode rrule, Moment start) {
+        if (!rrule.has("until_utc")) {
+            return null;
+        }
+        OffsetDateTime until = Instant.parse(rrule.get("until_utc").asText()).atOffset(ZoneOffset.UTC);
+        return until.isAfter(start.zoned().toOffsetDateTime()) ? until : null;
+    }
+
+    private static Integer durationSeconds(IcsEvent e, Moment start) {
+        String duration = e.value("DURATION");
+        if (duration != null) {
+            return (int) parseDuration(duration).toSeconds();
+        }
+        IcsProperty dtEnd = e.first("DTEND");
+        if (dtEnd != null) {
+            Moment end = moment(dtEnd, start.zone());
+            return (int) Duration.between(start.zoned(), end.zoned()).toSeconds();
+        }
+        // RFC 5545: sem DTEND/DURATION, um evento DATE dura o dia; DATE-TIME dura zero (inválido aqui)
+        return start.date() ? ONE_DAY_SECONDS : null;
+    }
+
+    // ISO 8601 como no .ics: P1W, P1DT2H, PT30M
+    static Duration parseDuration(String value) {
+        try {
+            if (value.endsWith("W")) {
+                return Duration.ofDays(7 * Long.parseLong(value.substring(value.indexOf('P') + 1, value.length() - 1)))
+                        .multipliedBy(value.startsWith("-") ? -1 : 1);
+            }
+            return Duration.parse(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid DURATION: " + value);
+        }
+    }
+
+    private static Moment moment(IcsProperty p, ZoneId floatingZone) {
+        return moment(p.value(), p.param("TZID"), floatingZone);
+    }
+
+    private static List<Moment> moments(IcsProperty p, ZoneId floatingZone) {
+        List<Moment> result = new ArrayList<>();
+        for (String value : p.value().split(",")) {
+            result.add(moment(value, p.param("TZID"), floatingZone));
+        }
+        return result;
+    }
+
+    private static Moment moment(String value, String tzid, ZoneId floatingZone) {
+        try {
+            if (value.length() == 8) {
+                ZoneId zone = tzid != null ? ZoneId.of(tzid) : floatingZone;
+                return new Moment(LocalDate.parse(value, ICS_DATE).atStartOfDay(), zone, true);
+            }
+            if (value.endsWith("Z")) {
+                return new Moment(LocalDateTime.parse(value.substring(0, value.length() - 1), ICS_LOCAL), UTC,
+                        false);
+            }
+            return new Moment(LocalDateTime.parse(value, ICS_LOCAL), tzid != null ? ZoneId.of(tzid) : floatingZone,
+                    false);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date-time: " + value);
+        }
+    }
+
+    private static IcsProperty required(IcsEvent e, String name) {
+        IcsProperty p = e.first(name);
+        if (p == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return p;
+    }
+
+    static String unescapeText(String value) {
+        if (value == null || value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
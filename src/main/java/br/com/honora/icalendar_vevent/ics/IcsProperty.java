@@ -0,0 +1,55 @@
+package br.com.honora.icalendar_vevent.ics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Uma linha de conteúdo iCalendar já desdobrada: NOME;PARAM=valor:VALOR. Nomes de
+ * propriedade e de parâmetro em maiúsculas; o valor é mantido como veio (com
+ * escapes de TEXT).
+ */
+public record IcsProperty(String name, Map<String, String> params, String value) {
+
+    public String param(String name) {
+        return params.get(name);
+    }
+
+    /** Parses one unfolded content line; quoted parameter values may contain ':' and ';'. */
+    static IcsProperty parse(String line) {
+        int n = line.length();
+        int i = 0;
+        while (i < n && line.charAt(i) != ';' && line.charAt(i) != ':') {
+            i++;
+        }
+        if (i == n) {
+            throw new IllegalArgumentException("Malformed content line: " + line);
+        }
+        String name = line.substring(0, i).toUpperCase(Locale.ROOT);
+        Map<String, String> params = new LinkedHashMap<>();
+        while (line.charAt(i) == ';') {
+            int eq = line.indexOf('=', i);
+            if (eq < 0) {
+                throw new IllegalArgumentException("Malformed parameter in: " + line);
+            }
+            int j = eq + 1;
+            boolean quoted = false;
+            while (j < n && (quoted || (line.charAt(j) != ';' && line.charAt(j) != ':'))) {
+                if (line.charAt(j) == '"') {
+                    quoted = !quoted;
+                }
+                j++;
+            }
+            if (j == n) {
+                throw new IllegalArgumentException("Malformed content line: " + line);
+            }
+            String value = line.substring(eq + 1, j);
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            params.put(line.substring(i + 1, eq).toUpperCase(Locale.ROOT), value);
+            i = j;
+        }
+        return new IcsProperty(name, params, line.substring(i + 1));
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.honora.icalendar_vevent.ics;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura incremental de iCalendar (RFC 5545): desdobra as linhas (continuações
+ * começam com espaço ou tab) e devolve um VEVENT por vez, então a memória usada é
+ * a de um evento, não a do arquivo. Componentes fora de VEVENT (VTIMEZONE etc.)
+ * são ignorados; TZIDs são resolvidos como ids IANA.
+ */
+public class IcsReader implements Closeable {
+
+    private final BufferedReader in;
+    private String lookahead;
+
+    public IcsReader(Reader in) {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+    }
+
+    /**
+     * Next VEVENT of the stream, or null at the end of input. A malformed content
+     * line fails only its own VEVENT: the rest of it is skipped and an
+     * IllegalArgumentException is thrown, after which reading can go on with the
+     * next one.
+     */
+    public IcsEvent nextEvent() throws IOException {
+        String line;
+        while ((line = nextLine()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                return readEvent();
+            }
+        }
+        return null;
+    }
+
+    private IcsEvent readEvent() throws IOException {
+        List<IcsProperty> properties = new ArrayList<>();
+        String malformed = null; // primeira linha inválida; o resto do VEVENT é só consumido
+        int nested = 0; // VALARMs dentro do VEVENT
+        String line;
+        while ((line = nextLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            IcsProperty p;
+            try {
+                p = IcsProperty.parse(line);
+            } catch (IllegalArgumentException e) {
+                malformed = malformed != null ? malformed : e.getMessage();
+                continue; // BEGIN/END sempre têm ':', então nunca caem aqui
+            }
+            if (p.name().equals("BEGIN")) {
+                nested++;
+            } else if (p.name().equals("END")) {
+                if (nested == 0) {
+                    if (malformed != null) {
+                        throw new IllegalArgumentException(malformed);
+                    }
+                    return new IcsEvent(properties);
+                }
+                nested--;
+            } else if (nested == 0 && malformed == null) {
+                properties.add(p);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated VEVENT at end of input");
+    }
+
+    // Próxima linha lógica: junta as continuações à linha anterior
+    private String nextLine() throws IOException {
+        String line = lookahead != null ? lookahead : in.readLine();
+        lookahead = null;
+        if (line == null) {
+            return null;
+        }
+        StringBuilder unfolded = null;
+        String next;
+        while ((next = in.readLine()) != null && !next.isEmpty()
+                && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            unfolded.append(next, 1, next.length());
+        }
+        lookahead = next;
+        return unfolded != null ? unfolded.toString() : line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
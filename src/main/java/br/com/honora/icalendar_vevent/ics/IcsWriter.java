@@ -0,0 +1,171 @@
+package br.com.honora.icalendar_vevent.ics;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+import br.com.honora.icalendar_vevent.dto.response.BusyIntervalResponse;
+
+/**
+ * Escreve iCalendar (RFC 5545) direto em um {@link Appendable}: um VCALENDAR com,
+ * para cada schedule, o VEVENT mestre (RRULE/EXDATE/RDATE) e um VEVENT por
+ * override com RECURRENCE-ID. Os schedules devem ter os filhos carregados.
+ * Também escreve VFREEBUSY com intervalos ocupados já calculados.
+ */
+public class IcsWriter {
+
+    private static final DateTimeFormatter ICS_ZULU = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter ICS_LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final Appendable out;
+    private final String dtStamp;
+
+    public IcsWriter(Appendable out, Instant dtStamp) {
+        this.out = out;
+        this.dtStamp = ICS_ZULU.format(dtStamp);
+    }
+
+    public void beginCalendar() throws IOException {
+        out.append("BEGIN:VCALENDAR\r\n");
+        out.append("PRODID:-//UVIX//Agenda de Plantões//PT-BR\r\n");
+        out.append("VERSION:2.0\r\n");
+        out.append("CALSCALE:GREGORIAN\r\n");
+        out.append("METHOD:PUBLISH\r\n\r\n");
+    }
+
+    /** Master VEVENT plus one VEVENT per override; rrule may be empty. */
+    public void writeSchedule(Schedule s, String rrule) throws IOException {
+        String uid = s.getId().toString() + "@icalendar-vevent"; // personalize se quiser
+
+        // Base VEVENT (série)
+        out.append("BEGIN:VEVENT\r\n");
+        out.append("UID:").append(uid).append("\r\n");
+        out.append("DTSTAMP:").append(dtStamp).append("\r\n");
+        if (s.getSummary() != null)
+            out.append("SUMMARY:").append(escapeText(s.getSummary())).append("\r\n");
+        if (s.getNotes() != null)
+            out.append("DESCRIPTION:").append(escapeText(s.getNotes())).append("\r\n");
+
+        // DTSTART local com TZID
+        String tzid = s.getTzid();
+        out.append("DTSTART;TZID=").append(tzid).append(":").append(ICS_LOCAL.format(s.getSeriesStartLocal()))
+                .append("\r\n");
+
+        // DURATION ISO-8601
+        out.append("DURATION:").append(toISODuration(s.getDurationSeconds())).append("\r\n");
+
+        // RRULE a partir do JSON
+        if (!rrule.isBlank()) {
+            out.append("RRULE:").append(rrule).append("\r\n");
+        }
+
+        // EXDATE (em linhas, podendo agrupar por TZID igual ao DTSTART)
+        if (s.isHasExdates() && s.getExdates() != null && !s.getExdates().isEmpty()) {
+            writeDateList("EXDATE", tzid, s.getExdates().stream().map(ScheduleExdate::getExdateLocal).sorted()
+                    .iterator());
+        }
+
+        // RDATEs agregados no evento mestre
+        if (s.isHasRdates() && s.getRdates() != null && !s.getRdates().isEmpty()) {
+            writeDateList("RDATE", tzid, s.getRdates().stream().map(ScheduleRdate::getRdateLocal).sorted()
+                    .iterator());
+        }
+
+        out.append("END:VEVENT\r\n\r\n");
+
+        // Overrides – um VEVENT por override com RECURRENCE-ID
+        if (s.isHasOverrides() && s.getOverrides() != null) {
+            for (ScheduleOverride o : s.getOverrides()) {
+                out.append("BEGIN:VEVENT\r\n");
+                out.append("UID:").append(uid).append("\r\n");
+                out.append("DTSTAMP:").append(dtStamp).append("\r\n");
+                out.append("RECURRENCE-ID;TZID=").append(tzid).append(":")
+                        .append(ICS_LOCAL.format(o.getRecurrenceIdLocal())).append("\r\n");
+                if (o.getSummary() != null)
+                    out.append("SUMMARY:").append(escapeText(o.getSummary())).append("\r\n");
+                if (o.getNotes() != null)
+                    out.append("DESCRIPTION:").append(escapeText(o.getNotes())).append("\r\n");
+                out.append("DTSTART;TZID=").append(tzid).append(":").append(ICS_LOCAL.format(o.getNewStartLocal()))
+                        .append("\r\n");
+                out.append("DURATION:").append(toISODuration(
+                        Optional.ofNullable(o.getNewDurationSeconds()).orElse(s.getDurationSeconds())))
+                        .append("\r\n");
+                out.append("END:VEVENT\r\n\r\n");
+            }
+        }
+
+        // (Sem VEVENTs separados para RDATE; usamos RDATE no mestre.)
+    }
+
+    /** VFREEBUSY over [from, to] with one FREEBUSY line per busy interval (UTC). */
+    public void writeFreeBusy(OffsetDateTime from, OffsetDateTime to, List<BusyIntervalResponse> busy)
+            throws IOException {
+        out.append("BEGIN:VFREEBUSY\r\n");
+        out.append("UID:").append(UUID.randomUUID().toString()).append("@icalendar-vevent\r\n");
+        out.append("DTSTAMP:").append(dtStamp).append("\r\n");
+        out.append("DTSTART:").append(ICS_ZULU.format(from)).append("\r\n");
+        out.append("DTEND:").append(ICS_ZULU.format(to)).append("\r\n");
+        // uma linha por intervalo mantém as linhas curtas (sem dobra)
+        for (BusyIntervalResponse b : busy) {
+            out.append("FREEBUSY;FBTYPE=BUSY:").append(ICS_ZULU.format(b.getStart())).append('/')
+                    .append(ICS_ZULU.format(b.getEnd())).append("\r\n");
+        }
+        out.append("END:VFREEBUSY\r\n");
+    }
+
+    public void endCalendar() throws IOException {
+        out.append("END:VCALENDAR\r\n");
+    }
+
+    // PROP;TZID=...:d1,d2,... escrito direto, sem montar a lista em uma String
+    private void writeDateList(String property, String tzid, Iterator<LocalDateTime> dates) throws IOException {
+        out.append(property).append(";TZID=").append(tzid).append(":");
+        boolean first = true;
+        while (dates.hasNext()) {
+            if (!first)
+                out.append(',');
+            ICS_LOCAL.formatTo(dates.next(), out);
+            first = false;
+        }
+        out.append("\r\n");
+    }
+
+    static String toISODuration(Integer seconds) {
+        if (seconds == null || seconds <= 0)
+            return "PT0S";
+        long s = seconds;
+        long h = s / 3600;
+        s %= 3600;
+        long m = s / 60;
+        s %= 60;
+        StringBuilder b = new StringBuilder("PT");
+        if (h > 0)
+            b.append(h).append('H');
+        if (m > 0)
+            b.append(m).append('M');
+        if (s > 0 || (h == 0 && m == 0))
+            b.append(s).append('S');
+        return b.toString();
+    }
+
+    // Escapa texto conforme RFC5545 (vírgula, ponto e vírgula, barra invertida, quebras)
+    static String escapeText(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,230 @@
+package br.com.honora.icalendar_vevent.recurrence;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import net.fortuna.ical4j.model.DateList;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Recur;
+import net.fortuna.ical4j.model.parameter.Value;
+
+/**
+ * RRULE de uma versão de schedule já interpretada: a string RFC 5545 (usada no
+ * .ics), o {@link WindowedRecurrence} quando a regra está no subconjunto nativo e,
+ * caso contrário, o {@link Recur} do ical4j. Imutável, pode ser compartilhada
+ * entre requisições.
+ * O ical4j expande em hora local tratada como UTC (DTSTART e UNTIL convertidos para
+ * o fuso do schedule) e cada instância é convertida de volta com as regras de fuso
+ * do JDK, as mesmas do caminho nativo: sem isso o horário escorregaria uma hora ao
+ * atravessar o horário de verão.
+ */
+public final class CompiledRecurrence {
+
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final long[] NO_STARTS = new long[0];
+    private static final long DAY_SECONDS = 86_400; // folga da janela local: cobre qualquer offset
+    private static final long FAR_FUTURE_EPOCH = 253_402_300_799L; // 9999-12-31T23:59:59Z
+
+    private final String rrule;
+    private final WindowedRecurrence windowed;
+    private final Recur recur;
+    private final Exception error;
+    // só para o ical4j
+    private final LocalDateTime seriesStartLocal;
+    private final ZoneId zone;
+    private final long untilEpoch;
+
+    private CompiledRecurrence(String rrule, WindowedRecurrence windowed, Recur recur, Exception error) {
+        this(rrule, windowed, recur, error, null, null, Long.MAX_VALUE);
+    }
+
+    private CompiledRecurrence(String rrule, WindowedRecurrence windowed, Recur recur, Exception error,
+            LocalDateTime seriesStartLocal, ZoneId zone, long untilEpoch) {
+        this.rrule = rrule;
+        this.windowed = windowed;
+        this.recur = recur;
+        this.error = error;
+        this.seriesStartLocal = seriesStartLocal;
+        this.zone = zone;
+        this.untilEpoch = untilEpoch;
+    }
+
+    /**
+     * Builds the RRULE string and compiles it once. Parse errors do not propagate:
+     * they are kept in {@link #getError()} and the rule expands to nothing.
+     */
+    public static CompiledRecurrence compile(JsonNode rr, LocalDateTime seriesStartLocal, ZoneId zone) {
+        if (rr == null || !rr.has("freq")) {
+            return new CompiledRecurrence("", null, null, null);
+        }
+        String rrule;
+        try {
+            rrule = toRruleString(rr);
+        } catch (DateTimeParseException e) {
+            return new CompiledRecurrence("", null, null, e);
+        }
+        WindowedRecurrence windowed = WindowedRecurrence.compile(rr, seriesStartLocal, zone);
+        if (windowed != null) {
+            return new CompiledRecurrence(rrule, windowed, null, null);
+        }
+        return compileWithIcal4j(rr, rrule, seriesStartLocal, zone);
+    }
+
+    // Caminho do ical4j mesmo para regras do subconjunto nativo (usado nos testes cruzados)
+    static CompiledRecurrence compileWithIcal4j(JsonNode rr, String rrule, LocalDateTime seriesStartLocal,
+            ZoneId zone) {
+        try {
+            String localRule = rrule;
+            long untilEpoch = Long.MAX_VALUE;
+            if (!rrule.contains(";COUNT=") && rr.has("until_utc") && !rr.get("until_utc").isNull()) {
+                // UNTIL em hora local como UTC, para comparar com o DTSTART local
+                Instant until = Instant.parse(rr.get("until_utc").asText());
+                untilEpoch = until.getEpochSecond();
+                localRule = rrule.replace(UNTIL_FORMAT.format(until),
+                        UNTIL_FORMAT.format(until.atZone(zone).toLocalDateTime().toInstant(ZoneOffset.UTC)));
+            }
+            return new CompiledRecurrence(rrule, null, new Recur(localRule), null, seriesStartLocal, zone,
+                    untilEpoch);
+        } catch (ParseException | RuntimeException e) {
+            return new CompiledRecurrence(rrule, null, null, e);
+        }
+    }
+
+    // Constrói string RRULE básica a partir do JSON armazenado
+    public static String toRruleString(JsonNode rr) {
+        StringBuilder sb = new StringBuilder();
+        if (rr.has("freq")) {
+            sb.append("FREQ=").append(rr.get("freq").asText().toUpperCase());
+        }
+        if (rr.has("interval") && !rr.get("interval").isNull()) {
+            sb.append(";INTERVAL=").append(rr.get("interval").asInt());
+        }
+        if (rr.has("byday") && rr.get("byday").isArray()) {
+            List<String> days = new ArrayList<>();
+            rr.get("byday").forEach(node -> {
+                if (!node.isNull())
+                    days.add(node.asText());
+            });
+            if (!days.isEmpty())
+                sb.append(";BYDAY=").append(String.join(",", days));
+        }
+        if (rr.has("count") && !rr.get("count").isNull()) {
+            sb.append(";COUNT=").append(rr.get("count").asInt());
+        } else if (rr.has("until_utc") && !rr.get("until_utc").isNull()) {
+            Instant inst = Instant.parse(rr.get("until_utc").asText());
+            sb.append(";UNTIL=").append(UNTIL_FORMAT.format(inst));
+        }
+        return sb.toString();
+    }
+
+    /** RRULE value for the .ics export; empty when the schedule has no rule. */
+    public String getRrule() {
+        return rrule;
+    }
+
+    /** Whether there is a rule to expand (false for no rule or an invalid one). */
+    public boolean hasRule() {
+        return windowed != null || recur != null;
+    }
+
+    /** Why the stored rule could not be compiled, or null. */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * Instance starts within [fromEpoch, toEpoch] as epoch seconds. The ical4j
+     * fallback walks from DTSTART in local time and converts each instance with the
+     * schedule's zone.
+     */
+    public long[] expand(long fromEpoch, long toEpoch) {
+        if (windowed != null) {
+            return windowed.expand(fromEpoch, toEpoch);
+        }
+        if (recur == null) {
+            return NO_STARTS;
+        }
+        DateTime seed = localAsUtc(seriesStartLocal.toEpochSecond(ZoneOffset.UTC));
+        DateTime periodStart = localAsUtc(fromEpoch - DAY_SECONDS);
+        DateTime periodEnd = localAsUtc(toEpoch + DAY_SECONDS);
+
+        DateList dates = recur.getDates(seed, periodStart, periodEnd, Value.DATE_TIME);
+        long[] starts = new long[dates.size()];
+        int n = 0;
+        for (Object obj : dates) {
+            LocalDateTime local = LocalDateTime.ofEpochSecond(((DateTime) obj).getTime() / 1000, 0, ZoneOffset.UTC);
+            long epoch = local.atZone(zone).toEpochSecond();
+            if (epoch >= fromEpoch && epoch <= toEpoch && epoch <= untilEpoch) {
+                starts[n++] = epoch;
+            }
+        }
+        return Arrays.copyOf(starts, n);
+    }
+
+    /**
+     * Whether the rule has an instance after epochSecond: false once a COUNT or UNTIL
+     * rule is exhausted (or with no valid rule), true for an endless one. The native
+     * path only looks for the next instance; the ical4j fallback expands what is
+     * left of a COUNT/UNTIL rule.
+     */
+    public boolean hasStartAfter(long epochSecond) {
+        if (windowed != null) {
+            return windowed.cursor(epochSecond + 1, FAR_FUTURE_EPOCH).hasNext();
+        }
+        if (recur == null) {
+            return false;
+        }
+        if (!rrule.contains(";COUNT=") && !rrule.contains(";UNTIL=")) {
+            return true; // sem fim: não vale expandir até o FAR_FUTURE_EPOCH
+        }
+        return expand(epochSecond + 1, FAR_FUTURE_EPOCH).length > 0;
+    }
+
+    private static DateTime localAsUtc(long epochSecond) {
+        DateTime dt = new DateTime(Date.from(Instant.ofEpochSecond(epochSecond)));
+        dt.setUtc(true);
+        return dt;
+    }
+
+    /**
+     * Same instants as {@link #expand}, ascending, produced lazily when the rule is
+     * in the native subset (the ical4j fallback is expanded up front and sorted).
+     */
+    public PrimitiveIterator.OfLong starts(long fromEpoch, long toEpoch) {
+        if (windowed == null) {
+            long[] starts = expand(fromEpoch, toEpoch);
+            Arrays.sort(starts);
+            return Arrays.stream(starts).iterator();
+        }
+        WindowedRecurrence.Cursor cursor = windowed.cursor(fromEpoch, toEpoch);
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return cursor.nextEpochSecond();
+            }
+        };
+    }
+
+    /** The native expander, or null when this rule falls back to ical4j. */
+    public WindowedRecurrence getWindowed() {
+        return windowed;
+    }
+}
@@ -0,0 +1,316 @@
+package br.com.honora.icalendar_vevent.recurrence;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import br.com.honora.icalendar_vevent.utils.WallClock;
+
+/**
+ * Expansor nativo de RRULE para o subconjunto gravado em sch_rrule_json
+ * (FREQ, INTERVAL, BYDAY sem ordinal, COUNT, UNTIL).
+ * <p>
+ * Ao contrário do ical4j, que percorre todas as instâncias desde o DTSTART, o
+ * cursor salta aritmeticamente para o período que contém o início da janela e só
+ * gera as instâncias dentro dela, em epoch-seconds. As instâncias seguem a hora
+ * local do DTSTART no TZID da série (RFC 5545). Regras fora do subconjunto
+ * ({@link #compile} devolve null) continuam com o ical4j.
+ */
+public final class WindowedRecurrence {
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final long NO_DAY = Long.MIN_VALUE;
+    private static final String[] WEEKDAYS = { "MO", "TU", "WE", "TH", "FR", "SA", "SU" };
+
+    private final Frequency freq;
+    private final int interval;
+    private final int dayMask; // bit (dia ISO - 1); para WEEKLY nunca é 0
+    private final int count; // 0 = sem COUNT
+    private final long untilEpoch; // Long.MAX_VALUE = sem UNTIL
+    private final ZoneId zone;
+    private final long startEpoch;
+    private final long startEpochDay;
+    private final int startSecondOfDay;
+    private final int startDayOfMonth;
+    private final long startMonthIndex; // ano * 12 + (mês - 1)
+    private final long startWeekMonday;
+
+    private WindowedRecurrence(Frequency freq, int interval, int dayMask, int count, long untilEpoch,
+            LocalDateTime seriesStartLocal, ZoneId zone) {
+        LocalDate startDate = seriesStartLocal.toLocalDate();
+        this.freq = freq;
+        this.interval = interval;
+        this.count = count;
+        this.untilEpoch = untilEpoch;
+        this.zone = zone;
+        this.startEpochDay = startDate.toEpochDay();
+        this.startSecondOfDay = seriesStartLocal.toLocalTime().toSecondOfDay();
+        this.startDayOfMonth = startDate.getDayOfMonth();
+        this.startMonthIndex = startDate.getYear() * 12L + startDate.getMonthValue() - 1;
+        this.startWeekMonday = startEpochDay - (dayOfWeek(startEpochDay) - 1);
+        this.dayMask = freq == Frequency.WEEKLY && dayMask == 0 ? 1 << (dayOfWeek(startEpochDay) - 1) : dayMask;
+        this.startEpoch = new WallClock(zone).toEpoch(startEpochDay * SECONDS_PER_DAY + startSecondOfDay);
+    }
+
+    /**
+     * Compiles the stored RRULE JSON for a series starting at seriesStartLocal in
+     * zone, or returns null when the rule is outside the supported subset (ordinal
+     * BYDAY such as 1MO, BYDAY with MONTHLY/YEARLY, invalid values).
+     */
+    public static WindowedRecurrence compile(JsonNode rr, LocalDateTime seriesStartLocal, ZoneId zone) {
+        if (rr == null || !rr.hasNonNull("freq") || seriesStartLocal == null || zone == null) {
+            return null;
+        }
+        Frequency freq;
+        try {
+            freq = Frequency.valueOf(rr.get("freq").asText().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int interval = rr.hasNonNull("interval") ? rr.get("interval").asInt() : 1;
+        if (interval < 1) {
+            return null;
+        }
+        int dayMask = 0;
+        if (rr.has("byday") && rr.get("byday").isArray()) {
+            for (JsonNode node : rr.get("byday")) {
+                if (node.isNull())
+                    continue;
+                int dow = Arrays.asList(WEEKDAYS).indexOf(node.asText().trim().toUpperCase());
+                if (dow < 0)
+                    return null;
+                dayMask |= 1 << dow;
+            }
+        }
+        if (dayMask != 0 && (freq == Frequency.MONTHLY || freq == Frequency.YEARLY)) {
+            return null;
+        }
+        int count = 0;
+        long untilEpoch = Long.MAX_VALUE;
+        if (rr.hasNonNull("count")) {
+            count = rr.get("count").asInt();
+            if (count < 1)
+                return null;
+        } else if (rr.hasNonNull("until_utc")) {
+            try {
+                untilEpoch = Instant.parse(rr.get("until_utc").asText()).getEpochSecond();
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return new WindowedRecurrence(freq, interval, dayMask, count, untilEpoch, seriesStartLocal, zone);
+    }
+
+    /** Instance starts within [fromEpoch, toEpoch], ascending, in epoch seconds. */
+    public long[] expand(long fromEpoch, long toEpoch) {
+        Cursor cursor = cursor(fromEpoch, toEpoch);
+        long[] out = new long[16];
+        int n = 0;
+        while (cursor.hasNext()) {
+            if (n == out.length)
+                out = Arrays.copyOf(out, n * 2);
+            out[n++] = cursor.nextEpochSecond();
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Lazy, ascending iteration over the instance starts within [fromEpoch, toEpoch]. */
+    public Cursor cursor(long fromEpoch, long toEpoch) {
+        return new Cursor(fromEpoch, toEpoch);
+    }
+
+    public final class Cursor {
+        private final WallClock clock = new WallClock(zone);
+        private final long from;
+        private final long to;
+        private final long horizonDay;
+        private long period;
+        private int slot; // próximo dia da semana a testar (WEEKLY)
+        private long index; // instâncias da regra antes da posição atual (COUNT)
+        private long next;
+        private boolean done;
+
+        private Cursor(long fromEpoch, long toEpoch) {
+            this.from = Math.max(fromEpoch, startEpoch);
+            this.to = Math.min(toEpoch, untilEpoch);
+            if (this.from > this.to) {
+                this.horizonDay = NO_DAY;
+                this.done = true;
+                return;
+            }
+            this.horizonDay = Math.floorDiv(clock.toLocal(this.to), SECONDS_PER_DAY) + 1;
+            // um dia de folga cobre a diferença de offset entre "from" e a instância
+            long fromDay = Math.floorDiv(clock.toLocal(this.from), SECONDS_PER_DAY) - 1;
+            this.period = Math.max(0, periodOf(fromDay));
+            this.index = count > 0 ? countBefore(period) : 0;
+            advance();
+        }
+
+        public boolean hasNext() {
+            return !done;
+        }
+
+        public long nextEpochSecond() {
+            if (done)
+                throw new NoSuchElementException();
+            long current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            while (true) {
+                long day = nextDay();
+                if (day == NO_DAY || (count > 0 && index >= count)) {
+                    done = true;
+                    return;
+                }
+                long epoch = clock.toEpoch(day * SECONDS_PER_DAY + startSecondOfDay);
+                index++;
+                if (epoch > to) {
+                    done = true;
+                    return;
+                }
+                if (epoch >= from) {
+                    next = epoch;
+                    return;
+                }
+            }
+        }
+
+        // Próximo dia local que satisfaz a regra, ou NO_DAY após o horizonte
+        private long nextDay() {
+            switch (freq) {
+                case DAILY:
+                    while (true) {
+                        long day = startEpochDay + period * interval;
+                        if (day > horizonDay)
+                            return NO_DAY;
+                        period++;
+                        if (dayMask == 0 || matches(day))
+                            return day;
+                    }
+                case WEEKLY:
+                    while (true) {
+                        long monday = startWeekMonday + period * 7L * interval;
+                        if (monday > horizonDay)
+                            return NO_DAY;
+                        while (slot < 7) {
+                            int d = slot++;
+                            if ((dayMask & (1 << d)) != 0 && monday + d >= startEpochDay)
+                                return monday + d;
+                        }
+                        slot = 0;
+                        period++;
+                    }
+                default:
+                    while (true) {
+                        long monthIndex = startMonthIndex + period * monthStep();
+                        long firstOfMonth = epochDayOfMonthStart(monthIndex);
+                        if (firstOfMonth > horizonDay)
+                            return NO_DAY;
+                        period++;
+                        if (startDayOfMonth <= lengthOfMonth(monthIndex))
+                            return firstOfMonth + startDayOfMonth - 1;
+                    }
+            }
+        }
+    }
+
+    // Índice do período que contém o dia local informado (pode ser negativo)
+    private long periodOf(long epochDay) {
+        switch (freq) {
+            case DAILY:
+                return Math.floorDiv(epochDay - startEpochDay, (long) interval);
+            case WEEKLY:
+                return Math.floorDiv(epochDay - startWeekMonday, 7L * interval);
+            default:
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                long monthIndex = date.getYear() * 12L + date.getMonthValue() - 1;
+                return Math.floorDiv(monthIndex - startMonthIndex, monthStep());
+        }
+    }
+
+    // Quantidade de instâncias geradas pelos períodos [0, period)
+    private long countBefore(long period) {
+        if (period <= 0)
+            return 0;
+        switch (freq) {
+            case DAILY: {
+                if (dayMask == 0)
+                    return period;
+                // o dia da semana se repete a cada 7 períodos (ou a cada 1, se interval % 7 == 0)
+                int cycle = interval % 7 == 0 ? 1 : 7;
+                long perCycle = 0;
+                for (int q = 0; q < cycle; q++)
+                    if (matches(startEpochDay + (long) q * interval))
+                        perCycle++;
+                long fullCycles = period / cycle;
+                long total = fullCycles * perCycle;
+                for (long q = fullCycles * cycle; q < period; q++)
+                    if (matches(startEpochDay + q * interval))
+                        total++;
+                return total;
+            }
+            case WEEKLY: {
+                int firstWeek = Integer.bitCount(dayMask >>> (dayOfWeek(startEpochDay) - 1));
+                return firstWeek + (period - 1) * Integer.bitCount(dayMask);
+            }
+            default: {
+                if (startDayOfMonth <= 28)
+                    return period;
+                long total = 0;
+                for (long q = 0; q < period; q++)
+                    if (startDayOfMonth <= lengthOfMonth(startMonthIndex + q * monthStep()))
+                        total++;
+                return total;
+            }
+        }
+    }
+
+    private long monthStep() {
+        return freq == Frequency.YEARLY ? 12L * interval : interval;
+    }
+
+    private boolean matches(long epochDay) {
+        return (dayMask & (1 << (dayOfWeek(epochDay) - 1))) != 0;
+    }
+
+    // 1 = segunda ... 7 = domingo (1970-01-01 foi quinta)
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+    }
+
+    private static long epochDayOfMonthStart(long monthIndex) {
+        int year = (int) Math.floorDiv(monthIndex, 12L);
+        int month = (int) Math.floorMod(monthIndex, 12L) + 1;
+        return LocalDate.of(year, month, 1).toEpochDay();
+    }
+
+    private static int lengthOfMonth(long monthIndex) {
+        long year = Math.floorDiv(monthIndex, 12L);
+        int month = (int) Math.floorMod(monthIndex, 12L) + 1;
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
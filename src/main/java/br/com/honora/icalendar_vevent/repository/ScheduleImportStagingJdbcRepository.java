@@ -0,0 +1,98 @@
+package br.com.honora.icalendar_vevent.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Área de trabalho do import .ics (ver V7): o UID de cada série gravada e os
+ * VEVENTs com RECURRENCE-ID ainda sem mestre, por importação, para ligá-los no fim
+ * com um join em vez de mantê-los em memória.
+ */
+@Repository
+public class ScheduleImportStagingJdbcRepository {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    /** A stored master: the schedule written for a UID. */
+    public record StagedSeries(String uid, UUID scheduleId, String tzid, int durationSeconds) {
+    }
+
+    /** A RECURRENCE-ID event waiting for its master, as JSON. */
+    public record StagedOrphan(int index, String uid, String eventJson) {
+    }
+
+    /** A staged orphan and its master, or a null master when none was stored for the UID. */
+    public record ResolvedOrphan(StagedOrphan orphan, StagedSeries series) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleImportStagingJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Records the masters of an import; a repeated UID points to the last one. */
+    public void insertSeries(UUID importId, Collection<StagedSeries> series) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_sis_import_series (sis_import_id, sis_uid, sch_id, sis_tzid, sis_duration_seconds)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (sis_import_id, sis_uid) DO UPDATE
+                	SET sch_id = EXCLUDED.sch_id,
+                		sis_tzid = EXCLUDED.sis_tzid,
+                		sis_duration_seconds = EXCLUDED.sis_duration_seconds
+                """, series, INSERT_BATCH_SIZE, (ps, s) -> {
+            ps.setObject(1, importId);
+            ps.setString(2, s.uid());
+            ps.setObject(3, s.scheduleId());
+            ps.setString(4, s.tzid());
+            ps.setInt(5, s.durationSeconds());
+        });
+    }
+
+    public void insertOrphans(UUID importId, Collection<StagedOrphan> orphans) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_sio_import_orphan (sio_import_id, sio_index, sio_uid, sio_event)
+                VALUES (?, ?, ?, CAST(? AS jsonb))
+                """, orphans, INSERT_BATCH_SIZE, (ps, o) -> {
+            ps.setObject(1, importId);
+            ps.setInt(2, o.index());
+            ps.setString(3, o.uid());
+            ps.setString(4, o.eventJson());
+        });
+    }
+
+    /**
+     * Up to limit orphans of the import after position afterIndex, in file order,
+     * each joined with the master stored for its UID.
+     */
+    public List<ResolvedOrphan> findOrphansAfter(UUID importId, int afterIndex, int limit) {
+        return jdbcTemplate.query("""
+                SELECT o.sio_index, o.sio_uid, o.sio_event, s.sch_id, s.sis_tzid, s.sis_duration_seconds
+                FROM tb_sio_import_orphan o
+                LEFT JOIN tb_sis_import_series s
+                	ON s.sis_import_id = o.sio_import_id
+                	AND s.sis_uid = o.sio_uid
+                WHERE o.sio_import_id = ?
+                	AND o.sio_index > ?
+                ORDER BY o.sio_index
+                LIMIT ?
+                """, (rs, i) -> {
+            StagedOrphan orphan = new StagedOrphan(rs.getInt("sio_index"), rs.getString("sio_uid"),
+                    rs.getString("sio_event"));
+            UUID scheduleId = rs.getObject("sch_id", UUID.class);
+            return new ResolvedOrphan(orphan, scheduleId == null ? null
+                    : new StagedSeries(orphan.uid(), scheduleId, rs.getString("sis_tzid"),
+                            rs.getInt("sis_duration_seconds")));
+        }, importId, afterIndex, limit);
+    }
+
+    /** Removes everything staged by the import. */
+    public void deleteImport(UUID importId) {
+        jdbcTemplate.update("DELETE FROM tb_sio_import_orphan WHERE sio_import_id = ?", importId);
+        jdbcTemplate.update("DELETE FROM tb_sis_import_series WHERE sis_import_id = ?", importId);
+    }
+}
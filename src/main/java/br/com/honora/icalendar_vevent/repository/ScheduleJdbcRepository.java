@@ -0,0 +1,323 @@
+package br.com.honora.icalendar_vevent.repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+
+/**
+ * Escritas em lote de schedules e filhos via JDBC, sem passar pelo contexto de
+ * persistência: um INSERT por tabela e lote (reescrito em INSERT multi-linha pelo
+ * driver com reWriteBatchedInserts), em vez de um flush por entidade. Mudanças em
+ * lote de filhos de schedules existentes usam um statement por tabela, com as
+ * linhas passadas como arrays e expandidas por unnest.
+ */
+@Repository
+public class ScheduleJdbcRepository {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the schedules and their EXDATEs, RDATEs and OVERRIDES. Every entity
+     * must already carry its id; created/updated timestamps and the UTC columns of
+     * the children are filled in by the database.
+     */
+    public void insertAll(Collection<Schedule> schedules) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_sch_schedule (sch_id, sch_rrule_json, sch_tzid, sch_series_start_local,
+                	sch_series_start_utc, sch_series_until_utc, sch_duration_seconds, sch_summary, sch_notes,
+                	sch_has_exdates, sch_has_rdates, sch_has_overrides)
+                VALUES (?, CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, schedules, INSERT_BATCH_SIZE, (ps, s) -> {
+            ps.setObject(1, s.getId());
+            ps.setString(2, s.getRruleJson().toString());
+            ps.setString(3, s.getTzid());
+            ps.setObject(4, s.getSeriesStartLocal());
+            ps.setObject(5, s.getSeriesStartUtc());
+            ps.setObject(6, s.getSeriesUntilUtc());
+            ps.setInt(7, s.getDurationSeconds());
+            ps.setString(8, s.getSummary());
+            ps.setString(9, s.getNotes());
+            ps.setBoolean(10, s.isHasExdates());
+            ps.setBoolean(11, s.isHasRdates());
+            ps.setBoolean(12, s.isHasOverrides());
+        });
+
+        List<ScheduleExdate> exdates = new ArrayList<>();
+        List<ScheduleRdate> rdates = new ArrayList<>();
+        List<ScheduleOverride> overrides = new ArrayList<>();
+        for (Schedule s : schedules) {
+            exdates.addAll(s.getExdates());
+            rdates.addAll(s.getRdates());
+            overrides.addAll(s.getOverrides());
+        }
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_sex_schedule_exdate (sex_id, sex_exdate_local, sch_id)
+                VALUES (?, ?, ?)
+                """, exdates, INSERT_BATCH_SIZE, (ps, e) -> {
+            ps.setObject(1, e.getId());
+            ps.setObject(2, e.getExdateLocal());
+            ps.setObject(3, e.getSchedule().getId());
+        });
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_srd_schedule_rdate (srd_id, srd_rdate_local, srd_duration_seconds, sch_id)
+                VALUES (?, ?, ?, ?)
+                """, rdates, INSERT_BATCH_SIZE, (ps, r) -> {
+            ps.setObject(1, r.getId());
+            ps.setObject(2, r.getRdateLocal());
+            ps.setInt(3, r.getDurationSeconds());
+            ps.setObject(4, r.getSchedule().getId());
+        });
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_sov_schedule_override (sov_id, sov_recurrence_id_local, sov_new_start_local,
+                	sov_new_duration_seconds, sov_summary, sov_notes, sch_id)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, overrides, INSERT_BATCH_SIZE, (ps, o) -> {
+            ps.setObject(1, o.getId());
+            ps.setObject(2, o.getRecurrenceIdLocal());
+            ps.setObject(3, o.getNewStartLocal());
+            ps.setInt(4, o.getNewDurationSeconds());
+            ps.setString(5, o.getSummary());
+            ps.setString(6, o.getNotes());
+            ps.setObject(7, o.getSchedule().getId());
+        });
+    }
+
+    /**
+     * Inserts OVERRIDES of existing schedules, replacing the one with the same
+     * RECURRENCE-ID, and flags their schedules as having overrides.
+     */
+    public void upsertOverrides(Collection<ScheduleOverride> overrides) {
+        if (overrides.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_sov_schedule_override (sov_id, sov_recurrence_id_local, sov_new_start_local,
+                	sov_new_duration_seconds, sov_summary, sov_notes, sch_id)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (sch_id, sov_recurrence_id_local) DO UPDATE
+                	SET sov_new_start_local = EXCLUDED.sov_new_start_local,
+                		sov_new_duration_seconds = EXCLUDED.sov_new_duration_seconds,
+                		sov_summary = EXCLUDED.sov_summary,
+                		sov_notes = EXCLUDED.sov_notes
+                """, overrides, INSERT_BATCH_SIZE, (ps, o) -> {
+            ps.setObject(1, o.getId());
+            ps.setObject(2, o.getRecurrenceIdLocal());
+            ps.setObject(3, o.getNewStartLocal());
+            ps.setInt(4, o.getNewDurationSeconds());
+            ps.setString(5, o.getSummary());
+            ps.setString(6, o.getNotes());
+            ps.setObject(7, o.getSchedule().getId());
+        });
+        setFlag("sch_has_overrides", overrides.stream().map(o -> o.getSchedule().getId()).distinct().toList());
+    }
+
+    /** Inserts EXDATEs of existing schedules (repeated ones are kept once) and flags their schedules. */
+    public void insertExdates(Collection<ScheduleExdate> exdates) {
+        if (exdates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_sex_schedule_exdate (sex_id, sex_exdate_local, sch_id)
+                VALUES (?, ?, ?)
+                ON CONFLICT (sch_id, sex_exdate_local) DO NOTHING
+                """, exdates, INSERT_BATCH_SIZE, (ps, e) -> {
+            ps.setObject(1, e.getId());
+            ps.setObject(2, e.getExdateLocal());
+            ps.setObject(3, e.getSchedule().getId());
+        });
+        setFlag("sch_has_exdates", exdates.stream().map(e -> e.getSchedule().getId()).distinct().toList());
+    }
+
+    // ===== Mudanças de filhos por conjunto: um statement por tabela, com unnest =====
+
+    /**
+     * Locks the given schedules (in id order, so concurrent batches do not deadlock)
+     * and returns the ids that exist.
+     */
+    public Set<UUID> lockSchedules(Collection<UUID> scheduleIds) {
+        List<UUID> found = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT sch_id FROM tb_sch_schedule WHERE sch_id = ANY (?) ORDER BY sch_id FOR UPDATE");
+            ps.setArray(1, con.createArrayOf("uuid", scheduleIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+        return new HashSet<>(found);
+    }
+
+    /** Inserts the EXDATEs that do not exist yet. */
+    public void mergeExdates(Collection<ScheduleExdate> exdates) {
+        if (exdates.isEmpty()) {
+            return;
+        }
+        updateWithArrays("""
+                INSERT INTO tb_sex_schedule_exdate (sch_id, sex_exdate_local)
+                SELECT x.sch_id, x.exdate_local
+                FROM unnest(CAST(? AS uuid[]), CAST(? AS timestamp[])) AS x(sch_id, exdate_local)
+                ON CONFLICT (sch_id, sex_exdate_local) DO NOTHING
+                """,
+                exdates.stream().map(e -> e.getSchedule().getId()).toList(),
+                exdates.stream().map(ScheduleExdate::getExdateLocal).toList());
+    }
+
+    /** Inserts or updates RDATEs by local start; a null duration takes the schedule's. */
+    public void mergeRdates(Collection<ScheduleRdate> rdates) {
+        if (rdates.isEmpty()) {
+            return;
+        }
+        updateWithArrays("""
+                INSERT INTO tb_srd_schedule_rdate (sch_id, srd_rdate_local, srd_duration_seconds)
+                SELECT x.sch_id, x.rdate_local, COALESCE(x.duration_seconds, s.sch_duration_seconds)
+                FROM unnest(CAST(? AS uuid[]), CAST(? AS timestamp[]), CAST(? AS integer[]))
+                	AS x(sch_id, rdate_local, duration_seconds)
+                JOIN tb_sch_schedule s ON s.sch_id = x.sch_id
+                ON CONFLICT (sch_id, srd_rdate_local) DO UPDATE
+                	SET srd_duration_seconds = EXCLUDED.srd_duration_seconds
+                """,
+                rdates.stream().map(r -> r.getSchedule().getId()).toList(),
+                rdates.stream().map(ScheduleRdate::getRdateLocal).toList(),
+                rdates.stream().map(ScheduleRdate::getDurationSeconds).toList());
+    }
+
+    /** Inserts or replaces OVERRIDES by RECURRENCE-ID; a null duration takes the schedule's. */
+    public void mergeOverrides(Collection<ScheduleOverride> overrides) {
+        if (overrides.isEmpty()) {
+            return;
+        }
+        updateWithArrays("""
+                INSERT INTO tb_sov_schedule_override (sch_id, sov_recurrence_id_local, sov_new_start_local,
+                	sov_new_duration_seconds, sov_summary, sov_notes)
+                SELECT x.sch_id, x.recurrence_id_local, x.new_start_local,
+                	COALESCE(x.new_duration_seconds, s.sch_duration_seconds), x.summary, x.notes
+                FROM unnest(CAST(? AS uuid[]), CAST(? AS timestamp[]), CAST(? AS timestamp[]),
+                	CAST(? AS integer[]), CAST(? AS text[]), CAST(? AS text[]))
+                	AS x(sch_id, recurrence_id_local, new_start_local, new_duration_seconds, summary, notes)
+                JOIN tb_sch_schedule s ON s.sch_id = x.sch_id
+                ON CONFLICT (sch_id, sov_recurrence_id_local) DO UPDATE
+                	SET sov_new_start_local = EXCLUDED.sov_new_start_local,
+                		sov_new_duration_seconds = EXCLUDED.sov_new_duration_seconds,
+                		sov_summary = EXCLUDED.sov_summary,
+                		sov_notes = EXCLUDED.sov_notes
+                """,
+                overrides.stream().map(o -> o.getSchedule().getId()).toList(),
+                overrides.stream().map(ScheduleOverride::getRecurrenceIdLocal).toList(),
+                overrides.stream().map(ScheduleOverride::getNewStartLocal).toList(),
+                overrides.stream().map(ScheduleOverride::getNewDurationSeconds).toList(),
+                overrides.stream().map(ScheduleOverride::getSummary).toList(),
+                overrides.stream().map(ScheduleOverride::getNotes).toList());
+    }
+
+    /** Deletes EXDATEs by (schedule, local date-time). */
+    public void deleteExdates(Collection<ScheduleExdate> exdates) {
+        if (exdates.isEmpty()) {
+            return;
+        }
+        updateWithArrays("""
+                DELETE FROM tb_sex_schedule_exdate e
+                USING unnest(CAST(? AS uuid[]), CAST(? AS timestamp[])) AS x(sch_id, exdate_local)
+                WHERE e.sch_id = x.sch_id
+                	AND e.sex_exdate_local = x.exdate_local
+                """,
+                exdates.stream().map(e -> e.getSchedule().getId()).toList(),
+                exdates.stream().map(ScheduleExdate::getExdateLocal).toList());
+    }
+
+    /** Deletes RDATEs by (schedule, local start). */
+    public void deleteRdates(Collection<ScheduleRdate> rdates) {
+        if (rdates.isEmpty()) {
+            return;
+        }
+        updateWithArrays("""
+                DELETE FROM tb_srd_schedule_rdate r
+                USING unnest(CAST(? AS uuid[]), CAST(? AS timestamp[])) AS x(sch_id, rdate_local)
+                WHERE r.sch_id = x.sch_id
+                	AND r.srd_rdate_local = x.rdate_local
+                """,
+                rdates.stream().map(r -> r.getSchedule().getId()).toList(),
+                rdates.stream().map(ScheduleRdate::getRdateLocal).toList());
+    }
+
+    /** Deletes OVERRIDES by (schedule, RECURRENCE-ID). */
+    public void deleteOverrides(Collection<ScheduleOverride> overrides) {
+        if (overrides.isEmpty()) {
+            return;
+        }
+        updateWithArrays("""
+                DELETE FROM tb_sov_schedule_override o
+                USING unnest(CAST(? AS uuid[]), CAST(? AS timestamp[])) AS x(sch_id, recurrence_id_local)
+                WHERE o.sch_id = x.sch_id
+                	AND o.sov_recurrence_id_local = x.recurrence_id_local
+                """,
+                overrides.stream().map(o -> o.getSchedule().getId()).toList(),
+                overrides.stream().map(ScheduleOverride::getRecurrenceIdLocal).toList());
+    }
+
+    /**
+     * Recomputes sch_has_exdates/rdates/overrides of the given schedules from their
+     * children. Rows whose flags are already right are not updated, so a no-op
+     * change does not bump sch_updated_at (the ETag).
+     */
+    public void refreshChildFlags(Collection<UUID> scheduleIds) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    UPDATE tb_sch_schedule s
+                    SET sch_has_exdates = f.has_exdates,
+                    	sch_has_rdates = f.has_rdates,
+                    	sch_has_overrides = f.has_overrides
+                    FROM (
+                    	SELECT c.sch_id,
+                    		EXISTS (SELECT 1 FROM tb_sex_schedule_exdate e WHERE e.sch_id = c.sch_id) AS has_exdates,
+                    		EXISTS (SELECT 1 FROM tb_srd_schedule_rdate r WHERE r.sch_id = c.sch_id) AS has_rdates,
+                    		EXISTS (SELECT 1 FROM tb_sov_schedule_override o WHERE o.sch_id = c.sch_id) AS has_overrides
+                    	FROM tb_sch_schedule c
+                    	WHERE c.sch_id = ANY (?)
+                    ) f
+                    WHERE s.sch_id = f.sch_id
+                    	AND (s.sch_has_exdates, s.sch_has_rdates, s.sch_has_overrides)
+                    		IS DISTINCT FROM (f.has_exdates, f.has_rdates, f.has_overrides)
+                    """);
+            ps.setArray(1, con.createArrayOf("uuid", scheduleIds.toArray()));
+            return ps;
+        });
+    }
+
+    // Um parâmetro text[] por coluna (null vira NULL), convertido pelo CAST do SQL
+    private void updateWithArrays(String sql, List<?>... columns) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            for (int i = 0; i < columns.length; i++) {
+                ps.setArray(i + 1, con.createArrayOf("text",
+                        columns[i].stream().map(v -> v != null ? v.toString() : null).toArray()));
+            }
+            return ps;
+        });
+    }
+
+    // column é uma das colunas sch_has_*, nunca entrada do usuário
+    private void setFlag(String column, List<UUID> scheduleIds) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE tb_sch_schedule SET " + column + " = true WHERE sch_id = ANY (?) AND NOT " + column);
+            ps.setArray(1, con.createArrayOf("uuid", scheduleIds.toArray()));
+            return ps;
+        });
+    }
+}
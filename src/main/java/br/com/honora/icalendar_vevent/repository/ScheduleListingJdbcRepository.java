@@ -0,0 +1,150 @@
+package br.com.honora.icalendar_vevent.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleExdateResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOverrideResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleRdateResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleResponse;
+
+/**
+ * Listagem de schedules direto em DTOs, sem entidades gerenciadas: páginas por
+ * keyset na PK (sch_id) e os filhos da página carregados com uma consulta por
+ * tabela a cada {@value ScheduleRepository#CHILD_FETCH_BATCH_SIZE} schedules.
+ */
+@Repository
+public class ScheduleListingJdbcRepository {
+
+    private static final String SELECT_SCHEDULES = """
+            SELECT sch_id, sch_rrule_json, sch_tzid, sch_series_start_local, sch_series_start_utc,
+            	sch_series_until_utc, sch_duration_seconds, sch_summary, sch_notes, sch_has_exdates,
+            	sch_has_rdates, sch_has_overrides, sch_created_at, sch_updated_at
+            FROM tb_sch_schedule
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ScheduleListingJdbcRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Up to limit schedules after afterId in id order, or from the first one when
+     * afterId is null; child lists are left null (see {@link #loadChildren}).
+     */
+    public List<ScheduleResponse> findPageAfter(UUID afterId, int limit) {
+        if (afterId == null) {
+            return jdbcTemplate.query(SELECT_SCHEDULES + """
+                    ORDER BY sch_id
+                    LIMIT ?
+                    """, (rs, i) -> mapSchedule(rs), limit);
+        }
+        return jdbcTemplate.query(SELECT_SCHEDULES + """
+                WHERE sch_id > ?
+                ORDER BY sch_id
+                LIMIT ?
+                """, (rs, i) -> mapSchedule(rs), afterId, limit);
+    }
+
+    /** Fills the exdates, rdates and overrides of the given schedules, three statements per chunk. */
+    public void loadChildren(List<ScheduleResponse> schedules) {
+        for (int i = 0; i < schedules.size(); i += ScheduleRepository.CHILD_FETCH_BATCH_SIZE) {
+            Map<UUID, ScheduleResponse> byId = new HashMap<>();
+            for (ScheduleResponse s : schedules.subList(i,
+                    Math.min(schedules.size(), i + ScheduleRepository.CHILD_FETCH_BATCH_SIZE))) {
+                s.setExdates(new ArrayList<>());
+                s.setRdates(new ArrayList<>());
+                s.setOverrides(new ArrayList<>());
+                byId.put(s.getId(), s);
+            }
+            Object[] ids = byId.keySet().toArray();
+
+            queryByScheduleIds("""
+                    SELECT sch_id, sex_id, sex_exdate_local
+                    FROM tb_sex_schedule_exdate
+                    WHERE sch_id = ANY (?)
+                    ORDER BY sch_id, sex_exdate_local
+                    """, ids, rs -> byId.get(rs.getObject("sch_id", UUID.class)).getExdates()
+                    .add(ScheduleExdateResponse.builder()
+                            .id(rs.getObject("sex_id", UUID.class))
+                            .exdateLocal(rs.getObject("sex_exdate_local", LocalDateTime.class))
+                            .build()));
+            queryByScheduleIds("""
+                    SELECT sch_id, srd_id, srd_rdate_local, srd_duration_seconds
+                    FROM tb_srd_schedule_rdate
+                    WHERE sch_id = ANY (?)
+                    ORDER BY sch_id, srd_rdate_local
+                    """, ids, rs -> byId.get(rs.getObject("sch_id", UUID.class)).getRdates()
+                    .add(ScheduleRdateResponse.builder()
+                            .id(rs.getObject("srd_id", UUID.class))
+                            .rdateLocal(rs.getObject("srd_rdate_local", LocalDateTime.class))
+                            .durationSeconds(rs.getInt("srd_duration_seconds"))
+                            .build()));
+            queryByScheduleIds("""
+                    SELECT sch_id, sov_id, sov_recurrence_id_local, sov_new_start_local,
+                    	sov_new_duration_seconds, sov_summary, sov_notes
+                    FROM tb_sov_schedule_override
+                    WHERE sch_id = ANY (?)
+                    ORDER BY sch_id, sov_recurrence_id_local
+                    """, ids, rs -> byId.get(rs.getObject("sch_id", UUID.class)).getOverrides()
+                    .add(ScheduleOverrideResponse.builder()
+                            .id(rs.getObject("sov_id", UUID.class))
+                            .recurrenceIdLocal(rs.getObject("sov_recurrence_id_local", LocalDateTime.class))
+                            .newStartLocal(rs.getObject("sov_new_start_local", LocalDateTime.class))
+                            .newDurationSeconds(rs.getInt("sov_new_duration_seconds"))
+                            .summary(rs.getString("sov_summary"))
+                            .notes(rs.getString("sov_notes"))
+                            .build()));
+        }
+    }
+
+    private void queryByScheduleIds(String sql, Object[] scheduleIds, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", scheduleIds));
+            return ps;
+        }, handler);
+    }
+
+    private ScheduleResponse mapSchedule(ResultSet rs) throws SQLException {
+        UUID id = rs.getObject("sch_id", UUID.class);
+        try {
+            return ScheduleResponse.builder()
+                    .id(id)
+                    .rruleJson(objectMapper.readTree(rs.getString("sch_rrule_json")))
+                    .tzid(rs.getString("sch_tzid"))
+                    .seriesStartLocal(rs.getObject("sch_series_start_local", LocalDateTime.class))
+                    .seriesStartUtc(rs.getObject("sch_series_start_utc", OffsetDateTime.class))
+                    .seriesUntilUtc(rs.getObject("sch_series_until_utc", OffsetDateTime.class))
+                    .durationSeconds(rs.getInt("sch_duration_seconds"))
+                    .summary(rs.getString("sch_summary"))
+                    .notes(rs.getString("sch_notes"))
+                    .hasExdates(rs.getBoolean("sch_has_exdates"))
+                    .hasRdates(rs.getBoolean("sch_has_rdates"))
+                    .hasOverrides(rs.getBoolean("sch_has_overrides"))
+                    .createdAt(rs.getObject("sch_created_at", OffsetDateTime.class))
+                    .updatedAt(rs.getObject("sch_updated_at", OffsetDateTime.class))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid rrule JSON on schedule " + id, e);
+        }
+    }
+}
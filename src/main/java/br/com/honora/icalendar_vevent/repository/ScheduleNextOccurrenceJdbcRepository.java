@@ -0,0 +1,96 @@
+package br.com.honora.icalendar_vevent.repository;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Leitura e manutenção de tb_sch_schedule.sch_next_occurrence_utc (ver V6): um
+ * limite inferior do início da próxima ocorrência de cada schedule, indexado com
+ * sch_id para leitura em keyset.
+ */
+@Repository
+public class ScheduleNextOccurrenceJdbcRepository {
+
+    /** A schedule and the lower bound of its next occurrence. */
+    public record NextOccurrence(UUID scheduleId, OffsetDateTime nextOccurrenceUtc) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleNextOccurrenceJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Up to limit schedules with a next occurrence up to until, in (next occurrence,
+     * id) order, after the given position or from the first one when after is null.
+     */
+    public List<NextOccurrence> findPageAfter(NextOccurrence after, OffsetDateTime until, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query("""
+                    SELECT sch_id, sch_next_occurrence_utc
+                    FROM tb_sch_schedule
+                    WHERE sch_next_occurrence_utc <= ?
+                    ORDER BY sch_next_occurrence_utc, sch_id
+                    LIMIT ?
+                    """, (rs, i) -> new NextOccurrence(rs.getObject("sch_id", UUID.class),
+                    rs.getObject("sch_next_occurrence_utc", OffsetDateTime.class)), until, limit);
+        }
+        return jdbcTemplate.query("""
+                SELECT sch_id, sch_next_occurrence_utc
+                FROM tb_sch_schedule
+                WHERE (sch_next_occurrence_utc, sch_id) > (?, ?)
+                	AND sch_next_occurrence_utc <= ?
+                ORDER BY sch_next_occurrence_utc, sch_id
+                LIMIT ?
+                """, (rs, i) -> new NextOccurrence(rs.getObject("sch_id", UUID.class),
+                rs.getObject("sch_next_occurrence_utc", OffsetDateTime.class)),
+                after.nextOccurrenceUtc(), after.scheduleId(), until, limit);
+    }
+
+    /**
+     * Locks and returns up to limit schedules whose next occurrence is before now,
+     * earliest first, skipping rows another transaction holds.
+     */
+    public List<UUID> lockPassed(OffsetDateTime now, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT sch_id
+                FROM tb_sch_schedule
+                WHERE sch_next_occurrence_utc < ?
+                ORDER BY sch_next_occurrence_utc
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+                """, UUID.class, now, limit);
+    }
+
+    /** Stores the next occurrence (null: none) of each schedule in one statement. */
+    public void updateAll(Map<UUID, OffsetDateTime> nextByScheduleId) {
+        if (nextByScheduleId.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(nextByScheduleId.size());
+        List<String> next = new ArrayList<>(nextByScheduleId.size());
+        nextByScheduleId.forEach((id, value) -> {
+            ids.add(id.toString());
+            next.add(value != null ? value.toString() : null);
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    UPDATE tb_sch_schedule s
+                    SET sch_next_occurrence_utc = v.next_utc
+                    FROM unnest(CAST(? AS uuid[]), CAST(? AS timestamptz[])) AS v(sch_id, next_utc)
+                    WHERE s.sch_id = v.sch_id
+                    """);
+            ps.setArray(1, con.createArrayOf("text", ids.toArray()));
+            ps.setArray(2, con.createArrayOf("text", next.toArray()));
+            return ps;
+        });
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.honora.icalendar_vevent.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+/**
+ * Acesso JDBC às ocorrências materializadas (tb_soc_schedule_occurrence) e ao
+ * horizonte coberto por elas (tb_soh_occurrence_horizon).
+ */
+@Repository
+public class ScheduleOccurrenceJdbcRepository {
+
+    /** Intervalo [from, until] já materializado. */
+    public record Horizon(OffsetDateTime from, OffsetDateTime until) {
+        public boolean covers(OffsetDateTime start, OffsetDateTime end) {
+            return !start.isBefore(from) && !end.isAfter(until);
+        }
+    }
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final long HORIZON_LOCK_KEY = 0x736F63L; // "soc"
+
+    // Summary/notes vêm do schedule ou, para linhas OVERRIDE, do override que
+    // começa no mesmo instante
+    private static final String SELECT_OCCURRENCES = """
+            SELECT c.sch_id, c.soc_type, c.soc_start_utc, c.soc_duration_seconds,
+            	COALESCE(o.sov_summary, s.sch_summary) AS summary,
+            	COALESCE(o.sov_notes, s.sch_notes) AS notes
+            FROM tb_soc_schedule_occurrence c
+            JOIN tb_sch_schedule s ON s.sch_id = c.sch_id
+            LEFT JOIN LATERAL (
+            	SELECT ov.sov_summary, ov.sov_notes
+            	FROM tb_sov_schedule_override ov
+            	WHERE c.soc_type = 'OVERRIDE'
+            		AND ov.sov_new_start_utc = c.soc_start_utc
+            		AND ov.sch_id = c.sch_id
+            	LIMIT 1
+            ) o ON true
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleOccurrenceJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Horizon> findHorizon() {
+        return jdbcTemplate.query("""
+                SELECT soh_from_utc, soh_until_utc
+                FROM tb_soh_occurrence_horizon
+                WHERE soh_id = 1
+                """,
+                (rs, i) -> new Horizon(rs.getObject(1, OffsetDateTime.class), rs.getObject(2, OffsetDateTime.class)))
+                .stream()
+                .findFirst();
+    }
+
+    public void saveHorizon(Horizon horizon) {
+        jdbcTemplate.update("""
+                INSERT INTO tb_soh_occurrence_horizon (soh_id, soh_from_utc, soh_until_utc, soh_refreshed_at)
+                VALUES (1, ?, ?, now())
+                ON CONFLICT (soh_id) DO UPDATE
+                	SET soh_from_utc = EXCLUDED.soh_from_utc,
+                		soh_until_utc = EXCLUDED.soh_until_utc,
+                		soh_refreshed_at = now()
+                """, horizon.from(), horizon.until());
+    }
+
+    /**
+     * Transaction-scoped advisory lock on the materialized horizon: the refresh job
+     * takes it exclusively, per-schedule re-materialization takes it shared, so a
+     * refresh never interleaves with a mutation of the schedules it is expanding.
+     */
+    public void lockHorizon(boolean exclusive) {
+        String fn = exclusive ? "pg_advisory_xact_lock" : "pg_advisory_xact_lock_shared";
+        jdbcTemplate.query("SELECT " + fn + "(?)", rs -> null, HORIZON_LOCK_KEY);
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM tb_soc_schedule_occurrence");
+    }
+
+    public void deleteBySchedules(Collection<UUID> scheduleIds) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM tb_soc_schedule_occurrence WHERE sch_id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("uuid", scheduleIds.toArray()));
+            return ps;
+        });
+    }
+
+    public int deleteStartingBefore(OffsetDateTime instant) {
+        return jdbcTemplate.update("DELETE FROM tb_soc_schedule_occurrence WHERE soc_start_utc < ?", instant);
+    }
+
+    /**
+     * Inserts the occurrences in JDBC batches; rows already present for the same
+     * (schedule, start) are kept, so overlapping refresh windows are harmless.
+     */
+    public void insertAll(Collection<ScheduleOccurrenceResponse> occurrences) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tb_soc_schedule_occurrence (sch_id, soc_start_utc, soc_type, soc_duration_seconds)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (sch_id, soc_start_utc) DO NOTHING
+                """, occurrences, INSERT_BATCH_SIZE, (ps, o) -> {
+            ps.setObject(1, o.getScheduleId());
+            ps.setObject(2, o.getStart());
+            ps.setString(3, o.getType());
+            ps.setInt(4, o.getDurationSeconds());
+        });
+    }
+
+    /**
+     * Passes the occurrences starting within [from, to] to action in (start,
+     * scheduleId) order, read from idx_soc_start_sch with a bounded fetch size so the
+     * result is never held in memory. Must run inside a transaction (the driver only
+     * streams with autocommit off).
+     */
+    public void forEachBetween(OffsetDateTime from, OffsetDateTime to, Consumer<ScheduleOccurrenceResponse> action) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_OCCURRENCES + """
+                    WHERE c.soc_start_utc >= ?
+                    	AND c.soc_start_utc <= ?
+                    ORDER BY c.soc_start_utc, c.sch_id
+                    """);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(mapOccurrence(rs)));
+    }
+
+    /**
+     * Up to limit occurrences within [from, to] that come after (afterStart,
+     * afterScheduleId) in (start, scheduleId) order, or from the beginning when
+     * afterStart is null: a keyset page served by idx_soc_start_sch.
+     */
+    public List<ScheduleOccurrenceResponse> findPageAfter(OffsetDateTime from, OffsetDateTime to,
+            OffsetDateTime afterStart, UUID afterScheduleId, int limit) {
+        if (afterStart == null) {
+            return jdbcTemplate.query(SELECT_OCCURRENCES + """
+                    WHERE c.soc_start_utc >= ?
+                    	AND c.soc_start_utc <= ?
+                    ORDER BY c.soc_start_utc, c.sch_id
+                    LIMIT ?
+                    """, (rs, i) -> mapOccurrence(rs), from, to, limit);
+        }
+        return jdbcTemplate.query(SELECT_OCCURRENCES + """
+                WHERE c.soc_start_utc >= ?
+                	AND c.soc_start_utc <= ?
+                	AND (c.soc_start_utc, c.sch_id) > (?, ?)
+                ORDER BY c.soc_start_utc, c.sch_id
+                LIMIT ?
+                """, (rs, i) -> mapOccurrence(rs), from, to, afterStart, afterScheduleId, limit);
+    }
+
+    private static ScheduleOccurrenceResponse mapOccurrence(ResultSet rs) throws SQLException {
+        return new ScheduleOccurrenceResponse(
+                rs.getObject("sch_id", UUID.class),
+                rs.getString("soc_type"),
+                rs.getObject("soc_start_utc", OffsetDateTime.class),
+                rs.getInt("soc_duration_seconds"),
+                rs.getString("summary"),
+                rs.getString("notes"));
+    }
+}
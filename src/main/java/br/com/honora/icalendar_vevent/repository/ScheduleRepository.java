@@ -1,65 +1,129 @@
-package br.com.honora.icalendar_vevent.repository;
-
-import br.com.honora.icalendar_vevent.domain.Schedule;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
-
-import java.time.OffsetDateTime;
-import java.util.UUID;
-import java.util.List;
-import java.util.Optional;
-
-@Repository
-public interface ScheduleRepository extends JpaRepository<Schedule, UUID> {
-    @Query("""
-            SELECT DISTINCT s FROM Schedule s
-            LEFT JOIN FETCH s.exdates
-            LEFT JOIN FETCH s.rdates
-            LEFT JOIN FETCH s.overrides
-            WHERE s.id = :id
-            """)
-    Optional<Schedule> findByIdWithChildren(@Param("id") UUID id);
-
-    /**
-     * Candidates whose series window overlaps the [from, to] window.
-     * Uses indexes on sch_series_start_utc and sch_series_until_utc.
-     */
-    @Query(value = """
-            SELECT *
-            FROM tb_sch_schedule s
-            WHERE s.sch_series_start_utc <= :to
-            	AND (s.sch_series_until_utc IS NULL OR s.sch_series_until_utc >= :from)
-            """, nativeQuery = true)
-    List<Schedule> findCandidatesBySeriesWindow(@Param("from") OffsetDateTime from,
-            @Param("to") OffsetDateTime to);
-
-    /**
-     * Candidates that have at least one RDATE that converts (using sch_tzid)
-     * to an instant within [from, to].
-     */
-    @Query(value = """
-            SELECT DISTINCT s.*
-            FROM tb_sch_schedule s
-            JOIN tb_srd_schedule_rdate r ON r.sch_id = s.sch_id
-            WHERE (r.srd_rdate_local AT TIME ZONE s.sch_tzid) >= :from
-            	AND (r.srd_rdate_local AT TIME ZONE s.sch_tzid) <= :to
-            """, nativeQuery = true)
-    List<Schedule> findWithRdatesInRange(@Param("from") OffsetDateTime from,
-            @Param("to") OffsetDateTime to);
-
-    /**
-     * Candidates that have at least one OVERRIDE new start within [from, to]
-     * (converted using sch_tzid).
-     */
-    @Query(value = """
-            SELECT DISTINCT s.*
-            FROM tb_sch_schedule s
-            JOIN tb_sov_schedule_override o ON o.sch_id = s.sch_id
-            WHERE (o.sov_new_start_local AT TIME ZONE s.sch_tzid) >= :from
-            	AND (o.sov_new_start_local AT TIME ZONE s.sch_tzid) <= :to
-            """, nativeQuery = true)
-    List<Schedule> findWithOverridesInRange(@Param("from") OffsetDateTime from,
-            @Param("to") OffsetDateTime to);
+package br.com.honora.icalendar_vevent.repository;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ScheduleRepository extends JpaRepository<Schedule, UUID> {
+
+    /** Maximum IN-list size used when hydrating schedules and their children. */
+    int CHILD_FETCH_BATCH_SIZE = 1000;
+
+    /** JDBC fetch size of the streaming queries. */
+    int STREAM_FETCH_SIZE = 1000;
+
+    @Query("""
+            SELECT DISTINCT s FROM Schedule s
+            LEFT JOIN FETCH s.exdates
+            LEFT JOIN FETCH s.rdates
+            LEFT JOIN FETCH s.overrides
+            WHERE s.id = :id
+            """)
+    Optional<Schedule> findByIdWithChildren(@Param("id") UUID id);
+
+    /**
+     * Version of the schedule (sch_updated_at, also bumped by child changes) read
+     * through the primary key alone, without loading the entity.
+     */
+    @Query("SELECT s.updatedAt FROM Schedule s WHERE s.id = :id")
+    Optional<OffsetDateTime> findUpdatedAtById(@Param("id") UUID id);
+
+    /**
+     * Initializes the EXDATE collection of every schedule in ids with one statement.
+     * Each child collection is fetched by its own query (joining all three at once
+     * would return their cartesian product); schedules already managed by the
+     * persistence context get the fetched collection attached to the same instance.
+     */
+    @Query("""
+            SELECT DISTINCT s FROM Schedule s
+            LEFT JOIN FETCH s.exdates
+            WHERE s.id IN :ids
+            """)
+    List<Schedule> fetchExdatesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Same as {@link #fetchExdatesByIdIn(Collection)} for the RDATE collection.
+     */
+    @Query("""
+            SELECT DISTINCT s FROM Schedule s
+            LEFT JOIN FETCH s.rdates
+            WHERE s.id IN :ids
+            """)
+    List<Schedule> fetchRdatesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Same as {@link #fetchExdatesByIdIn(Collection)} for the OVERRIDE collection.
+     */
+    @Query("""
+            SELECT DISTINCT s FROM Schedule s
+            LEFT JOIN FETCH s.overrides
+            WHERE s.id IN :ids
+            """)
+    List<Schedule> fetchOverridesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Loads the given schedules with exdates, rdates and overrides initialized, using
+     * four statements per {@value #CHILD_FETCH_BATCH_SIZE} ids, so the number of round
+     * trips does not grow with each schedule. Must run inside a transaction.
+     */
+    default List<Schedule> findAllWithChildrenByIdIn(List<UUID> ids) {
+        List<Schedule> schedules = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += CHILD_FETCH_BATCH_SIZE) {
+            List<UUID> chunk = ids.subList(i, Math.min(ids.size(), i + CHILD_FETCH_BATCH_SIZE));
+            schedules.addAll(findAllById(chunk));
+            fetchExdatesByIdIn(chunk);
+            fetchRdatesByIdIn(chunk);
+            fetchOverridesByIdIn(chunk);
+        }
+        return schedules;
+    }
+
+    /**
+     * Every schedule id, read through a forward-only cursor ({@value #STREAM_FETCH_SIZE}
+     * rows per round trip) instead of one list. Must be consumed and closed inside a
+     * transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("SELECT s.id FROM Schedule s ORDER BY s.id")
+    Stream<UUID> streamAllIds();
+
+    /**
+     * Ids of the schedules that may have occurrences within [from, to]: series window
+     * overlapping the range, or at least one RDATE / OVERRIDE new start inside it.
+     * Each branch is served by its own index (idx_sch_series_window, a GiST on the
+     * generated tstzrange column, idx_srd_rdate_utc, idx_sov_new_start_utc) and UNION
+     * deduplicates the ids in the database, so no schedule row is transferred at this
+     * point. from must not be after to (tstzrange rejects an inverted range).
+     */
+    @Query(value = """
+            SELECT s.sch_id
+            FROM tb_sch_schedule s
+            WHERE s.sch_series_window && tstzrange(CAST(:from AS timestamptz), CAST(:to AS timestamptz), '[]')
+            UNION
+            SELECT r.sch_id
+            FROM tb_srd_schedule_rdate r
+            WHERE r.srd_rdate_utc >= :from
+            	AND r.srd_rdate_utc <= :to
+            UNION
+            SELECT o.sch_id
+            FROM tb_sov_schedule_override o
+            WHERE o.sov_new_start_utc >= :from
+            	AND o.sov_new_start_utc <= :to
+            """, nativeQuery = true)
+    List<UUID> findCandidateIdsInWindow(@Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
 }
\ No newline at end of file
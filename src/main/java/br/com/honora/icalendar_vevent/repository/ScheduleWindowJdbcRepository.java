@@ -0,0 +1,87 @@
+package br.com.honora.icalendar_vevent.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Leitura das janelas de série e dos instantes avulsos (RDATE e novo início de
+ * OVERRIDE, em UTC) de cada schedule, com os tempos já em epoch seconds
+ * (arredondados para baixo), para o índice de candidatos em memória.
+ */
+@Repository
+public class ScheduleWindowJdbcRepository {
+
+    private static final String SELECT_WINDOWS = """
+            SELECT s.sch_id,
+            	floor(extract(epoch FROM s.sch_series_start_utc))::bigint AS start_epoch,
+            	floor(extract(epoch FROM s.sch_series_until_utc))::bigint AS until_epoch,
+            	ARRAY(SELECT floor(extract(epoch FROM r.srd_rdate_utc))::bigint
+            		FROM tb_srd_schedule_rdate r
+            		WHERE r.sch_id = s.sch_id AND r.srd_rdate_utc IS NOT NULL
+            		UNION ALL
+            		SELECT floor(extract(epoch FROM o.sov_new_start_utc))::bigint
+            		FROM tb_sov_schedule_override o
+            		WHERE o.sch_id = s.sch_id AND o.sov_new_start_utc IS NOT NULL) AS instants_epoch
+            FROM tb_sch_schedule s
+            """;
+
+    /** Receives one schedule row; untilEpochSecond is Long.MAX_VALUE for series without an end. */
+    @FunctionalInterface
+    public interface WindowHandler {
+        void accept(UUID scheduleId, long startEpochSecond, long untilEpochSecond, long[] instantEpochSeconds);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleWindowJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Passes every schedule to handler, {@value ScheduleRepository#STREAM_FETCH_SIZE}
+     * rows per round trip. Must run inside a transaction for the driver to use a cursor.
+     */
+    public void forEachWindow(WindowHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_WINDOWS);
+            ps.setFetchSize(ScheduleRepository.STREAM_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            accept(rs, handler);
+        });
+    }
+
+    /** Passes the given schedules that exist to handler. */
+    public void forEachWindow(Collection<UUID> scheduleIds, WindowHandler handler) {
+        if (scheduleIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_WINDOWS + "WHERE s.sch_id = ANY (?)\n");
+            ps.setArray(1, con.createArrayOf("uuid", scheduleIds.toArray()));
+            return ps;
+        }, rs -> {
+            accept(rs, handler);
+        });
+    }
+
+    private static void accept(ResultSet rs, WindowHandler handler) throws SQLException {
+        Long until = rs.getObject("until_epoch", Long.class);
+        Array array = rs.getArray("instants_epoch");
+        Object[] boxed = (Object[]) array.getArray();
+        long[] instants = new long[boxed.length];
+        for (int i = 0; i < boxed.length; i++) {
+            instants[i] = ((Number) boxed[i]).longValue();
+        }
+        array.free();
+        handler.accept(rs.getObject("sch_id", UUID.class), rs.getLong("start_epoch"),
+                until != null ? until : Long.MAX_VALUE, instants);
+    }
+}
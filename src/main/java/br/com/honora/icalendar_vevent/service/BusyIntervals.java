@@ -0,0 +1,55 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import br.com.honora.icalendar_vevent.dto.response.BusyIntervalResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+/**
+ * Varredura que une ocorrências ordenadas por início em intervalos ocupados
+ * disjuntos: só o intervalo corrente fica aberto, então a memória é O(intervalos
+ * resultantes), não O(ocorrências).
+ */
+final class BusyIntervals {
+
+    private BusyIntervals() {
+    }
+
+    /**
+     * Busy intervals of the occurrences (ascending by start), clipped to [from, to];
+     * overlapping or touching occurrences become one interval.
+     */
+    static List<BusyIntervalResponse> merge(Iterator<ScheduleOccurrenceResponse> byStart, OffsetDateTime from,
+            OffsetDateTime to) {
+        List<BusyIntervalResponse> busy = new ArrayList<>();
+        OffsetDateTime start = null;
+        OffsetDateTime end = null;
+        while (byStart.hasNext()) {
+            ScheduleOccurrenceResponse o = byStart.next();
+            // recortar o início em from mantém a ordem da entrada
+            OffsetDateTime s = o.getStart().isBefore(from) ? from : o.getStart();
+            OffsetDateTime e = o.getEnd().isAfter(to) ? to : o.getEnd();
+            if (!e.isAfter(s)) {
+                continue; // termina antes da janela (ou duração zero)
+            }
+            if (end != null && !s.isAfter(end)) {
+                if (e.isAfter(end)) {
+                    end = e;
+                }
+                continue;
+            }
+            if (end != null) {
+                busy.add(new BusyIntervalResponse(start, end));
+            }
+            start = s;
+            end = e;
+        }
+        if (end != null) {
+            busy.add(new BusyIntervalResponse(start, end));
+        }
+        return busy;
+    }
+}
@@ -0,0 +1,302 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleWindowJdbcRepository;
+import br.com.honora.icalendar_vevent.service.SeriesWindowIndex.Entry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Índice opcional em memória (schedule.candidate-index.enabled) para a fase de
+ * candidatos das consultas de ocorrências: as mesmas regras de
+ * ScheduleRepository#findCandidateIdsInWindow, sem ida ao banco.
+ * - é a porta única dessa fase ({@link #findCandidateIds}): consultas, materialização
+ * e lembretes passam por aqui, e sem índice a chamada cai no banco
+ * - carregado inteiro no startup; até lá (ou desligado) as consultas usam o banco
+ * - cada {@link ScheduleChangedEvent} relê só os schedules afetados, depois do commit e
+ * fora do lock; um carimbo por leitura impede que uma releitura antiga sobrescreva
+ * uma mais nova. O deleteAll relê tudo numa thread própria, fora do commit
+ * - as releituras ficam numa camada pequena sobre o {@link SeriesWindowIndex}
+ * imutável, que é reconstruído quando ela passa de {@value #MAX_PENDING} schedules
+ * Entre o commit de uma alteração e a releitura há uma janela curta em que o índice
+ * ainda responde com a versão anterior. Schedules apagados fora do service só
+ * sobram como candidatos a mais, que a hidratação descarta.
+ */
+@Component
+public class CandidateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CandidateIndex.class);
+
+    static final int MAX_PENDING = 1024;
+
+    /** What queries read: the last built index plus the schedules changed since then. */
+    private record View(SeriesWindowIndex base, Map<UUID, Entry> pending) {
+    }
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleWindowJdbcRepository windowRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final Object lock = new Object();
+    // protegidos por lock
+    private Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<UUID, Entry> pending = new HashMap<>();
+    private SeriesWindowIndex base = SeriesWindowIndex.EMPTY;
+    private boolean loading;
+    private long lastStamp;
+    private final NavigableSet<Long> readsInFlight = new TreeSet<>();
+    // carimbo da última leitura aplicada por schedule; os ausentes estão em floorStamp
+    private final Map<UUID, Long> stamps = new HashMap<>();
+    private long floorStamp;
+
+    private final Object reloadLock = new Object();
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "candidate-index-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile View view;
+
+    public CandidateIndex(ScheduleRepository scheduleRepository,
+            ScheduleWindowJdbcRepository windowRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${schedule.candidate-index.enabled:false}") boolean enabled) {
+        this.scheduleRepository = scheduleRepository;
+        this.windowRepository = windowRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ids of the schedules that may have occurrences within [from, to]: from the index
+     * when it is loaded, otherwise from the database. An inverted window has none.
+     */
+    public List<UUID> findCandidateIds(OffsetDateTime from, OffsetDateTime to) {
+        if (to.isBefore(from)) {
+            return List.of(); // janela invertida não tem ocorrências (e o tstzrange a rejeita)
+        }
+        return findIndexed(from, to).orElseGet(() -> scheduleRepository.findCandidateIdsInWindow(from, to));
+    }
+
+    /** Candidates from the index alone, or empty while it is disabled or not loaded yet. */
+    Optional<List<UUID>> findIndexed(OffsetDateTime from, OffsetDateTime to) {
+        View current = view;
+        if (current == null) {
+            return Optional.empty();
+        }
+        long fromSecond = from.toEpochSecond();
+        long toSecond = to.toEpochSecond();
+        Set<UUID> ids = new LinkedHashSet<>();
+        current.base().forEachCandidate(fromSecond, toSecond, id -> {
+            if (!current.pending().containsKey(id)) {
+                ids.add(id);
+            }
+        });
+        current.pending().forEach((id, entry) -> {
+            if (entry.matches(fromSecond, toSecond)) {
+                ids.add(id);
+            }
+        });
+        return Optional.of(new ArrayList<>(ids));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            reloadLogged();
+        }
+    }
+
+    /** Number of schedules re-read since the index was last built. */
+    int pendingCount() {
+        View current = view;
+        return current != null ? current.pending().size() : 0;
+    }
+
+    /**
+     * Rebuilds the index from the database, one full read at a time. Changes
+     * committed while it runs are applied as usual and win over the older rows of
+     * the full read. On failure the index keeps its previous state (or stays unloaded,
+     * leaving queries on the database) and the exception propagates.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            long stamp;
+            synchronized (lock) {
+                loading = true;
+                stamp = startRead();
+            }
+            try {
+                Map<UUID, Entry> loaded = new HashMap<>();
+                transactionTemplate.executeWithoutResult(status -> windowRepository.forEachWindow(
+                        (id, start, until, instants) -> loaded.put(id, new Entry(start, until, instants))));
+                synchronized (lock) {
+                    applyLoaded(loaded, stamp);
+                }
+                log.info("Candidate index loaded with {} schedules", loaded.size());
+            } finally {
+                synchronized (lock) {
+                    readsInFlight.remove(stamp);
+                    loading = false;
+                }
+            }
+        }
+    }
+
+    // Relê os schedules alterados assim que a alteração fica visível para outras transações
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.allSchedules()) {
+            // a releitura completa roda fora da thread que fez o commit; várias pedidas
+            // antes de ela começar viram uma só
+            if (reloadQueued.compareAndSet(false, true)) {
+                reloader.execute(() -> {
+                    reloadQueued.set(false);
+                    reloadLogged();
+                });
+            }
+            return;
+        }
+        long stamp;
+        synchronized (lock) {
+            if (view == null && !loading) {
+                return; // ainda não carregado: a carga inicial já vai ler a alteração
+            }
+            stamp = startRead();
+        }
+        // a leitura fica fora do lock; o carimbo tirado antes dela ordena as releituras
+        Map<UUID, Entry> fresh = new HashMap<>();
+        try {
+            windowRepository.forEachWindow(event.scheduleIds(),
+                    (id, start, until, instants) -> fresh.put(id, new Entry(start, until, instants)));
+            synchronized (lock) {
+                applyRefreshed(event.scheduleIds(), fresh, stamp);
+            }
+        } finally {
+            synchronized (lock) {
+                readsInFlight.remove(stamp);
+            }
+        }
+    }
+
+    /** Waits for the full reloads requested so far to finish. */
+    void awaitReloads() throws InterruptedException, ExecutionException {
+        reloader.submit(() -> {
+        }).get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    private void reloadLogged() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Candidate index reload failed; the previous index stays in use", e);
+        }
+    }
+
+    // Carimbo de uma leitura: tirado depois do commit que a motivou, então uma leitura
+    // com carimbo maior vê pelo menos o que a de carimbo menor viu
+    private long startRead() {
+        long stamp = ++lastStamp;
+        readsInFlight.add(stamp);
+        return stamp;
+    }
+
+    private long stampOf(UUID id) {
+        return stamps.getOrDefault(id, floorStamp);
+    }
+
+    private void applyRefreshed(Set<UUID> scheduleIds, Map<UUID, Entry> fresh, long stamp) {
+        for (UUID id : scheduleIds) {
+            if (stampOf(id) > stamp) {
+                continue; // uma releitura mais nova já foi aplicada
+            }
+            stamps.put(id, stamp);
+            Entry entry = fresh.get(id);
+            if (entry != null) {
+                entries.put(id, entry);
+                pending.put(id, entry);
+            } else {
+                entries.remove(id);
+                pending.put(id, Entry.REMOVED);
+            }
+        }
+        if (view == null) {
+            return; // a carga inicial em andamento publica o índice
+        }
+        if (pending.size() > MAX_PENDING) {
+            rebuild();
+        } else {
+            view = new View(base, Map.copyOf(pending));
+        }
+    }
+
+    private void applyLoaded(Map<UUID, Entry> loaded, long stamp) {
+        Map<UUID, Entry> merged = new HashMap<>();
+        loaded.forEach((id, entry) -> {
+            if (stampOf(id) <= stamp) {
+                merged.put(id, entry);
+            }
+        });
+        // releituras mais novas que a leitura completa prevalecem, inclusive remoções
+        stamps.forEach((id, idStamp) -> {
+            if (idStamp > stamp) {
+                Entry current = entries.get(id);
+                if (current != null) {
+                    merged.put(id, current);
+                } else {
+                    merged.remove(id);
+                }
+            }
+        });
+        floorStamp = stamp;
+        entries = merged;
+        rebuild();
+    }
+
+    private void rebuild() {
+        base = SeriesWindowIndex.build(entries);
+        pending.clear();
+        view = new View(base, Map.of());
+        // leituras ainda por aplicar têm carimbo acima do piso: os carimbos abaixo dele
+        // não decidem mais nada
+        long floor = readsInFlight.isEmpty() ? lastStamp : readsInFlight.first() - 1;
+        floorStamp = Math.max(floorStamp, floor);
+        stamps.values().removeIf(idStamp -> idStamp <= floorStamp);
+    }
+}
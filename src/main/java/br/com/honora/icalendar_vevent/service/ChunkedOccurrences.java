@@ -0,0 +1,134 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+/**
+ * Ocorrências de um schedule geradas em blocos: cada bloco é uma lista pronta,
+ * ordenada, produzida de uma vez a partir do iterador preguiçoso do schedule
+ * (criado no primeiro bloco). O tamanho dobra de 1 até maxChunkSize, então quem
+ * para cedo (o limit de uma página) gera no máximo o dobro do que consumiu, mais um.
+ * Com executor, os blocos saem do pool: o primeiro ao chamar {@link #prefetch} e
+ * cada seguinte assim que o anterior é entregue, de modo que o pool trabalha um
+ * bloco à frente de quem consome. Um bloco só começa depois que o anterior terminou:
+ * o iterador do schedule nunca é usado por duas threads ao mesmo tempo.
+ */
+final class ChunkedOccurrences implements Iterator<ScheduleOccurrenceResponse> {
+
+    /** Receives the time spent producing each chunk, measured once per chunk. */
+    @FunctionalInterface
+    interface Timing {
+        Timing NONE = (nanos, onConsumerThread) -> {
+        };
+
+        /** onConsumerThread is false for chunks produced on the executor. */
+        void chunkProduced(long nanos, boolean onConsumerThread);
+    }
+
+    private record Chunk(List<ScheduleOccurrenceResponse> items, boolean last) {
+    }
+
+    private final Supplier<Iterator<ScheduleOccurrenceResponse>> prepare;
+    private final int maxChunkSize;
+    private final Executor executor;
+    private final Timing timing;
+
+    // só a tarefa que gera o bloco corrente mexe nestes dois
+    private Iterator<ScheduleOccurrenceResponse> source;
+    private int nextChunkSize = 1;
+
+    private CompletableFuture<Chunk> ahead;
+    private List<ScheduleOccurrenceResponse> items = List.of();
+    private int position;
+    private boolean last;
+
+    /** Chunks produced on the calling thread when executor is null, otherwise on executor. */
+    ChunkedOccurrences(Supplier<Iterator<ScheduleOccurrenceResponse>> prepare, int maxChunkSize, Executor executor,
+            Timing timing) {
+        if (maxChunkSize < 1) {
+            throw new IllegalArgumentException("maxChunkSize must be at least 1");
+        }
+        this.prepare = prepare;
+        this.maxChunkSize = maxChunkSize;
+        this.executor = executor;
+        this.timing = timing;
+    }
+
+    /** Starts producing the first chunk on the executor, if there is one and it has not started yet. */
+    void prefetch() {
+        if (ahead == null && !last && position == items.size()) {
+            produceAhead();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (position == items.size()) {
+            if (last) {
+                return false;
+            }
+            take();
+        }
+        return true;
+    }
+
+    @Override
+    public ScheduleOccurrenceResponse next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return items.get(position++);
+    }
+
+    private void take() {
+        Chunk chunk;
+        if (ahead != null) {
+            try {
+                chunk = ahead.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            ahead = null;
+        } else {
+            chunk = produce(true);
+        }
+        items = chunk.items();
+        position = 0;
+        last = chunk.last();
+        if (!last) {
+            produceAhead();
+        }
+    }
+
+    private void produceAhead() {
+        if (executor != null) {
+            ahead = CompletableFuture.supplyAsync(() -> produce(false), executor);
+        }
+    }
+
+    private Chunk produce(boolean onConsumerThread) {
+        long start = System.nanoTime();
+        try {
+            if (source == null) {
+                source = prepare.get();
+            }
+            int size = nextChunkSize;
+            nextChunkSize = Math.min(maxChunkSize, nextChunkSize * 2);
+            List<ScheduleOccurrenceResponse> chunk = new ArrayList<>(size);
+            while (chunk.size() < size && source.hasNext()) {
+                chunk.add(source.next());
+            }
+            return new Chunk(chunk, !source.hasNext());
+        } finally {
+            timing.chunkProduced(System.nanoTime() - start, onConsumerThread);
+        }
+    }
+}
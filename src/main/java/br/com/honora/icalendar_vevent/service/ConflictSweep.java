@@ -0,0 +1,91 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import br.com.honora.icalendar_vevent.dto.response.BusyIntervalResponse;
+import br.com.honora.icalendar_vevent.dto.response.ConflictReportResponse;
+import br.com.honora.icalendar_vevent.dto.response.ConflictResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+/**
+ * Sweep-line sobre ocorrências em ordem de início: uma fila por fim guarda só as
+ * que ainda estão em andamento. Cada nova ocorrência descarta as que terminaram
+ * até o seu início e conflita com todas as restantes, então o custo é
+ * O(n log n + k) para k pares, e a memória O(ocorrências simultâneas + k).
+ */
+final class ConflictSweep {
+
+    private final OffsetDateTime from;
+    private final OffsetDateTime to;
+    private final int capacity;
+    private final int maxPairs;
+    private final PriorityQueue<ScheduleOccurrenceResponse> running = new PriorityQueue<>(
+            Comparator.comparing(ScheduleOccurrenceResponse::getEnd));
+    private final List<ConflictResponse> conflicts = new ArrayList<>();
+    private final List<BusyIntervalResponse> overCapacity = new ArrayList<>();
+    private OffsetDateTime overCapacitySince;
+    private boolean truncated;
+
+    ConflictSweep(OffsetDateTime from, OffsetDateTime to, int capacity, int maxPairs) {
+        this.from = from;
+        this.to = to;
+        this.capacity = capacity;
+        this.maxPairs = maxPairs;
+    }
+
+    /** Next occurrence; must not start before the previous one. */
+    void accept(ScheduleOccurrenceResponse o) {
+        endUntil(o.getStart());
+        for (ScheduleOccurrenceResponse other : running) {
+            OffsetDateTime overlapEnd = other.getEnd().isBefore(o.getEnd()) ? other.getEnd() : o.getEnd();
+            // sobreposição que termina antes da janela (ocorrências da margem anterior a from)
+            if (!overlapEnd.isAfter(from)) {
+                continue;
+            }
+            if (conflicts.size() == maxPairs) {
+                truncated = true;
+                break;
+            }
+            conflicts.add(new ConflictResponse(other, o, o.getStart(), overlapEnd));
+        }
+        running.add(o);
+        if (running.size() > capacity && overCapacitySince == null) {
+            overCapacitySince = o.getStart();
+        }
+    }
+
+    ConflictReportResponse finish() {
+        endUntil(OffsetDateTime.MAX);
+        return new ConflictReportResponse(from, to, capacity, conflicts, overCapacity, truncated);
+    }
+
+    // encerra, em ordem de fim, as ocorrências que terminam até instant
+    private void endUntil(OffsetDateTime instant) {
+        while (!running.isEmpty() && !running.peek().getEnd().isAfter(instant)) {
+            OffsetDateTime end = running.poll().getEnd();
+            if (overCapacitySince != null && running.size() <= capacity) {
+                closeOverCapacity(end);
+            }
+        }
+    }
+
+    private void closeOverCapacity(OffsetDateTime end) {
+        OffsetDateTime start = overCapacitySince.isBefore(from) ? from : overCapacitySince;
+        OffsetDateTime clippedEnd = end.isAfter(to) ? to : end;
+        overCapacitySince = null;
+        if (!clippedEnd.isAfter(start)) {
+            return;
+        }
+        int last = overCapacity.size() - 1;
+        // volta a exceder no mesmo instante em que parou: um trecho só
+        if (last >= 0 && !overCapacity.get(last).getEnd().isBefore(start)) {
+            overCapacity.set(last, new BusyIntervalResponse(overCapacity.get(last).getStart(), clippedEnd));
+        } else {
+            overCapacity.add(new BusyIntervalResponse(start, clippedEnd));
+        }
+    }
+}
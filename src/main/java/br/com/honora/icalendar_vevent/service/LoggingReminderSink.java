@@ -0,0 +1,18 @@
+package br.com.honora.icalendar_vevent.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/** Registra cada lembrete no log. */
+@Component
+public class LoggingReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingReminderSink.class);
+
+    @Override
+    public void send(Reminder reminder) {
+        log.info("Reminder: schedule {} starts at {} (in {})", reminder.occurrence().getScheduleId(),
+                reminder.occurrence().getStart(), reminder.leadTime());
+    }
+}
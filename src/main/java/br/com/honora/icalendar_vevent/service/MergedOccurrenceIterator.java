@@ -0,0 +1,70 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+/**
+ * K-way merge de iteradores já ordenados (um por schedule) na ordem
+ * {@link OccurrenceExpander#BY_START_THEN_SCHEDULE}. A fila guarda só a próxima
+ * ocorrência de cada iterador, então a memória é O(schedules), não O(ocorrências).
+ */
+final class MergedOccurrenceIterator implements Iterator<ScheduleOccurrenceResponse> {
+
+    private static final class Head {
+        private final Iterator<ScheduleOccurrenceResponse> source;
+        private ScheduleOccurrenceResponse current;
+
+        private Head(Iterator<ScheduleOccurrenceResponse> source) {
+            this.source = source;
+            this.current = source.next();
+        }
+    }
+
+    private final PriorityQueue<Head> queue;
+
+    MergedOccurrenceIterator(Collection<? extends Iterator<ScheduleOccurrenceResponse>> sources) {
+        Comparator<Head> byCurrent = Comparator.comparing(h -> h.current, OccurrenceExpander.BY_START_THEN_SCHEDULE);
+        this.queue = new PriorityQueue<>(Math.max(1, sources.size()), byCurrent);
+        sources.forEach(this::add);
+    }
+
+    /** Adds another sorted source; its occurrences join the merge from the next call on. */
+    void add(Iterator<ScheduleOccurrenceResponse> source) {
+        if (source.hasNext()) {
+            queue.add(new Head(source));
+        }
+    }
+
+    /** The occurrence next() would return, without consuming it. */
+    ScheduleOccurrenceResponse peek() {
+        Head head = queue.peek();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        return head.current;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !queue.isEmpty();
+    }
+
+    @Override
+    public ScheduleOccurrenceResponse next() {
+        Head head = queue.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        ScheduleOccurrenceResponse result = head.current;
+        if (head.source.hasNext()) {
+            head.current = head.source.next();
+            queue.add(head);
+        }
+        return result;
+    }
+}
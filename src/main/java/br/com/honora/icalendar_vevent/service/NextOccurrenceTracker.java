@@ -0,0 +1,160 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleNextOccurrenceJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Mantém tb_sch_schedule.sch_next_occurrence_utc:
+ * - cada {@link ScheduleChangedEvent} recalcula os schedules afetados, na mesma
+ * transação da alteração
+ * - um job recalcula os schedules cuja próxima ocorrência já passou, em lotes
+ * A próxima ocorrência é procurada até schedule.next-occurrence.horizon à frente;
+ * sem nenhuma, a coluna fica com o fim do horizonte (ainda um limite inferior) ou
+ * NULL quando a série (por UNTIL ou COUNT) e os RDATEs/OVERRIDES acabam antes dele.
+ */
+@Service
+public class NextOccurrenceTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(NextOccurrenceTracker.class);
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleNextOccurrenceJdbcRepository nextOccurrenceRepository;
+    private final OccurrenceExpander occurrenceExpander;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Duration horizon;
+
+    public NextOccurrenceTracker(ScheduleRepository scheduleRepository,
+            ScheduleNextOccurrenceJdbcRepository nextOccurrenceRepository,
+            OccurrenceExpander occurrenceExpander,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            @Value("${schedule.next-occurrence.horizon:3650d}") Duration horizon) {
+        this.scheduleRepository = scheduleRepository;
+        this.nextOccurrenceRepository = nextOccurrenceRepository;
+        this.occurrenceExpander = occurrenceExpander;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.horizon = horizon;
+    }
+
+    /** How far ahead next occurrences are looked for. */
+    public Duration getHorizon() {
+        return horizon;
+    }
+
+    // Recalcula os schedules alterados antes do commit da própria alteração
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (event.allSchedules()) {
+            return;
+        }
+        refresh(event.scheduleIds(), OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refreshPassed();
+    }
+
+    /** Recomputes, in batches, every schedule whose stored next occurrence is before now. */
+    @Scheduled(cron = "${schedule.next-occurrence.refresh-cron:0 */5 * * * *}")
+    public void refreshPassed() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int total = 0;
+        int batch;
+        do {
+            // os recalculados ficam >= now (ou NULL), então não voltam no próximo lote
+            batch = transactionTemplate.execute(status -> {
+                List<UUID> ids = nextOccurrenceRepository.lockPassed(now,
+                        ScheduleRepository.CHILD_FETCH_BATCH_SIZE);
+                refresh(ids, now);
+                entityManager.clear();
+                return ids.size();
+            });
+            total += batch;
+        } while (batch == ScheduleRepository.CHILD_FETCH_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Recomputed the next occurrence of {} schedules", total);
+        }
+    }
+
+    /**
+     * Start of the first occurrence of s at or after instant, the end of the horizon
+     * when there is none before it, or null when nothing of s is left after instant.
+     */
+    OffsetDateTime nextOccurrence(Schedule s, OffsetDateTime instant) {
+        OffsetDateTime end = instant.plus(horizon);
+        Iterator<ScheduleOccurrenceResponse> it = occurrenceExpander.iterator(s, instant, end);
+        while (it.hasNext()) {
+            ScheduleOccurrenceResponse o = it.next();
+            // a regra é expandida a partir do segundo inteiro de instant
+            if (!o.getStart().isBefore(instant)) {
+                return o.getStart();
+            }
+        }
+        return endsBefore(s, end) ? null : end;
+    }
+
+    // Série encerrada (UNTIL, COUNT esgotado ou fim forçado) e nenhum RDATE/OVERRIDE depois de end
+    private boolean endsBefore(Schedule s, OffsetDateTime end) {
+        boolean forcedEnd = s.getSeriesUntilUtc() != null && !s.getSeriesUntilUtc().isAfter(end);
+        if (!forcedEnd && !occurrenceExpander.ruleEndsBy(s, end)) {
+            return false;
+        }
+        ZoneId zone = ZoneId.of(s.getTzid());
+        for (ScheduleRdate r : s.getRdates()) {
+            if (r.getRdateLocal().atZone(zone).toOffsetDateTime().isAfter(end)) {
+                return false;
+            }
+        }
+        for (ScheduleOverride o : s.getOverrides()) {
+            if (o.getNewStartLocal().atZone(zone).toOffsetDateTime().isAfter(end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void refresh(Collection<UUID> scheduleIds, OffsetDateTime instant) {
+        List<UUID> ids = new ArrayList<>(scheduleIds);
+        for (int i = 0; i < ids.size(); i += ScheduleRepository.CHILD_FETCH_BATCH_SIZE) {
+            List<UUID> chunk = ids.subList(i, Math.min(ids.size(), i + ScheduleRepository.CHILD_FETCH_BATCH_SIZE));
+            Map<UUID, OffsetDateTime> next = new HashMap<>();
+            for (Schedule s : scheduleRepository.findAllWithChildrenByIdIn(chunk)) {
+                next.put(s.getId(), nextOccurrence(s, instant));
+            }
+            // INSERTs pendentes do JPA precisam estar no banco antes do UPDATE via JDBC
+            entityManager.flush();
+            nextOccurrenceRepository.updateAll(next);
+        }
+    }
+}
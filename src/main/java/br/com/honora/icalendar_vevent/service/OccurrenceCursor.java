@@ -0,0 +1,47 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+/**
+ * Posição de paginação das ocorrências: a última (início, scheduleId) entregue. O
+ * cliente recebe só a forma opaca ({@link #encode()}, base64url).
+ */
+record OccurrenceCursor(Instant start, UUID scheduleId) {
+
+    static OccurrenceCursor after(ScheduleOccurrenceResponse last) {
+        return new OccurrenceCursor(last.getStart().toInstant(), last.getScheduleId());
+    }
+
+    static OccurrenceCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new OccurrenceCursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        String raw = start + "|" + scheduleId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    OffsetDateTime startUtc() {
+        return start.atOffset(ZoneOffset.UTC);
+    }
+
+    /** Whether o comes strictly after this position in response order. */
+    boolean precedes(ScheduleOccurrenceResponse o) {
+        int byStart = o.getStart().toInstant().compareTo(start);
+        return byStart > 0 || (byStart == 0 && OccurrenceExpander.compareUuids(o.getScheduleId(), scheduleId) > 0);
+    }
+}
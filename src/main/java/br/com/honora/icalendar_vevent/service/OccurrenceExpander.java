@@ -0,0 +1,404 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.recurrence.CompiledRecurrence;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Expande um schedule (com EXDATEs/RDATEs/OVERRIDES já carregados) em ocorrências
+ * dentro de [from, to]. Concentra as regras de combinação usadas tanto na consulta
+ * on-line quanto na materialização:
+ * - EXDATE remove ocorrências RRULE/RDATE com o mesmo início local
+ * - OVERRIDE substitui a ocorrência do seu RECURRENCE-ID e vence no mesmo instante
+ * - no máximo uma ocorrência por instante UTC por schedule
+ */
+@Component
+public class OccurrenceExpander {
+
+    /**
+     * Ordem de resposta: início asc, depois scheduleId. O UUID é comparado sem sinal,
+     * byte a byte, como o Postgres ordena o tipo uuid, para que a ordem em memória e
+     * o ORDER BY das consultas (e o cursor de paginação) coincidam.
+     */
+    public static final Comparator<ScheduleOccurrenceResponse> BY_START_THEN_SCHEDULE = Comparator
+            .comparing(ScheduleOccurrenceResponse::getStart)
+            .thenComparing(ScheduleOccurrenceResponse::getScheduleId, OccurrenceExpander::compareUuids);
+
+    private static final Logger log = LoggerFactory.getLogger(OccurrenceExpander.class);
+
+    private final RecurrenceCache recurrenceCache;
+    private final Counter expansionFailures;
+
+    public OccurrenceExpander(RecurrenceCache recurrenceCache, MeterRegistry meterRegistry) {
+        this.recurrenceCache = recurrenceCache;
+        this.expansionFailures = Counter.builder("schedule.recurrence.expansion.failures")
+                .description("RRULE expansions that failed; the schedule's rule occurrences were skipped")
+                .register(meterRegistry);
+    }
+
+    /** Occurrences of s starting within [from, to], ascending by start. */
+    public List<ScheduleOccurrenceResponse> expand(Schedule s, OffsetDateTime from, OffsetDateTime to) {
+        List<ScheduleOccurrenceResponse> result = new ArrayList<>();
+        iterator(s, from, to).forEachRemaining(result::add);
+        return result;
+    }
+
+    /** Whether the RRULE of s has no instance after instant (see {@link CompiledRecurrence#hasStartAfter}). */
+    public boolean ruleEndsBy(Schedule s, OffsetDateTime instant) {
+        return !recurrenceCache.get(s).hasStartAfter(instant.toEpochSecond());
+    }
+
+    /**
+     * Lazy version of {@link #expand}: RRULE instances are generated on demand and
+     * merged with the (already loaded) RDATEs and OVERRIDES, so the iterator is
+     * sorted by start without materializing the schedule's occurrences.
+     */
+    public Iterator<ScheduleOccurrenceResponse> iterator(Schedule s, OffsetDateTime from, OffsetDateTime to) {
+        ZoneId zoneId = ZoneId.of(s.getTzid());
+
+        // Collect EXDATEs (local) and Overrides keyed by recurrence id (local)
+        Set<LocalDateTime> exdatesLocal = s.getExdates().stream()
+                .map(ScheduleExdate::getExdateLocal)
+                .collect(Collectors.toSet());
+
+        Map<LocalDateTime, ScheduleOverride> overridesByRecurrence = s.getOverrides().stream()
+                .collect(Collectors.toMap(ScheduleOverride::getRecurrenceIdLocal, o -> o, (a, b) -> a));
+
+        // 1) RRULE instances within [from, to] (rule compiled once per schedule version)
+        PrimitiveIterator.OfLong ruleStarts = ruleStarts(s, from, to);
+
+        // 2) RDATEs within [from, to] (convert from local using tzid)
+        List<ScheduleOccurrenceResponse> rdates = new ArrayList<>();
+        for (ScheduleRdate r : s.getRdates()) {
+            LocalDateTime rLocal = r.getRdateLocal();
+            OffsetDateTime rUtc = rLocal.atZone(zoneId).toOffsetDateTime().withOffsetSameInstant(ZoneOffset.UTC);
+            if (rUtc.isBefore(from) || rUtc.isAfter(to)) {
+                continue;
+            }
+            // Skip if EXDATE matches this local start
+            if (exdatesLocal.contains(rLocal)) {
+                continue;
+            }
+            rdates.add(new ScheduleOccurrenceResponse(
+                    s.getId(),
+                    "RDATE",
+                    rUtc,
+                    Optional.ofNullable(r.getDurationSeconds()).orElse(s.getDurationSeconds()),
+                    s.getSummary(),
+                    s.getNotes()));
+        }
+
+        // 3) Overrides (new start) within [from, to]
+        List<ScheduleOccurrenceResponse> overrides = new ArrayList<>();
+        for (ScheduleOverride o : s.getOverrides()) {
+            LocalDateTime newLocal = o.getNewStartLocal();
+            OffsetDateTime newUtc = newLocal.atZone(zoneId).toOffsetDateTime()
+                    .withOffsetSameInstant(ZoneOffset.UTC);
+            if (newUtc.isBefore(from) || newUtc.isAfter(to)) {
+                continue;
+            }
+            // Overrides replace the base recurrence; EXDATE does not remove overrides.
+            overrides.add(new ScheduleOccurrenceResponse(
+                    s.getId(),
+                    "OVERRIDE",
+                    newUtc,
+                    Optional.ofNullable(o.getNewDurationSeconds()).orElse(s.getDurationSeconds()),
+                    Optional.ofNullable(o.getSummary()).orElse(s.getSummary()),
+                    Optional.ofNullable(o.getNotes()).orElse(s.getNotes())));
+        }
+
+        rdates.sort(BY_START_THEN_SCHEDULE);
+        overrides.sort(BY_START_THEN_SCHEDULE);
+        Iterator<ScheduleOccurrenceResponse> rule = new RuleOccurrences(s, zoneId, ruleStarts, exdatesLocal,
+                overridesByRecurrence);
+        return new SameScheduleMerge(overrides.iterator(), rule, rdates.iterator());
+    }
+
+    /**
+     * Same rules as {@link #iterator} reduced to the occurrence starts, as epoch
+     * seconds passed to action in ascending order, one per instant. No occurrence,
+     * OffsetDateTime or LocalDateTime is created per RRULE instance: EXDATEs and
+     * overridden RECURRENCE-IDs become a sorted array of the UTC instants they cancel.
+     * For aggregations that only count.
+     */
+    public void forEachStart(Schedule s, OffsetDateTime from, OffsetDateTime to, LongConsumer action) {
+        ZoneRules rules = ZoneId.of(s.getTzid()).getRules();
+        // RDATE/OVERRIDE ficam fora quando começam antes de from (mesmo com from fracionário)
+        long fromSecond = from.toEpochSecond() + (from.getNano() > 0 ? 1 : 0);
+        long toSecond = to.toEpochSecond();
+
+        Set<LocalDateTime> exdatesLocal = s.getExdates().stream()
+                .map(ScheduleExdate::getExdateLocal)
+                .collect(Collectors.toSet());
+
+        // instantes UTC cujo horário local é um EXDATE ou RECURRENCE-ID (dois numa
+        // sobreposição de horário de verão, nenhum num buraco)
+        long[] cancelled = new long[2 * (exdatesLocal.size() + s.getOverrides().size())];
+        int cancelledCount = 0;
+        List<LocalDateTime> cancelledLocals = new ArrayList<>(exdatesLocal);
+        s.getOverrides().forEach(o -> cancelledLocals.add(o.getRecurrenceIdLocal()));
+        for (LocalDateTime local : cancelledLocals) {
+            for (ZoneOffset offset : rules.getValidOffsets(local)) {
+                cancelled[cancelledCount++] = local.toEpochSecond(offset);
+            }
+        }
+        cancelled = Arrays.copyOf(cancelled, cancelledCount);
+        Arrays.sort(cancelled);
+
+        // RDATEs e novos inícios de OVERRIDES na janela, ordenados
+        long[] extra = new long[s.getRdates().size() + s.getOverrides().size()];
+        int extraCount = 0;
+        for (ScheduleRdate r : s.getRdates()) {
+            long start = r.getRdateLocal().toEpochSecond(rules.getOffset(r.getRdateLocal()));
+            if (start >= fromSecond && start <= toSecond && !exdatesLocal.contains(r.getRdateLocal())) {
+                extra[extraCount++] = start;
+            }
+        }
+        for (ScheduleOverride o : s.getOverrides()) {
+            long start = o.getNewStartLocal().toEpochSecond(rules.getOffset(o.getNewStartLocal()));
+            if (start >= fromSecond && start <= toSecond) {
+                extra[extraCount++] = start;
+            }
+        }
+        Arrays.sort(extra, 0, extraCount);
+
+        DistinctStarts out = new DistinctStarts(action);
+        int next = 0;
+        PrimitiveIterator.OfLong ruleStarts = ruleStarts(s, from, to);
+        while (ruleStarts.hasNext()) {
+            long start = ruleStarts.nextLong();
+            if (Arrays.binarySearch(cancelled, start) >= 0) {
+                continue;
+            }
+            while (next < extraCount && extra[next] <= start) {
+                out.accept(extra[next++]);
+            }
+            out.accept(start);
+        }
+        while (next < extraCount) {
+            out.accept(extra[next++]);
+        }
+    }
+
+    // Instâncias da RRULE em [from, to]; vazio quando não há regra ou a expansão falha
+    private PrimitiveIterator.OfLong ruleStarts(Schedule s, OffsetDateTime from, OffsetDateTime to) {
+        CompiledRecurrence recurrence = recurrenceCache.get(s);
+        if (recurrence.hasRule()) {
+            try {
+                return new GuardedStarts(s, recurrence.starts(from.toEpochSecond(), to.toEpochSecond()));
+            } catch (Exception e) {
+                // If RRULE expansion fails, ignore RRULE occurrences for this schedule
+                // (a rule that does not parse already compiles to hasRule() == false)
+                expansionFailed(s, e);
+            }
+        }
+        return LongStream.empty().iterator();
+    }
+
+    private void expansionFailed(Schedule s, Exception e) {
+        expansionFailures.increment();
+        log.warn("RRULE expansion failed on schedule {}: {}", s.getId(), e.toString());
+    }
+
+    /**
+     * Lazy RRULE instances that fail the same way as the up-front expansion: an
+     * exception while iterating is counted and logged, and the schedule's remaining
+     * rule occurrences are skipped instead of aborting the whole query.
+     */
+    private final class GuardedStarts implements PrimitiveIterator.OfLong {
+        private final Schedule s;
+        private PrimitiveIterator.OfLong starts;
+        private boolean hasNext;
+        private long next;
+
+        private GuardedStarts(Schedule s, PrimitiveIterator.OfLong starts) {
+            this.s = s;
+            this.starts = starts;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext)
+                throw new NoSuchElementException();
+            long current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            hasNext = false;
+            try {
+                if (starts.hasNext()) {
+                    next = starts.nextLong();
+                    hasNext = true;
+                }
+            } catch (RuntimeException e) {
+                expansionFailed(s, e);
+                starts = LongStream.empty().iterator();
+            }
+        }
+    }
+
+    // Repassa uma sequência crescente de instantes sem os repetidos
+    private static final class DistinctStarts implements LongConsumer {
+        private final LongConsumer action;
+        private boolean any;
+        private long last;
+
+        private DistinctStarts(LongConsumer action) {
+            this.action = action;
+        }
+
+        @Override
+        public void accept(long start) {
+            if (!any || start != last) {
+                action.accept(start);
+                any = true;
+                last = start;
+            }
+        }
+    }
+
+    // Instâncias da RRULE sem as que têm override ou EXDATE no mesmo início local
+    private static final class RuleOccurrences implements Iterator<ScheduleOccurrenceResponse> {
+        private final Schedule s;
+        private final ZoneId zoneId;
+        private final PrimitiveIterator.OfLong starts;
+        private final Set<LocalDateTime> exdatesLocal;
+        private final Map<LocalDateTime, ScheduleOverride> overridesByRecurrence;
+        private ScheduleOccurrenceResponse next;
+
+        private RuleOccurrences(Schedule s, ZoneId zoneId, PrimitiveIterator.OfLong starts,
+                Set<LocalDateTime> exdatesLocal, Map<LocalDateTime, ScheduleOverride> overridesByRecurrence) {
+            this.s = s;
+            this.zoneId = zoneId;
+            this.starts = starts;
+            this.exdatesLocal = exdatesLocal;
+            this.overridesByRecurrence = overridesByRecurrence;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ScheduleOccurrenceResponse next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            ScheduleOccurrenceResponse current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (starts.hasNext()) {
+                Instant instant = Instant.ofEpochSecond(starts.nextLong());
+                LocalDateTime occLocal = LocalDateTime.ofInstant(instant, zoneId);
+                // Skip if overridden or EXDATE matches
+                if (overridesByRecurrence.containsKey(occLocal) || exdatesLocal.contains(occLocal)) {
+                    continue;
+                }
+                next = new ScheduleOccurrenceResponse(
+                        s.getId(),
+                        "SCHEDULE",
+                        OffsetDateTime.ofInstant(instant, ZoneOffset.UTC),
+                        s.getDurationSeconds(),
+                        s.getSummary(),
+                        s.getNotes());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Merges the sorted sources of one schedule keeping one occurrence per instant;
+     * sources are given in precedence order (OVERRIDE, RRULE, RDATE).
+     */
+    private static final class SameScheduleMerge implements Iterator<ScheduleOccurrenceResponse> {
+        private final List<Iterator<ScheduleOccurrenceResponse>> sources;
+        private final ScheduleOccurrenceResponse[] heads;
+
+        @SafeVarargs
+        private SameScheduleMerge(Iterator<ScheduleOccurrenceResponse>... sources) {
+            this.sources = List.of(sources);
+            this.heads = new ScheduleOccurrenceResponse[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                heads[i] = sources[i].hasNext() ? sources[i].next() : null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (ScheduleOccurrenceResponse head : heads) {
+                if (head != null)
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public ScheduleOccurrenceResponse next() {
+            ScheduleOccurrenceResponse winner = null;
+            for (ScheduleOccurrenceResponse head : heads) {
+                if (head != null && (winner == null || head.getStart().isBefore(winner.getStart())))
+                    winner = head;
+            }
+            if (winner == null)
+                throw new NoSuchElementException();
+            OffsetDateTime start = winner.getStart();
+            // descarta, em todas as fontes, as demais ocorrências no mesmo instante
+            for (int i = 0; i < heads.length; i++) {
+                Iterator<ScheduleOccurrenceResponse> source = sources.get(i);
+                while (heads[i] != null && heads[i].getStart().isEqual(start)) {
+                    heads[i] = source.hasNext() ? source.next() : null;
+                }
+            }
+            return winner;
+        }
+    }
+
+    /** Compares UUIDs the way Postgres orders uuid values (unsigned, big-endian). */
+    static int compareUuids(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+import br.com.honora.icalendar_vevent.dto.response.OccurrenceHistogramResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceCountResponse;
+
+/**
+ * Contadores por bucket (hora ou dia no fuso pedido) dos inícios de ocorrência,
+ * recebidos como epoch seconds de {@link OccurrenceExpander#forEachStart}: cada
+ * ocorrência custa uma busca binária nos limites dos buckets e um incremento, sem
+ * objeto por ocorrência. Os limites são instantes, então dias de 23 ou 25 horas
+ * (horário de verão) continuam sendo um bucket cada.
+ */
+final class OccurrenceHistogram implements LongConsumer {
+
+    private final OffsetDateTime from;
+    private final OffsetDateTime to;
+    private final ChronoUnit unit;
+    private final ZoneId zone;
+    private final boolean bySchedule;
+    private final long[] bounds; // bucket i = [bounds[i], bounds[i + 1])
+    private final long[] counts;
+    private final List<ScheduleOccurrenceCountResponse> schedules = new ArrayList<>();
+    private long total;
+
+    private UUID scheduleId;
+    private long scheduleTotal;
+    private long[] scheduleCounts;
+
+    /** unit is HOURS or DAYS; rejects windows with more than maxBuckets buckets. */
+    OccurrenceHistogram(OffsetDateTime from, OffsetDateTime to, ChronoUnit unit, ZoneId zone, boolean bySchedule,
+            int maxBuckets) {
+        this.from = from;
+        this.to = to;
+        this.unit = unit;
+        this.zone = zone;
+        this.bySchedule = bySchedule;
+        this.bounds = bounds(from, to, unit, zone, maxBuckets);
+        this.counts = new long[bounds.length - 1];
+    }
+
+    /** Starts counting the occurrences of another schedule. */
+    void beginSchedule(UUID id) {
+        scheduleId = id;
+        scheduleTotal = 0;
+        scheduleCounts = null;
+    }
+
+    /** Counts one occurrence of the current schedule starting at the given epoch second, within [from, to]. */
+    @Override
+    public void accept(long startEpochSecond) {
+        int bucket = Arrays.binarySearch(bounds, startEpochSecond);
+        if (bucket < 0) {
+            bucket = -bucket - 2; // limite anterior ao ponto de inserção
+        }
+        counts[bucket]++;
+        total++;
+        scheduleTotal++;
+        if (bySchedule) {
+            if (scheduleCounts == null) {
+                scheduleCounts = new long[counts.length];
+            }
+            scheduleCounts[bucket]++;
+        }
+    }
+
+    void endSchedule() {
+        if (scheduleTotal > 0) {
+            schedules.add(new ScheduleOccurrenceCountResponse(scheduleId, scheduleTotal, scheduleCounts));
+        }
+    }
+
+    OccurrenceHistogramResponse finish() {
+        List<OffsetDateTime> bucketStarts = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            bucketStarts.add(OffsetDateTime.ofInstant(Instant.ofEpochSecond(bounds[i]), zone));
+        }
+        schedules.sort(Comparator.comparing(ScheduleOccurrenceCountResponse::getScheduleId,
+                OccurrenceExpander::compareUuids));
+        return new OccurrenceHistogramResponse(from, to, unit == ChronoUnit.HOURS ? "HOUR" : "DAY", zone.getId(),
+                bucketStarts, counts, total, schedules);
+    }
+
+    // Início de cada bucket de from até depois de to, mais o fim do último
+    private static long[] bounds(OffsetDateTime from, OffsetDateTime to, ChronoUnit unit, ZoneId zone,
+            int maxBuckets) {
+        ZonedDateTime first = from.atZoneSameInstant(zone).truncatedTo(unit);
+        if (unit == ChronoUnit.DAYS) {
+            first = first.toLocalDate().atStartOfDay(zone);
+        }
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(first.toEpochSecond());
+        long end = to.toEpochSecond();
+        for (int i = 1; bounds.get(bounds.size() - 1) <= end; i++) {
+            if (bounds.size() > maxBuckets) {
+                throw new IllegalArgumentException("Window has more than " + maxBuckets + " buckets");
+            }
+            bounds.add(unit == ChronoUnit.DAYS
+                    ? first.toLocalDate().plusDays(i).atStartOfDay(zone).toEpochSecond()
+                    : first.plusHours(i).toEpochSecond());
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleOccurrenceJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleOccurrenceJdbcRepository.Horizon;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Modo opcional de ocorrências materializadas (schedule.materialization.enabled).
+ * Mantém tb_soc_schedule_occurrence preenchida para um horizonte móvel
+ * [hoje - retention, hoje + horizon]:
+ * - um job diário estende o horizonte e descarta o que ficou para trás
+ * - cada {@link ScheduleChangedEvent} re-materializa só os schedules afetados,
+ * na mesma transação da alteração
+ * Janelas inteiramente dentro do horizonte são respondidas com um range scan.
+ */
+@Service
+public class OccurrenceMaterializer {
+
+    private static final Logger log = LoggerFactory.getLogger(OccurrenceMaterializer.class);
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleOccurrenceJdbcRepository occurrenceRepository;
+    private final OccurrenceExpander occurrenceExpander;
+    private final CandidateIndex candidateIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final boolean enabled;
+    private final Duration horizon;
+    private final Duration retention;
+
+    public OccurrenceMaterializer(ScheduleRepository scheduleRepository,
+            ScheduleOccurrenceJdbcRepository occurrenceRepository,
+            OccurrenceExpander occurrenceExpander,
+            CandidateIndex candidateIndex,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            @Value("${schedule.materialization.enabled:false}") boolean enabled,
+            @Value("${schedule.materialization.horizon:180d}") Duration horizon,
+            @Value("${schedule.materialization.retention:30d}") Duration retention) {
+        this.scheduleRepository = scheduleRepository;
+        this.occurrenceRepository = occurrenceRepository;
+        this.occurrenceExpander = occurrenceExpander;
+        this.candidateIndex = candidateIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.retention = retention;
+    }
+
+    /** Whether [from, to] can be answered from the materialized table. */
+    public boolean covers(OffsetDateTime from, OffsetDateTime to) {
+        return enabled && occurrenceRepository.findHorizon().map(h -> h.covers(from, to)).orElse(false);
+    }
+
+    /** Passes the materialized occurrences within [from, to] to action, in response order. */
+    public void forEachBetween(OffsetDateTime from, OffsetDateTime to, Consumer<ScheduleOccurrenceResponse> action) {
+        occurrenceRepository.forEachBetween(from, to, action);
+    }
+
+    /** Up to limit materialized occurrences within [from, to] after the cursor (null: from the start). */
+    List<ScheduleOccurrenceResponse> findPageAfter(OffsetDateTime from, OffsetDateTime to, OccurrenceCursor after,
+            int limit) {
+        return after == null
+                ? occurrenceRepository.findPageAfter(from, to, null, null, limit)
+                : occurrenceRepository.findPageAfter(from, to, after.startUtc(), after.scheduleId(), limit);
+    }
+
+    // Re-materializa os schedules alterados antes do commit da própria alteração
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!enabled || event.allSchedules()) {
+            // deleteAll: as linhas materializadas já saem por ON DELETE CASCADE
+            return;
+        }
+        occurrenceRepository.lockHorizon(false);
+        occurrenceRepository.findHorizon().ifPresent(h -> {
+            occurrenceRepository.deleteBySchedules(event.scheduleIds());
+            materialize(event.scheduleIds(), h.from(), h.until(), false);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refreshHorizon();
+    }
+
+    /**
+     * Moves the horizon to [today - retention, today + horizon]. When the current
+     * horizon still reaches the new start only the new tail is expanded; otherwise
+     * (first run, stale horizon, larger retention) the table is rebuilt.
+     */
+    @Scheduled(cron = "${schedule.materialization.refresh-cron:0 30 2 * * *}")
+    public void refreshHorizon() {
+        if (!enabled) {
+            return;
+        }
+        OffsetDateTime today = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        Horizon target = new Horizon(today.minus(retention), today.plus(horizon));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            occurrenceRepository.lockHorizon(true);
+            Optional<Horizon> current = occurrenceRepository.findHorizon();
+            boolean extend = current
+                    .filter(h -> !h.from().isAfter(target.from()) && !h.until().isBefore(target.from()))
+                    .isPresent();
+            OffsetDateTime expandFrom = target.from();
+            if (extend) {
+                expandFrom = current.get().until();
+                occurrenceRepository.deleteStartingBefore(target.from());
+            } else {
+                occurrenceRepository.deleteAll();
+            }
+            if (expandFrom.isBefore(target.until())) {
+                List<UUID> ids = candidateIndex.findCandidateIds(expandFrom, target.until());
+                materialize(ids, expandFrom, target.until(), true);
+                log.info("Materialized occurrences of {} schedules for [{}, {}]", ids.size(), expandFrom,
+                        target.until());
+            }
+            occurrenceRepository.saveHorizon(target);
+        });
+    }
+
+    // Expande e grava em lotes; no job, limpa o contexto de persistência entre lotes
+    private void materialize(Collection<UUID> scheduleIds, OffsetDateTime from, OffsetDateTime until,
+            boolean clearBetweenChunks) {
+        List<UUID> ids = new ArrayList<>(scheduleIds);
+        for (int i = 0; i < ids.size(); i += ScheduleRepository.CHILD_FETCH_BATCH_SIZE) {
+            List<UUID> chunk = ids.subList(i, Math.min(ids.size(), i + ScheduleRepository.CHILD_FETCH_BATCH_SIZE));
+            List<ScheduleOccurrenceResponse> rows = new ArrayList<>();
+            for (Schedule s : scheduleRepository.findAllWithChildrenByIdIn(chunk)) {
+                rows.addAll(occurrenceExpander.expand(s, from, until));
+            }
+            occurrenceRepository.insertAll(rows);
+            if (clearBetweenChunks) {
+                entityManager.clear();
+            }
+        }
+    }
+}
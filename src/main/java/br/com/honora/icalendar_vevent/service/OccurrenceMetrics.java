@@ -0,0 +1,161 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas da consulta de ocorrências, por etapa (tag stage):
+ * - candidates: consulta de ids candidatos
+ * - hydrate: carga dos schedules com EXDATEs/RDATEs/OVERRIDES
+ * - expand-parallel: primeiros blocos de ocorrências gerados no pool (só no modo paralelo)
+ * - expand: expansão preguiçosa + merge, só o tempo gasto gerando ocorrências
+ * (não o de quem as consome, como a escrita do stream)
+ * - merge: a parte de expand fora da geração dos blocos na própria thread (a mescla
+ * e, no modo paralelo, a espera pelos blocos do pool)
+ * - materialized: leitura da tabela materializada, com a mesma exclusão
+ * Mais candidatos e ocorrências por requisição, e o tempo de geração de cada
+ * schedule (schedule.occurrences.expansion, um registro por schedule e consulta; o
+ * id não vira tag, para não explodir a cardinalidade). Os tempos são medidos por
+ * bloco de ocorrências ou por etapa, nunca por ocorrência. As métricas de RRULE
+ * ficam no {@link RecurrenceCache} e no {@link OccurrenceExpander}.
+ */
+@Component
+public class OccurrenceMetrics {
+
+    private final Timer candidates;
+    private final Timer hydrate;
+    private final Timer parallelExpand;
+    private final Timer expand;
+    private final Timer merge;
+    private final Timer materialized;
+    private final Timer scheduleExpansion;
+    private final DistributionSummary candidatesPerRequest;
+    private final DistributionSummary occurrencesPerRequest;
+
+    public OccurrenceMetrics(MeterRegistry registry) {
+        this.candidates = stageTimer(registry, "candidates");
+        this.hydrate = stageTimer(registry, "hydrate");
+        this.parallelExpand = stageTimer(registry, "expand-parallel");
+        this.expand = stageTimer(registry, "expand");
+        this.merge = stageTimer(registry, "merge");
+        this.materialized = stageTimer(registry, "materialized");
+        this.scheduleExpansion = Timer.builder("schedule.occurrences.expansion")
+                .description("Time spent generating the occurrences of one schedule in an occurrence query")
+                .register(registry);
+        this.candidatesPerRequest = DistributionSummary.builder("schedule.occurrences.candidates")
+                .description("Candidate schedules per occurrence query")
+                .baseUnit("schedules")
+                .register(registry);
+        this.occurrencesPerRequest = DistributionSummary.builder("schedule.occurrences.results")
+                .description("Occurrences returned per occurrence query")
+                .baseUnit("occurrences")
+                .register(registry);
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("schedule.occurrences.stage")
+                .description("Time spent in each stage of an occurrence query")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    public Timer candidates() {
+        return candidates;
+    }
+
+    public Timer hydrate() {
+        return hydrate;
+    }
+
+    public Timer parallelExpand() {
+        return parallelExpand;
+    }
+
+    public void recordCandidates(int count) {
+        candidatesPerRequest.record(count);
+    }
+
+    /** Starts timing the occurrences of one query. */
+    public Expansion startExpansion() {
+        return new Expansion();
+    }
+
+    /**
+     * Time spent producing the occurrences of one query: the time inside
+     * {@link #time} minus the time of the actions run by {@link #excluding}. Used by
+     * the request thread; only the {@link #schedule} timings may also be called from
+     * the expansion pool.
+     */
+    public final class Expansion {
+        private final List<ScheduleTiming> schedules = new ArrayList<>();
+        private long nanos;
+        private long chunkNanos; // blocos gerados na thread da requisição
+
+        private Expansion() {
+        }
+
+        /** Runs work, counting its time. */
+        public <T> T time(Supplier<T> work) {
+            long start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        /** Runs an action called from inside {@link #time} leaving its own time out. */
+        public void excluding(Runnable action) {
+            long start = System.nanoTime();
+            try {
+                action.run();
+            } finally {
+                nanos -= System.nanoTime() - start;
+            }
+        }
+
+        /** Timing of the chunks of one schedule, recorded once when the query stops. */
+        ChunkedOccurrences.Timing schedule() {
+            ScheduleTiming timing = new ScheduleTiming();
+            schedules.add(timing);
+            return timing;
+        }
+
+        /** Records the time counted so far, per stage and per schedule, and the number of occurrences returned. */
+        public void stop(boolean fromMaterialized, long occurrences) {
+            long counted = Math.max(nanos, 0);
+            if (fromMaterialized) {
+                materialized.record(counted, TimeUnit.NANOSECONDS);
+            } else {
+                expand.record(counted, TimeUnit.NANOSECONDS);
+                merge.record(Math.max(counted - chunkNanos, 0), TimeUnit.NANOSECONDS);
+            }
+            for (ScheduleTiming timing : schedules) {
+                scheduleExpansion.record(timing.nanos.get(), TimeUnit.NANOSECONDS);
+            }
+            occurrencesPerRequest.record(occurrences);
+        }
+
+        // Tempo acumulado dos blocos de um schedule; os do pool chegam de outras threads
+        private final class ScheduleTiming implements ChunkedOccurrences.Timing {
+            private final AtomicLong nanos = new AtomicLong();
+
+            @Override
+            public void chunkProduced(long elapsed, boolean onConsumerThread) {
+                nanos.addAndGet(elapsed);
+                if (onConsumerThread) {
+                    chunkNanos += elapsed;
+                }
+            }
+        }
+    }
+}
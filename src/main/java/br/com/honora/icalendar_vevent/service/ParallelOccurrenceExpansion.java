@@ -0,0 +1,96 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Expansão concorrente dos candidatos (schedule.expansion.parallelism > 1): as
+ * ocorrências de cada schedule, com os filhos já carregados, são geradas em blocos
+ * limitados ({@link ChunkedOccurrences}, até schedule.expansion.chunk-size) num
+ * ForkJoinPool dedicado, fora do pool comum. Os primeiros blocos de todos os
+ * schedules saem juntos; depois o pool produz o próximo bloco de cada schedule
+ * enquanto a thread da requisição mescla os já prontos no
+ * {@link MergedOccurrenceIterator}. Geração de instâncias, EXDATEs, OVERRIDES e a
+ * montagem de cada resposta rodam no pool; a mescla continua sequencial. A memória
+ * fica em até dois blocos por schedule e o resultado é o da expansão sequencial.
+ * Sem o modo paralelo, os mesmos blocos são gerados na thread de quem consome.
+ */
+@Component
+public class ParallelOccurrenceExpansion {
+
+    private final OccurrenceExpander occurrenceExpander;
+    private final int minCandidates;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    public ParallelOccurrenceExpansion(OccurrenceExpander occurrenceExpander,
+            @Value("${schedule.expansion.parallelism:0}") int parallelism,
+            @Value("${schedule.expansion.min-candidates:64}") int minCandidates,
+            @Value("${schedule.expansion.chunk-size:256}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("schedule.expansion.chunk-size must be at least 1");
+        }
+        this.occurrenceExpander = occurrenceExpander;
+        this.minCandidates = minCandidates;
+        this.chunkSize = chunkSize;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /** Whether this many candidates are worth fanning out. */
+    public boolean appliesTo(int candidates) {
+        return pool != null && candidates >= minCandidates;
+    }
+
+    /**
+     * Per-schedule occurrence iterators, each sorted by start, in the order of
+     * schedules, expanded chunk by chunk on the pool ahead of the caller. Children
+     * must already be initialized: entities are only read from the pool threads,
+     * never lazily loaded.
+     */
+    public List<Iterator<ScheduleOccurrenceResponse>> expandAll(List<Schedule> schedules, OffsetDateTime from,
+            OffsetDateTime to) {
+        return expandAll(schedules, s -> occurrenceExpander.iterator(s, from, to));
+    }
+
+    /** Same as {@link #expandAll(List, OffsetDateTime, OffsetDateTime)} with expansion creating each iterator. */
+    public List<Iterator<ScheduleOccurrenceResponse>> expandAll(List<Schedule> schedules,
+            Function<Schedule, Iterator<ScheduleOccurrenceResponse>> expansion) {
+        return expand(schedules, expansion, s -> ChunkedOccurrences.Timing.NONE, true);
+    }
+
+    /**
+     * Chunked per-schedule iterators whose chunks come from the pool when onPool
+     * (only if {@link #appliesTo} said so), otherwise from the consuming thread;
+     * timing receives the time of each schedule's chunks.
+     */
+    List<Iterator<ScheduleOccurrenceResponse>> expand(List<Schedule> schedules,
+            Function<Schedule, Iterator<ScheduleOccurrenceResponse>> expansion,
+            Function<Schedule, ChunkedOccurrences.Timing> timing, boolean onPool) {
+        List<Iterator<ScheduleOccurrenceResponse>> result = new ArrayList<>(schedules.size());
+        for (Schedule s : schedules) {
+            ChunkedOccurrences occurrences = new ChunkedOccurrences(() -> expansion.apply(s), chunkSize,
+                    onPool ? pool : null, timing.apply(s));
+            occurrences.prefetch(); // no pool, os primeiros blocos de todos rodam juntos
+            result.add(occurrences);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
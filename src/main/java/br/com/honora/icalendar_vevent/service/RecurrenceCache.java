@@ -0,0 +1,86 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.recurrence.CompiledRecurrence;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache de RRULEs compiladas por versão de schedule: a chave é (sch_id,
+ * sch_updated_at), então qualquer alteração na linha gera uma entrada nova e a
+ * antiga sai por tamanho ou TTL. Evita montar a string, fazer parse do UNTIL e
+ * compilar a regra a cada requisição para schedules consultados repetidamente.
+ */
+@Component
+public class RecurrenceCache {
+
+    private record Key(UUID scheduleId, Instant updatedAt) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RecurrenceCache.class);
+
+    private final Cache<Key, CompiledRecurrence> cache;
+    private final Timer compileTimer;
+    private final Counter invalidRules;
+
+    public RecurrenceCache(
+            @Value("${schedule.recurrence-cache.maximum-size:10000}") long maximumSize,
+            @Value("${schedule.recurrence-cache.expire-after-write:30m}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // cache.gets/puts/evictions{cache="recurrence"}
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recurrence");
+        this.compileTimer = Timer.builder("schedule.recurrence.compile")
+                .description("RRULE JSON to compiled rule, on cache misses")
+                .register(meterRegistry);
+        this.invalidRules = Counter.builder("schedule.recurrence.invalid")
+                .description("Stored RRULEs that could not be compiled (expanded as no rule)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compiled RRULE of the schedule's current version. Schedules without id or
+     * updatedAt (not yet flushed/refreshed) are compiled without caching.
+     */
+    public CompiledRecurrence get(Schedule s) {
+        if (s.getId() == null || s.getUpdatedAt() == null) {
+            return compile(s);
+        }
+        return cache.get(new Key(s.getId(), s.getUpdatedAt().toInstant()), k -> compile(s));
+    }
+
+    /** Hit/miss/eviction counters since startup. */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private CompiledRecurrence compile(Schedule s) {
+        CompiledRecurrence compiled = compileTimer.record(
+                () -> CompiledRecurrence.compile(s.getRruleJson(), s.getSeriesStartLocal(), ZoneId.of(s.getTzid())));
+        if (compiled.getError() != null) {
+            invalidRules.increment();
+            log.warn("Invalid RRULE on schedule {}: {}", s.getId(), compiled.getError().getMessage());
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+/** A reminder sent leadTime before the start of an occurrence. */
+public record Reminder(ScheduleOccurrenceResponse occurrence, Duration leadTime) {
+
+    public Instant fireAt() {
+        return occurrence.getStart().toInstant().minus(leadTime);
+    }
+}
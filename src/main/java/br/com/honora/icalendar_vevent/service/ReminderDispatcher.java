@@ -0,0 +1,235 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import br.com.honora.icalendar_vevent.service.TimingWheel.Timer;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Lembretes em processo (schedule.reminders.enabled): cada ocorrência gera um
+ * lembrete por antecedência de schedule.reminders.lead-times, entregue aos
+ * {@link ReminderSink}s quando chega a hora.
+ * - os lembretes que disparam até schedule.reminders.horizon à frente ficam numa
+ * {@link TimingWheel}; a cada meio horizonte o trecho seguinte é carregado
+ * - um job avança a roda a cada schedule.reminders.tick-millis e envia os vencidos
+ * - cada {@link ScheduleChangedEvent} cancela e recarrega só os lembretes dos
+ * schedules afetados, depois do commit
+ * Só vive em memória: lembretes que venceriam com a aplicação parada não são
+ * enviados depois.
+ */
+@Service
+public class ReminderDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+    private final ScheduleRepository scheduleRepository;
+    private final OccurrenceExpander occurrenceExpander;
+    private final CandidateIndex candidateIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final List<ReminderSink> sinks;
+    private final boolean enabled;
+    private final List<Duration> leadTimes;
+    private final Duration minLeadTime;
+    private final Duration maxLeadTime;
+    private final Duration horizon;
+    private final long tickMillis;
+
+    private final Object lock = new Object();
+    // protegidos por lock
+    private TimingWheel<Reminder> wheel; // null: parado
+    private final Map<UUID, Map<Reminder, Timer<Reminder>>> timersBySchedule = new HashMap<>();
+    private Instant firedUntil; // lembretes com fireAt <= firedUntil já foram entregues
+    private Instant loadedUntil; // os de (firedUntil, loadedUntil] estão na roda
+
+    public ReminderDispatcher(ScheduleRepository scheduleRepository,
+            OccurrenceExpander occurrenceExpander,
+            CandidateIndex candidateIndex,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            List<ReminderSink> sinks,
+            @Value("${schedule.reminders.enabled:false}") boolean enabled,
+            @Value("${schedule.reminders.lead-times:15m}") List<Duration> leadTimes,
+            @Value("${schedule.reminders.horizon:6h}") Duration horizon,
+            @Value("${schedule.reminders.tick-millis:1000}") long tickMillis) {
+        if (leadTimes.isEmpty() || leadTimes.stream().anyMatch(Duration::isNegative)) {
+            throw new IllegalArgumentException("schedule.reminders.lead-times must be one or more non-negative durations");
+        }
+        if (horizon.isNegative() || horizon.isZero()) {
+            throw new IllegalArgumentException("schedule.reminders.horizon must be positive");
+        }
+        this.scheduleRepository = scheduleRepository;
+        this.occurrenceExpander = occurrenceExpander;
+        this.candidateIndex = candidateIndex;
+        // as releituras rodam depois do commit da alteração, fora da transação dela
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.sinks = List.copyOf(sinks);
+        this.enabled = enabled;
+        this.leadTimes = List.copyOf(leadTimes);
+        this.minLeadTime = leadTimes.stream().min(Duration::compareTo).orElseThrow();
+        this.maxLeadTime = leadTimes.stream().max(Duration::compareTo).orElseThrow();
+        this.horizon = horizon;
+        this.tickMillis = tickMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            start(Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${schedule.reminders.tick-millis:1000}")
+    public void tick() {
+        if (enabled) {
+            advance(Instant.now());
+        }
+    }
+
+    /** Number of reminders waiting in the wheel. */
+    public int pendingCount() {
+        synchronized (lock) {
+            return wheel != null ? wheel.size() : 0;
+        }
+    }
+
+    /** (Re)starts the wheel at now: reminders due up to now are not sent. */
+    void start(Instant now) {
+        synchronized (lock) {
+            wheel = new TimingWheel<>(tickMillis, now.toEpochMilli());
+            timersBySchedule.clear();
+            firedUntil = now;
+            loadedUntil = now;
+            extend(now);
+            log.info("Reminder wheel started with {} reminders up to {}", wheel.size(), loadedUntil);
+        }
+    }
+
+    /** Loads the next stretch of the horizon when due and sends every reminder due up to now. */
+    void advance(Instant now) {
+        List<Reminder> due = new ArrayList<>();
+        synchronized (lock) {
+            if (wheel == null || !now.isAfter(firedUntil)) {
+                return;
+            }
+            extend(now);
+            wheel.advance(now.toEpochMilli(), reminder -> {
+                due.add(reminder);
+                forget(reminder);
+            });
+            firedUntil = now;
+        }
+        for (Reminder reminder : due) {
+            for (ReminderSink sink : sinks) {
+                try {
+                    sink.send(reminder);
+                } catch (RuntimeException e) {
+                    log.warn("Reminder sink {} failed for schedule {}", sink.getClass().getSimpleName(),
+                            reminder.occurrence().getScheduleId(), e);
+                }
+            }
+        }
+    }
+
+    // Recarrega os lembretes dos schedules alterados assim que a alteração fica visível
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        synchronized (lock) {
+            if (wheel == null) {
+                return; // desligado ou ainda não iniciado: o início já lê a alteração
+            }
+            // a leitura fica dentro do lock para que uma carga do horizonte e a
+            // releitura de um schedule não sejam aplicadas fora de ordem
+            if (event.allSchedules()) {
+                timersBySchedule.values().forEach(timers -> timers.values().forEach(wheel::cancel));
+                timersBySchedule.clear();
+                load(null, firedUntil, loadedUntil);
+                return;
+            }
+            for (UUID id : event.scheduleIds()) {
+                Map<Reminder, Timer<Reminder>> timers = timersBySchedule.remove(id);
+                if (timers != null) {
+                    timers.values().forEach(wheel::cancel);
+                }
+            }
+            load(event.scheduleIds(), firedUntil, loadedUntil);
+        }
+    }
+
+    // Mantém a roda carregada até now + horizon, lendo o banco a cada meio horizonte
+    private void extend(Instant now) {
+        if (loadedUntil.isAfter(now.plus(horizon.dividedBy(2)))) {
+            return;
+        }
+        Instant until = now.plus(horizon);
+        load(null, loadedUntil, until);
+        loadedUntil = until;
+    }
+
+    /**
+     * Adds the reminders firing within (fireAfter, fireUntil] of the given schedules,
+     * or of every schedule with occurrences in that stretch when scheduleIds is null.
+     */
+    private void load(Collection<UUID> scheduleIds, Instant fireAfter, Instant fireUntil) {
+        OffsetDateTime from = fireAfter.plus(minLeadTime).atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = fireUntil.plus(maxLeadTime).atOffset(ZoneOffset.UTC);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<UUID> ids = scheduleIds != null
+                    ? new ArrayList<>(scheduleIds)
+                    : candidateIndex.findCandidateIds(from, to);
+            for (int i = 0; i < ids.size(); i += ScheduleRepository.CHILD_FETCH_BATCH_SIZE) {
+                List<UUID> chunk = ids.subList(i, Math.min(ids.size(), i + ScheduleRepository.CHILD_FETCH_BATCH_SIZE));
+                for (Schedule s : scheduleRepository.findAllWithChildrenByIdIn(chunk)) {
+                    occurrenceExpander.iterator(s, from, to).forEachRemaining(o -> {
+                        for (Duration leadTime : leadTimes) {
+                            Reminder reminder = new Reminder(o, leadTime);
+                            Instant fireAt = reminder.fireAt();
+                            if (fireAt.isAfter(fireAfter) && !fireAt.isAfter(fireUntil)) {
+                                timersBySchedule.computeIfAbsent(o.getScheduleId(), id -> new HashMap<>())
+                                        .put(reminder, wheel.schedule(fireAt.toEpochMilli(), reminder));
+                            }
+                        }
+                    });
+                }
+                entityManager.clear();
+            }
+        });
+    }
+
+    private void forget(Reminder reminder) {
+        UUID id = reminder.occurrence().getScheduleId();
+        Map<Reminder, Timer<Reminder>> timers = timersBySchedule.get(id);
+        if (timers != null) {
+            timers.remove(reminder);
+            if (timers.isEmpty()) {
+                timersBySchedule.remove(id);
+            }
+        }
+    }
+}
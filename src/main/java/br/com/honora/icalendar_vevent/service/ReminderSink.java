@@ -0,0 +1,11 @@
+package br.com.honora.icalendar_vevent.service;
+
+/**
+ * Destino dos lembretes disparados pelo {@link ReminderDispatcher}. Cada bean
+ * ReminderSink recebe todos os lembretes, na thread do dispatcher: envios lentos
+ * devem ser repassados a outro executor.
+ */
+public interface ReminderSink {
+
+    void send(Reminder reminder);
+}
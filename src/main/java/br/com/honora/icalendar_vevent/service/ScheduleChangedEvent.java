@@ -0,0 +1,27 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Publicado pelo {@link ScheduleService} e pelo {@link ScheduleImportService}, dentro
+ * da transação, quando schedules são criados ou têm série, EXDATEs, RDATEs ou
+ * OVERRIDES alterados. Estruturas derivadas (ocorrências materializadas, índices
+ * em memória) reagem a ele.
+ * allSchedules indica remoção em massa (deleteAll).
+ */
+public record ScheduleChangedEvent(Set<UUID> scheduleIds, boolean allSchedules) {
+
+    public static ScheduleChangedEvent of(UUID scheduleId) {
+        return new ScheduleChangedEvent(Set.of(scheduleId), false);
+    }
+
+    public static ScheduleChangedEvent of(Collection<UUID> scheduleIds) {
+        return new ScheduleChangedEvent(Set.copyOf(scheduleIds), false);
+    }
+
+    public static ScheduleChangedEvent ofAllSchedules() {
+        return new ScheduleChangedEvent(Set.of(), true);
+    }
+}
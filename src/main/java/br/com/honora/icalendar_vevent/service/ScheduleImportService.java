@@ -0,0 +1,480 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleImportResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleImportResponse.ItemError;
+import br.com.honora.icalendar_vevent.ics.IcsEvent;
+import br.com.honora.icalendar_vevent.ics.IcsEventMapper;
+import br.com.honora.icalendar_vevent.ics.IcsReader;
+import br.com.honora.icalendar_vevent.repository.ScheduleImportStagingJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleImportStagingJdbcRepository.ResolvedOrphan;
+import br.com.honora.icalendar_vevent.repository.ScheduleImportStagingJdbcRepository.StagedOrphan;
+import br.com.honora.icalendar_vevent.repository.ScheduleImportStagingJdbcRepository.StagedSeries;
+import br.com.honora.icalendar_vevent.repository.ScheduleJdbcRepository;
+
+/**
+ * Importação em massa de schedules, de um array JSON ou de um .ics. A entrada é lida
+ * item a item (nunca inteira em memória), validada em Java e gravada em chunks de schedule.import.chunk-size, cada
+ * um na sua transação, com INSERTs em lote via {@link ScheduleJdbcRepository}.
+ * Itens inválidos são rejeitados individualmente; se um chunk falhar no banco, ele é
+ * regravado item a item para isolar os culpados. Chunks já gravados permanecem se a
+ * entrada for interrompida.
+ */
+@Service
+public class ScheduleImportService {
+
+    private static final Set<String> FREQUENCIES = Set.of("DAILY", "WEEKLY", "MONTHLY", "YEARLY");
+
+    private final ObjectMapper objectMapper;
+    private final ScheduleJdbcRepository scheduleJdbcRepository;
+    private final ScheduleImportStagingJdbcRepository stagingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int seriesCacheSize;
+
+    public ScheduleImportService(ObjectMapper objectMapper, ScheduleJdbcRepository scheduleJdbcRepository,
+            ScheduleImportStagingJdbcRepository stagingRepository,
+            TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+            @Value("${schedule.import.chunk-size:500}") int chunkSize,
+            @Value("${schedule.import.series-cache-size:10000}") int seriesCacheSize) {
+        this.objectMapper = objectMapper;
+        this.scheduleJdbcRepository = scheduleJdbcRepository;
+        this.stagingRepository = stagingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.seriesCacheSize = seriesCacheSize;
+    }
+
+    /**
+     * Imports a JSON array of {@link ScheduleRequest}, streamed from in. A malformed
+     * document stops the import with an IllegalArgumentException; a well-formed item
+     * that cannot be mapped or stored is reported in the response and skipped.
+     */
+    public ScheduleImportResponse importJson(InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of schedules");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unexpected end of input after item " + batch.next);
+                }
+                int index = batch.claim();
+                JsonNode item = parser.readValueAsTree();
+                try {
+                    batch.add(index, toSchedule(objectMapper.treeToValue(item, ScheduleRequest.class)));
+                } catch (JsonProcessingException e) {
+                    batch.reject(index, e.getOriginalMessage());
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    batch.reject(index, e.getMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON after item " + batch.next + ": " + e.getOriginalMessage());
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Imports the VEVENTs of an iCalendar stream, read one event at a time by
+     * {@link IcsReader}. Items are the VEVENTs in file order: masters become schedules,
+     * RECURRENCE-ID events become overrides (or EXDATEs when CANCELLED) of the master
+     * with the same UID, before or after it in the file. Memory does not grow with the
+     * file: only the last schedule.import.series-cache-size masters are kept, as small
+     * references; the other RECURRENCE-ID events are staged in the database with the
+     * chunks and linked to their master by UID once the whole file has been read.
+     * A malformed VEVENT is reported as an item error, like any other invalid item.
+     */
+    public ScheduleImportResponse importIcs(InputStream in) throws IOException {
+        UUID importId = UUID.randomUUID();
+        ImportBatch batch = new ImportBatch(importId);
+        Map<String, Series> recentSeries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Series> eldest) {
+                return size() > seriesCacheSize;
+            }
+        };
+        try {
+            try (IcsReader reader = new IcsReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                while (true) {
+                    IcsEvent event;
+                    try {
+                        event = reader.nextEvent();
+                    } catch (IllegalArgumentException e) {
+                        batch.reject(batch.claim(), e.getMessage()); // VEVENT com linha inválida
+                        continue;
+                    }
+                    if (event == null) {
+                        break;
+                    }
+                    int index = batch.claim();
+                    String uid = event.value("UID");
+                    try {
+                        if (!IcsEventMapper.isOverride(event)) {
+                            Schedule s = toSchedule(IcsEventMapper.toScheduleRequest(event));
+                            batch.add(index, s, uid);
+                            if (uid != null) {
+                                recentSeries.put(uid, new Series(s.getId(), ZoneId.of(s.getTzid()), s.getDurationSeconds()));
+                            }
+                        } else if (uid == null) {
+                            throw new IllegalArgumentException("UID is required");
+                        } else if (recentSeries.containsKey(uid)) {
+                            addInstance(batch, index, recentSeries.get(uid), event);
+                        } else {
+                            // mestre mais adiante no arquivo, ou já fora do cache: resolvido no fim
+                            batch.stage(new StagedOrphan(index, uid, objectMapper.writeValueAsString(event)));
+                        }
+                    } catch (IllegalArgumentException | DateTimeException e) {
+                        batch.reject(index, e.getMessage());
+                    }
+                }
+            }
+            batch.flush();
+            resolveOrphans(importId, batch);
+            return batch.finish();
+        } finally {
+            stagingRepository.deleteImport(importId);
+        }
+    }
+
+    // Liga os RECURRENCE-IDs guardados ao mestre do mesmo UID, um chunk por vez
+    private void resolveOrphans(UUID importId, ImportBatch batch) throws IOException {
+        int after = -1;
+        List<ResolvedOrphan> page;
+        do {
+            page = stagingRepository.findOrphansAfter(importId, after, chunkSize);
+            for (ResolvedOrphan resolved : page) {
+                StagedOrphan orphan = resolved.orphan();
+                StagedSeries master = resolved.series();
+                if (master == null) {
+                    batch.reject(orphan.index(), "No valid master VEVENT for UID " + orphan.uid());
+                } else {
+                    addInstance(batch, orphan.index(),
+                            new Series(master.scheduleId(), ZoneId.of(master.tzid()), master.durationSeconds()),
+                            objectMapper.readValue(orphan.eventJson(), IcsEvent.class));
+                }
+                after = orphan.index();
+            }
+        } while (page.size() == chunkSize);
+    }
+
+    /** Série já importada (ou pendente no chunk atual), para ligar RECURRENCE-IDs. */
+    private record Series(UUID scheduleId, ZoneId zone, int durationSeconds) {
+    }
+
+    // Um VEVENT com RECURRENCE-ID: override, ou EXDATE se a instância foi cancelada
+    private static void addInstance(ImportBatch batch, int index, Series ref, IcsEvent event) {
+        try {
+            if (IcsEventMapper.isCancelled(event)) {
+                batch.addChild(index, ref.scheduleId(), ScheduleExdate.builder()
+                        .id(UUID.randomUUID())
+                        .exdateLocal(IcsEventMapper.recurrenceIdLocal(event, ref.zone()))
+                        .build());
+            } else {
+                batch.addChild(index, ref.scheduleId(),
+                        toOverride(IcsEventMapper.toOverrideRequest(event, ref.zone()), ref.durationSeconds()));
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            batch.reject(index, e.getMessage());
+        }
+    }
+
+    /**
+     * Validates the request against the table constraints and maps it to a new
+     * schedule with client-side ids. Children repeated on the same local date-time are
+     * collapsed (the last one wins), as the unique indexes would reject them.
+     */
+    static Schedule toSchedule(ScheduleRequest req) {
+        JsonNode rrule = required(req.getRrule(), "rrule");
+        String freq = rrule.path("freq").asText("").toUpperCase();
+        if (!FREQUENCIES.contains(freq)) {
+            throw new IllegalArgumentException("Unsupported rrule freq: " + rrule.path("freq").asText(null));
+        }
+        ZoneId zone = ZoneId.of(required(req.getTzid(), "tzid"));
+        LocalDateTime startLocal = required(req.getSeriesStartLocal(), "seriesStartLocal");
+        int duration = positive(required(req.getDurationSeconds(), "durationSeconds"), "durationSeconds");
+
+        Schedule s = Schedule.builder()
+                .id(UUID.randomUUID())
+                .rruleJson(rrule)
+                .tzid(req.getTzid())
+                .seriesStartLocal(startLocal)
+                .seriesStartUtc(Optional.ofNullable(req.getSeriesStartUtc())
+                        .orElseGet(() -> startLocal.atZone(zone).toOffsetDateTime()))
+                .seriesUntilUtc(req.getSeriesUntilUtc())
+                .durationSeconds(duration)
+                .summary(req.getSummary())
+                .notes(req.getNotes())
+                .build();
+        if (s.getSeriesUntilUtc() != null && !s.getSeriesUntilUtc().isAfter(s.getSeriesStartUtc())) {
+            throw new IllegalArgumentException("seriesUntilUtc must be after seriesStartUtc");
+        }
+
+        Map<LocalDateTime, ScheduleExdate> exdates = new LinkedHashMap<>();
+        for (ScheduleExdateRequest e : Optional.ofNullable(req.getExdates()).orElseGet(List::of)) {
+            LocalDateTime ldt = required(e.getExdateLocal(), "exdateLocal");
+            exdates.put(ldt, ScheduleExdate.builder().id(UUID.randomUUID()).exdateLocal(ldt).build());
+        }
+        Map<LocalDateTime, ScheduleRdate> rdates = new LinkedHashMap<>();
+        for (ScheduleRdateRequest r : Optional.ofNullable(req.getRdates()).orElseGet(List::of)) {
+            LocalDateTime ldt = required(r.getRdateLocal(), "rdateLocal");
+            rdates.put(ldt, ScheduleRdate.builder()
+                    .id(UUID.randomUUID())
+                    .rdateLocal(ldt)
+                    .durationSeconds(positive(Optional.ofNullable(r.getDurationSeconds()).orElse(duration),
+                            "rdate durationSeconds"))
+                    .build());
+        }
+        Map<LocalDateTime, ScheduleOverride> overrides = new LinkedHashMap<>();
+        for (ScheduleOverrideRequest ov : Optional.ofNullable(req.getOverrides()).orElseGet(List::of)) {
+            ScheduleOverride o = toOverride(ov, duration);
+            overrides.put(o.getRecurrenceIdLocal(), o);
+        }
+        exdates.values().forEach(s::addExdate);
+        rdates.values().forEach(s::addRdate);
+        overrides.values().forEach(s::addOverride);
+        s.setHasExdates(!exdates.isEmpty());
+        s.setHasRdates(!rdates.isEmpty());
+        s.setHasOverrides(!overrides.isEmpty());
+        return s;
+    }
+
+    static ScheduleOverride toOverride(ScheduleOverrideRequest ov, int seriesDurationSeconds) {
+        return ScheduleOverride.builder()
+                .id(UUID.randomUUID())
+                .recurrenceIdLocal(required(ov.getRecurrenceIdLocal(), "recurrenceIdLocal"))
+                .newStartLocal(required(ov.getNewStartLocal(), "newStartLocal"))
+                .newDurationSeconds(positive(
+                        Optional.ofNullable(ov.getNewDurationSeconds()).orElse(seriesDurationSeconds),
+                        "newDurationSeconds"))
+                .summary(ov.getSummary())
+                .notes(ov.getNotes())
+                .build();
+    }
+
+    private static <T> T required(T value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value;
+    }
+
+    private static int positive(int value, String field) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(field + " must be > 0");
+        }
+        return value;
+    }
+
+    /**
+     * Accumulates items and writes them chunk by chunk, tracking their positions in the
+     * input. Children of a schedule still pending ride along with it; children of an
+     * already written schedule are written as items of their own.
+     */
+    private final class ImportBatch {
+
+        private record Item(int index, Object entity) {
+        }
+
+        private final UUID importId; // null fora do import .ics
+        private final List<Item> pending = new ArrayList<>(chunkSize);
+        private final Map<UUID, Schedule> pendingSchedules = new HashMap<>();
+        private final Map<UUID, String> pendingUids = new HashMap<>();
+        private final Map<UUID, List<Integer>> riders = new HashMap<>(); // filhos embutidos em pendentes
+        private final List<ItemError> errors = new ArrayList<>();
+        private int next;
+        private int imported;
+
+        ImportBatch() {
+            this(null);
+        }
+
+        ImportBatch(UUID importId) {
+            this.importId = importId;
+        }
+
+        int claim() {
+            return next++;
+        }
+
+        void add(int index, Schedule s) {
+            add(index, s, null);
+        }
+
+        /** Adds a schedule; with a uid, its master reference is staged along with it. */
+        void add(int index, Schedule s, String uid) {
+            pendingSchedules.put(s.getId(), s);
+            if (uid != null) {
+                pendingUids.put(s.getId(), uid);
+            }
+            enqueue(new Item(index, s));
+        }
+
+        /** Stages a RECURRENCE-ID event whose master is not at hand; it is not counted as imported. */
+        void stage(StagedOrphan orphan) {
+            enqueue(new Item(orphan.index(), orphan));
+        }
+
+        /** Adds a ScheduleOverride or ScheduleExdate to the schedule with this id. */
+        void addChild(int index, UUID scheduleId, Object child) {
+            Schedule pendingSchedule = pendingSchedules.get(scheduleId);
+            if (pendingSchedule == null) {
+                Schedule ref = Schedule.builder().id(scheduleId).build();
+                if (child instanceof ScheduleOverride o) {
+                    o.setSchedule(ref);
+                } else {
+                    ((ScheduleExdate) child).setSchedule(ref);
+                }
+                enqueue(new Item(index, child));
+                return;
+            }
+            if (child instanceof ScheduleOverride o) {
+                pendingSchedule.getOverrides().removeIf(x -> x.getRecurrenceIdLocal().equals(o.getRecurrenceIdLocal()));
+                pendingSchedule.addOverride(o);
+                pendingSchedule.setHasOverrides(true);
+            } else {
+                ScheduleExdate e = (ScheduleExdate) child;
+                if (pendingSchedule.getExdates().stream().noneMatch(x -> x.getExdateLocal().equals(e.getExdateLocal()))) {
+                    pendingSchedule.addExdate(e);
+                }
+                pendingSchedule.setHasExdates(true);
+            }
+            riders.computeIfAbsent(scheduleId, k -> new ArrayList<>()).add(index);
+        }
+
+        void reject(int index, String message) {
+            errors.add(new ItemError(index, message));
+        }
+
+        ScheduleImportResponse finish() {
+            flush();
+            errors.sort(Comparator.comparingInt(ItemError::getIndex));
+            return new ScheduleImportResponse(imported, errors.size(), errors);
+        }
+
+        private void enqueue(Item item) {
+            pending.add(item);
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                write(pending);
+                pending.forEach(item -> imported += importedBy(item));
+            } catch (DataAccessException chunkFailure) {
+                // regrava item a item para saber quais linhas o banco recusa
+                for (Item item : pending) {
+                    try {
+                        write(List.of(item));
+                        imported += importedBy(item);
+                    } catch (DataAccessException e) {
+                        errors.add(new ItemError(item.index(),
+                                NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                        ridersOf(item).forEach(i -> errors.add(new ItemError(i, "Master item " + item.index()
+                                + " was not imported")));
+                    }
+                }
+            }
+            pending.clear();
+            pendingSchedules.clear();
+            pendingUids.clear();
+            riders.clear();
+        }
+
+        private int importedBy(Item item) {
+            return item.entity() instanceof StagedOrphan ? 0 : 1 + ridersOf(item).size();
+        }
+
+        private List<Integer> ridersOf(Item item) {
+            return item.entity() instanceof Schedule s ? riders.getOrDefault(s.getId(), List.of()) : List.of();
+        }
+
+        private void write(List<Item> items) {
+            List<Schedule> schedules = new ArrayList<>();
+            List<ScheduleOverride> overrides = new ArrayList<>();
+            List<ScheduleExdate> exdates = new ArrayList<>();
+            List<StagedSeries> series = new ArrayList<>();
+            List<StagedOrphan> orphans = new ArrayList<>();
+            Set<UUID> changed = new HashSet<>();
+            for (Item item : items) {
+                if (item.entity() instanceof Schedule s) {
+                    schedules.add(s);
+                    changed.add(s.getId());
+                    String uid = pendingUids.get(s.getId());
+                    if (uid != null) {
+                        series.add(new StagedSeries(uid, s.getId(), s.getTzid(), s.getDurationSeconds()));
+                    }
+                } else if (item.entity() instanceof StagedOrphan o) {
+                    orphans.add(o);
+                } else if (item.entity() instanceof ScheduleOverride o) {
+                    overrides.add(o);
+                    changed.add(o.getSchedule().getId());
+                } else {
+                    ScheduleExdate e = (ScheduleExdate) item.entity();
+                    exdates.add(e);
+                    changed.add(e.getSchedule().getId());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                scheduleJdbcRepository.insertAll(schedules);
+                scheduleJdbcRepository.upsertOverrides(overrides);
+                scheduleJdbcRepository.insertExdates(exdates);
+                // a referência ao mestre só existe se ele foi gravado
+                if (importId != null) {
+                    stagingRepository.insertSeries(importId, series);
+                    stagingRepository.insertOrphans(importId, orphans);
+                }
+                if (!changed.isEmpty()) {
+                    eventPublisher.publishEvent(ScheduleChangedEvent.of(changed));
+                }
+            });
+        }
+    }
+}
@@ -1,558 +1,1021 @@
-package br.com.honora.icalendar_vevent.service;
-
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.UUID;
-
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import com.fasterxml.jackson.databind.JsonNode;
-
-import br.com.honora.icalendar_vevent.domain.Schedule;
-import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
-import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
-import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
-import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
-import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
-import br.com.honora.icalendar_vevent.dto.request.ForceEndRequest;
-import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
-import br.com.honora.icalendar_vevent.dto.response.ScheduleResponse;
-import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
-import br.com.honora.icalendar_vevent.utils.DateUtils;
-import net.fortuna.ical4j.model.DateList;
-import net.fortuna.ical4j.model.DateTime;
-import net.fortuna.ical4j.model.Period;
-import net.fortuna.ical4j.model.Recur;
-import net.fortuna.ical4j.model.parameter.Value;
-
-@Service
-public class ScheduleService {
-
-    private final ScheduleRepository scheduleRepository;
-
-    public ScheduleService(ScheduleRepository scheduleRepository) {
-        this.scheduleRepository = scheduleRepository;
-    }
-
-    // ========= Mutations on existing schedule (without changing RRULE) =========
-    @Transactional
-    public void putExdate(UUID scheduleId, String exdateLocalStr) {
-        Schedule s = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-        Objects.requireNonNull(exdateLocalStr, "exdateLocal is required");
-        LocalDateTime ldt = LocalDateTime.parse(exdateLocalStr);
-        boolean exists = s.getExdates().stream().anyMatch(e -> e.getExdateLocal().equals(ldt));
-        if (!exists) {
-            s.addExdate(ScheduleExdate.builder().exdateLocal(ldt).build());
-        }
-        s.setHasExdates(true);
-        scheduleRepository.save(s);
-    }
-
-    @Transactional
-    public void deleteExdate(UUID scheduleId, String exdateLocalStr) {
-        Schedule s = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-        Objects.requireNonNull(exdateLocalStr, "exdateLocal is required");
-        LocalDateTime ldt = LocalDateTime.parse(exdateLocalStr);
-        s.getExdates().removeIf(e -> e.getExdateLocal().equals(ldt));
-        if (s.getExdates().isEmpty()) s.setHasExdates(false);
-        scheduleRepository.save(s);
-    }
-
-    @Transactional
-    public void putRdate(UUID scheduleId, String rdateLocalStr, Integer durationSeconds) {
-        Schedule s = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-        Objects.requireNonNull(rdateLocalStr, "rdateLocal is required");
-        LocalDateTime ldt = LocalDateTime.parse(rdateLocalStr);
-        Integer dur = Optional.ofNullable(durationSeconds).orElse(s.getDurationSeconds());
-        Optional<ScheduleRdate> existing = s.getRdates().stream().filter(r -> r.getRdateLocal().equals(ldt)).findFirst();
-        if (existing.isPresent()) {
-            existing.get().setDurationSeconds(dur);
-        } else {
-            s.addRdate(ScheduleRdate.builder().rdateLocal(ldt).durationSeconds(dur).build());
-        }
-        s.setHasRdates(true);
-        scheduleRepository.save(s);
-    }
-
-    @Transactional
-    public void deleteRdate(UUID scheduleId, String rdateLocalStr) {
-        Schedule s = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-        Objects.requireNonNull(rdateLocalStr, "rdateLocal is required");
-        LocalDateTime ldt = LocalDateTime.parse(rdateLocalStr);
-        s.getRdates().removeIf(r -> r.getRdateLocal().equals(ldt));
-        if (s.getRdates().isEmpty()) s.setHasRdates(false);
-        scheduleRepository.save(s);
-    }
-
-    @Transactional
-    public void putOverride(UUID scheduleId, String recurrenceIdLocalStr, ScheduleOverrideRequest req) {
-        Schedule s = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-        Objects.requireNonNull(recurrenceIdLocalStr, "recurrenceIdLocal is required");
-        Objects.requireNonNull(req.getNewStartLocal(), "newStartLocal is required");
-        LocalDateTime rid = LocalDateTime.parse(recurrenceIdLocalStr);
-        Integer dur = Optional.ofNullable(req.getNewDurationSeconds()).orElse(s.getDurationSeconds());
-        Optional<ScheduleOverride> existing = s.getOverrides().stream()
-                .filter(o -> o.getRecurrenceIdLocal().equals(rid)).findFirst();
-        if (existing.isPresent()) {
-            ScheduleOverride o = existing.get();
-            o.setNewStartLocal(req.getNewStartLocal());
-            o.setNewDurationSeconds(dur);
-            o.setSummary(req.getSummary());
-            o.setNotes(req.getNotes());
-        } else {
-            s.addOverride(ScheduleOverride.builder()
-                    .recurrenceIdLocal(rid)
-                    .newStartLocal(req.getNewStartLocal())
-                    .newDurationSeconds(dur)
-                    .summary(req.getSummary())
-                    .notes(req.getNotes())
-                    .build());
-        }
-        s.setHasOverrides(true);
-        scheduleRepository.save(s);
-    }
-
-    @Transactional
-    public void deleteOverride(UUID scheduleId, String recurrenceIdLocalStr) {
-        Schedule s = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-        Objects.requireNonNull(recurrenceIdLocalStr, "recurrenceIdLocal is required");
-        LocalDateTime rid = LocalDateTime.parse(recurrenceIdLocalStr);
-        s.getOverrides().removeIf(o -> o.getRecurrenceIdLocal().equals(rid));
-        if (s.getOverrides().isEmpty()) s.setHasOverrides(false);
-        scheduleRepository.save(s);
-    }
-
-    @Transactional
-    public void forceEnd(UUID scheduleId, ForceEndRequest req) {
-        Schedule s = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-        Objects.requireNonNull(req.getSeriesUntilUtc(), "seriesUntilUtc is required");
-        // Validation: cannot set until before series start utc
-        if (req.getSeriesUntilUtc().isBefore(s.getSeriesStartUtc())) {
-            throw new IllegalArgumentException("seriesUntilUtc cannot be before seriesStartUtc");
-        }
-        s.setSeriesUntilUtc(req.getSeriesUntilUtc());
-        scheduleRepository.save(s);
-    }
-
-    @Transactional
-    public Schedule create(ScheduleRequest req) {
-        Schedule s = Schedule.builder()
-                .rruleJson(req.getRrule())
-                .tzid(req.getTzid())
-                .seriesStartLocal(req.getSeriesStartLocal())
-                .seriesStartUtc(req.getSeriesStartUtc())
-                .seriesUntilUtc(req.getSeriesUntilUtc())
-                .durationSeconds(req.getDurationSeconds())
-                .summary(req.getSummary())
-                .notes(req.getNotes())
-                .hasExdates(req.getExdates() != null && !req.getExdates().isEmpty())
-                .hasRdates(req.getRdates() != null && !req.getRdates().isEmpty())
-                .hasOverrides(req.getOverrides() != null && !req.getOverrides().isEmpty())
-                .build();
-
-        // exdates
-        Optional.ofNullable(req.getExdates()).ifPresent(list -> list.forEach(ldt -> {
-            ScheduleExdate e = ScheduleExdate.builder()
-                    .exdateLocal(ldt.getExdateLocal())
-                    .build();
-            s.addExdate(e);
-        }));
-
-        // rdates: atribui duration igual à duração da série se não informado
-        // separadamente
-        Optional.ofNullable(req.getRdates()).ifPresent(list -> list.forEach(ldt -> {
-            ScheduleRdate r = ScheduleRdate.builder()
-                    .rdateLocal(ldt.getRdateLocal())
-                    .durationSeconds(Optional.ofNullable(ldt.getDurationSeconds()).orElse(s.getDurationSeconds()))
-                    .build();
-            s.addRdate(r);
-        }));
-
-        // overrides
-        Optional.ofNullable(req.getOverrides()).ifPresent(list -> list.forEach(ov -> {
-            ScheduleOverride o = ScheduleOverride.builder()
-                    .recurrenceIdLocal(ov.getRecurrenceIdLocal())
-                    .newStartLocal(ov.getNewStartLocal())
-                    .newDurationSeconds(Optional.ofNullable(ov.getNewDurationSeconds()).orElse(s.getDurationSeconds()))
-                    .summary(ov.getSummary())
-                    .notes(ov.getNotes())
-                    .build();
-            s.addOverride(o);
-        }));
-
-        return scheduleRepository.save(s);
-    }
-
-    // Lista todos os schedules
-    public List<ScheduleResponse> findAll() {
-        return scheduleRepository.findAll().stream().map(this::toResponse).collect(Collectors.toList());
-    }
-
-    private ScheduleResponse toResponse(Schedule s) {
-    return ScheduleResponse.builder()
-        .id(s.getId())
-        .rruleJson(s.getRruleJson())
-        .tzid(s.getTzid())
-        .seriesStartLocal(s.getSeriesStartLocal())
-        .seriesStartUtc(s.getSeriesStartUtc())
-        .seriesUntilUtc(s.getSeriesUntilUtc())
-        .durationSeconds(s.getDurationSeconds())
-        .summary(s.getSummary())
-        .notes(s.getNotes())
-        .hasExdates(s.isHasExdates())
-        .hasRdates(s.isHasRdates())
-        .hasOverrides(s.isHasOverrides())
-        .createdAt(s.getCreatedAt())
-        .updatedAt(s.getUpdatedAt())
-        .exdates(Optional.ofNullable(s.getExdates()).orElseGet(java.util.Set::of).stream()
-            .map(e -> br.com.honora.icalendar_vevent.dto.response.ScheduleExdateResponse.builder()
-                .id(e.getId())
-                .exdateLocal(e.getExdateLocal())
-                .build())
-            .collect(Collectors.toList()))
-        .rdates(Optional.ofNullable(s.getRdates()).orElseGet(java.util.Set::of).stream()
-            .map(r -> br.com.honora.icalendar_vevent.dto.response.ScheduleRdateResponse.builder()
-                .id(r.getId())
-                .rdateLocal(r.getRdateLocal())
-                .durationSeconds(r.getDurationSeconds())
-                .build())
-            .collect(Collectors.toList()))
-        .overrides(Optional.ofNullable(s.getOverrides()).orElseGet(java.util.Set::of).stream()
-            .map(o -> br.com.honora.icalendar_vevent.dto.response.ScheduleOverrideResponse.builder()
-                .id(o.getId())
-                .recurrenceIdLocal(o.getRecurrenceIdLocal())
-                .newStartLocal(o.getNewStartLocal())
-                .newDurationSeconds(o.getNewDurationSeconds())
-                .summary(o.getSummary())
-                .notes(o.getNotes())
-                .build())
-            .collect(Collectors.toList()))
-        .build();
-    }
-
-    // Exclui todos os schedules (batch)
-    @Transactional
-    public void deleteAll() {
-        // deleteAllInBatch evita carregar entidades na memória
-        scheduleRepository.deleteAllInBatch();
-    }
-
-    /**
-     * Retorna ocorrências entre from..to (ambos em UTC).
-     * - Usa filtros no banco para reduzir candidatos (janela da série, RDATEs e
-     * OVERRIDES no range)
-     * - Interpreta RRULE em JSON para gerar ocorrências
-     * - Remove EXDATEs para ocorrências RRULE/RDATE do mesmo schedule
-     * - Inclui RDATEs e OVERRIDES
-     */
-    @Transactional(readOnly = true)
-    public List<ScheduleOccurrenceResponse> findOccurrencesBetween(String fromStr, String toStr) {
-        OffsetDateTime from = DateUtils.parseFlexibleOffsetDateTime(fromStr);
-        OffsetDateTime to = DateUtils.parseFlexibleOffsetDateTime(toStr);
-        Objects.requireNonNull(from, "from is required");
-        Objects.requireNonNull(to, "to is required");
-
-        // Phase 1: pre-filter candidate schedules by overlapping series window, rdates,
-        // or overrides
-        List<Schedule> byWindow = scheduleRepository.findCandidatesBySeriesWindow(from, to);
-        List<Schedule> byRdates = scheduleRepository.findWithRdatesInRange(from, to);
-        List<Schedule> byOverrides = scheduleRepository.findWithOverridesInRange(from, to);
-
-        // Merge unique candidates
-        Map<java.util.UUID, Schedule> candidates = new java.util.LinkedHashMap<>();
-        for (Schedule s : byWindow)
-            candidates.put(s.getId(), s);
-        for (Schedule s : byRdates)
-            candidates.putIfAbsent(s.getId(), s);
-        for (Schedule s : byOverrides)
-            candidates.putIfAbsent(s.getId(), s);
-
-        List<ScheduleOccurrenceResponse> result = new ArrayList<>();
-
-        for (Schedule s : candidates.values()) {
-            ZoneId zoneId = ZoneId.of(s.getTzid());
-
-            // Collect EXDATEs (local) and Overrides keyed by recurrence id (local)
-            Set<LocalDateTime> exdatesLocal = s.getExdates().stream()
-                    .map(ScheduleExdate::getExdateLocal)
-                    .collect(Collectors.toSet());
-
-            Map<LocalDateTime, ScheduleOverride> overridesByRecurrence = s.getOverrides().stream()
-                    .collect(Collectors.toMap(ScheduleOverride::getRecurrenceIdLocal, o -> o, (a, b) -> a));
-
-            // Use a map to dedupe by UTC start per schedule
-            Map<OffsetDateTime, ScheduleOccurrenceResponse> occByStartUtc = new java.util.LinkedHashMap<>();
-
-            // 1) Generate RRULE occurrences within [from, to]
-            JsonNode rr = s.getRruleJson();
-            if (rr != null && rr.has("freq")) {
-                try {
-                    String rruleString = buildRruleFromJson(rr);
-                    Recur recur = new Recur(rruleString);
-
-                    DateTime seed = new DateTime(Date.from(s.getSeriesStartUtc().toInstant()));
-                    DateTime periodStart = new DateTime(Date.from(from.toInstant()));
-                    DateTime periodEnd = new DateTime(Date.from(to.toInstant()));
-                    Period period = new Period(periodStart, periodEnd);
-
-                    DateList dates = recur.getDates(seed, period.getStart(), period.getEnd(), Value.DATE_TIME);
-
-                    for (Object obj : dates) {
-                        DateTime dt = (DateTime) obj;
-                        OffsetDateTime occUtc = OffsetDateTime.ofInstant(dt.toInstant(), ZoneOffset.UTC);
-                        LocalDateTime occLocal = LocalDateTime.ofInstant(dt.toInstant(), zoneId);
-
-                        // Skip if overridden
-                        if (overridesByRecurrence.containsKey(occLocal)) {
-                            continue;
-                        }
-
-                        // Skip if EXDATE matches
-                        if (exdatesLocal.contains(occLocal)) {
-                            continue;
-                        }
-
-                        // Within [from, to] already ensured by generator; add occurrence
-                        ScheduleOccurrenceResponse resp = new ScheduleOccurrenceResponse(
-                                s.getId(),
-                                "SCHEDULE",
-                                occUtc,
-                                s.getDurationSeconds(),
-                                s.getSummary(),
-                                s.getNotes());
-                        occByStartUtc.putIfAbsent(resp.getStart(), resp);
-                    }
-                } catch (Exception ignore) {
-                    // If RRULE parsing fails, ignore RRULE occurrences for this schedule
-                }
-            }
-
-            // 2) Include RDATEs within [from, to] (convert from local using tzid)
-            for (ScheduleRdate r : s.getRdates()) {
-                LocalDateTime rLocal = r.getRdateLocal();
-                OffsetDateTime rUtc = rLocal.atZone(zoneId).toOffsetDateTime().withOffsetSameInstant(ZoneOffset.UTC);
-                if (rUtc.isBefore(from) || rUtc.isAfter(to)) {
-                    continue;
-                }
-                // Skip if EXDATE matches this local start
-                if (exdatesLocal.contains(rLocal)) {
-                    continue;
-                }
-                ScheduleOccurrenceResponse resp = new ScheduleOccurrenceResponse(
-                        s.getId(),
-                        "RDATE",
-                        rUtc,
-                        Optional.ofNullable(r.getDurationSeconds()).orElse(s.getDurationSeconds()),
-                        s.getSummary(),
-                        s.getNotes());
-                occByStartUtc.putIfAbsent(resp.getStart(), resp);
-            }
-
-            // 3) Include Overrides (new start) within [from, to]
-            for (ScheduleOverride o : s.getOverrides()) {
-                LocalDateTime newLocal = o.getNewStartLocal();
-                OffsetDateTime newUtc = newLocal.atZone(zoneId).toOffsetDateTime()
-                        .withOffsetSameInstant(ZoneOffset.UTC);
-                if (newUtc.isBefore(from) || newUtc.isAfter(to)) {
-                    continue;
-                }
-                // Overrides replace the base recurrence; EXDATE does not remove overrides.
-                ScheduleOccurrenceResponse resp = new ScheduleOccurrenceResponse(
-                        s.getId(),
-                        "OVERRIDE",
-                        newUtc,
-                        Optional.ofNullable(o.getNewDurationSeconds()).orElse(s.getDurationSeconds()),
-                        Optional.ofNullable(o.getSummary()).orElse(s.getSummary()),
-                        Optional.ofNullable(o.getNotes()).orElse(s.getNotes()));
-                // If an RRULE/RDATE occurrence is at the exact same UTC instant, override wins
-                occByStartUtc.put(resp.getStart(), resp);
-            }
-
-            // Collect this schedule's occurrences
-            result.addAll(occByStartUtc.values());
-        }
-
-        // Sort by start asc, then scheduleId
-        result.sort(Comparator
-                .comparing(ScheduleOccurrenceResponse::getStart)
-                .thenComparing(ScheduleOccurrenceResponse::getScheduleId));
-
-        return result;
-    }
-
-    // Helper: constrói string RRULE básica a partir do JSON armazenado
-    private String buildRruleFromJson(JsonNode rr) {
-        StringBuilder sb = new StringBuilder();
-        if (rr.has("freq")) {
-            sb.append("FREQ=").append(rr.get("freq").asText().toUpperCase());
-        }
-        if (rr.has("interval") && !rr.get("interval").isNull()) {
-            sb.append(";INTERVAL=").append(rr.get("interval").asInt());
-        }
-        if (rr.has("byday") && rr.get("byday").isArray()) {
-            List<String> days = new ArrayList<>();
-            rr.get("byday").forEach(node -> {
-                if (!node.isNull())
-                    days.add(node.asText());
-            });
-            if (!days.isEmpty())
-                sb.append(";BYDAY=").append(String.join(",", days));
-        }
-        if (rr.has("count") && !rr.get("count").isNull()) {
-            sb.append(";COUNT=").append(rr.get("count").asInt());
-        } else if (rr.has("until_utc") && !rr.get("until_utc").isNull()) {
-            String until = rr.get("until_utc").asText();
-            Instant inst = Instant.parse(until);
-            DateTimeFormatter f = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
-            sb.append(";UNTIL=").append(f.format(inst));
-        }
-        return sb.toString();
-    }
-
-    // ========================= ICS (iCalendar) =========================
-    private static final DateTimeFormatter ICS_ZULU = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
-            .withZone(ZoneOffset.UTC);
-    private static final DateTimeFormatter ICS_LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
-
-    @Transactional(readOnly = true)
-    public String buildIcsForSchedule(UUID scheduleId) {
-        Schedule s = scheduleRepository.findByIdWithChildren(scheduleId)
-                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
-
-        String uid = s.getId().toString() + "@icalendar-vevent"; // personalize se quiser
-        String dtStamp = ICS_ZULU.format(Instant.now());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("BEGIN:VCALENDAR\r\n");
-        sb.append("PRODID:-//UVIX//Agenda de Plantões//PT-BR\r\n");
-        sb.append("VERSION:2.0\r\n");
-        sb.append("CALSCALE:GREGORIAN\r\n");
-        sb.append("METHOD:PUBLISH\r\n\r\n");
-
-        // Base VEVENT (série)
-        sb.append("BEGIN:VEVENT\r\n");
-        sb.append("UID:").append(uid).append("\r\n");
-        sb.append("DTSTAMP:").append(dtStamp).append("\r\n");
-        if (s.getSummary() != null)
-            sb.append("SUMMARY:").append(escapeText(s.getSummary())).append("\r\n");
-        if (s.getNotes() != null)
-            sb.append("DESCRIPTION:").append(escapeText(s.getNotes())).append("\r\n");
-
-        // DTSTART local com TZID
-        String tzid = s.getTzid();
-        String dtStartLocal = ICS_LOCAL.format(s.getSeriesStartLocal());
-        sb.append("DTSTART;TZID=").append(tzid).append(":").append(dtStartLocal).append("\r\n");
-
-        // DURATION ISO-8601
-        sb.append("DURATION:").append(toISODuration(s.getDurationSeconds())).append("\r\n");
-
-        // RRULE a partir do JSON
-        JsonNode rr = s.getRruleJson();
-        if (rr != null && rr.has("freq")) {
-            String rruleString = buildRruleFromJson(rr);
-            if (!rruleString.isBlank()) {
-                sb.append("RRULE:").append(rruleString).append("\r\n");
-            }
-        }
-
-        // EXDATE (em linhas, podendo agrupar por TZID igual ao DTSTART)
-        if (s.isHasExdates() && s.getExdates() != null && !s.getExdates().isEmpty()) {
-            String exdates = s.getExdates().stream()
-                    .map(ScheduleExdate::getExdateLocal)
-                    .sorted()
-                    .map(ldt -> ICS_LOCAL.format(ldt))
-                    .collect(Collectors.joining(","));
-            if (!exdates.isBlank()) {
-                sb.append("EXDATE;TZID=").append(tzid).append(":").append(exdates).append("\r\n");
-            }
-        }
-
-        // RDATEs agregados no evento mestre
-        if (s.isHasRdates() && s.getRdates() != null && !s.getRdates().isEmpty()) {
-            String rdates = s.getRdates().stream()
-                    .map(ScheduleRdate::getRdateLocal)
-                    .sorted()
-                    .map(ldt -> ICS_LOCAL.format(ldt))
-                    .collect(Collectors.joining(","));
-            if (!rdates.isBlank()) {
-                sb.append("RDATE;TZID=").append(tzid).append(":").append(rdates).append("\r\n");
-            }
-        }
-
-        sb.append("END:VEVENT\r\n\r\n");
-
-        // Overrides – um VEVENT por override com RECURRENCE-ID
-        if (s.isHasOverrides() && s.getOverrides() != null) {
-            for (ScheduleOverride o : s.getOverrides()) {
-                sb.append("BEGIN:VEVENT\r\n");
-                sb.append("UID:").append(uid).append("\r\n");
-                sb.append("DTSTAMP:").append(dtStamp).append("\r\n");
-                sb.append("RECURRENCE-ID;TZID=").append(tzid).append(":")
-                        .append(ICS_LOCAL.format(o.getRecurrenceIdLocal())).append("\r\n");
-                if (o.getSummary() != null)
-                    sb.append("SUMMARY:").append(escapeText(o.getSummary())).append("\r\n");
-                if (o.getNotes() != null)
-                    sb.append("DESCRIPTION:").append(escapeText(o.getNotes())).append("\r\n");
-                sb.append("DTSTART;TZID=").append(tzid).append(":").append(ICS_LOCAL.format(o.getNewStartLocal()))
-                        .append("\r\n");
-                sb.append("DURATION:").append(toISODuration(
-                        Optional.ofNullable(o.getNewDurationSeconds()).orElse(s.getDurationSeconds())))
-                        .append("\r\n");
-                sb.append("END:VEVENT\r\n\r\n");
-            }
-        }
-
-    // (Sem VEVENTs separados para RDATE; usamos RDATE no mestre.)
-
-        sb.append("END:VCALENDAR\r\n");
-        return sb.toString();
-    }
-
-    private static String toISODuration(Integer seconds) {
-        if (seconds == null || seconds <= 0)
-            return "PT0S";
-        long s = seconds;
-        long h = s / 3600;
-        s %= 3600;
-        long m = s / 60;
-        s %= 60;
-        StringBuilder b = new StringBuilder("PT");
-        if (h > 0)
-            b.append(h).append('H');
-        if (m > 0)
-            b.append(m).append('M');
-        if (s > 0 || (h == 0 && m == 0))
-            b.append(s).append('S');
-        return b.toString();
-    }
-
-    // Escapa texto conforme RFC5545 (vírgula, ponto e vírgula, barra invertida, quebras)
-    private static String escapeText(String text) {
-        return text.replace("\\", "\\\\")
-                .replace(";", "\\;")
-                .replace(",", "\\,")
-                .replace("\r\n", "\\n")
-                .replace("\n", "\\n");
-    }
-}
\ No newline at end of file
+package br.com.honora.icalendar_vevent.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleChildBatchRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ForceEndRequest;
+import br.com.honora.icalendar_vevent.dto.response.ConflictReportResponse;
+import br.com.honora.icalendar_vevent.dto.response.FreeBusyResponse;
+import br.com.honora.icalendar_vevent.dto.response.OccurrenceHistogramResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrencePageResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.dto.response.SchedulePageResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleResponse;
+import br.com.honora.icalendar_vevent.ics.IcsWriter;
+import br.com.honora.icalendar_vevent.repository.ScheduleJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleListingJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleNextOccurrenceJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleNextOccurrenceJdbcRepository.NextOccurrence;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import br.com.honora.icalendar_vevent.utils.DateUtils;
+import jakarta.persistence.EntityManager;
+
+@Service
+public class ScheduleService {
+
+    // ocorrências do stream geradas entre duas medições de tempo (e escritas depois)
+    private static final int STREAM_BATCH_SIZE = 256;
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleJdbcRepository scheduleJdbcRepository;
+    private final ScheduleListingJdbcRepository scheduleListingRepository;
+    private final RecurrenceCache recurrenceCache;
+    private final OccurrenceExpander occurrenceExpander;
+    private final OccurrenceMaterializer occurrenceMaterializer;
+    private final CandidateIndex candidateIndex;
+    private final NextOccurrenceTracker nextOccurrenceTracker;
+    private final ScheduleNextOccurrenceJdbcRepository nextOccurrenceRepository;
+    private final ParallelOccurrenceExpansion parallelExpansion;
+    private final OccurrenceMetrics occurrenceMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration streamSlice;
+    private final int maxPageSize;
+    private final int maxListPageSize;
+    private final int maxConflictPairs;
+    private final int maxHistogramBuckets;
+
+    public ScheduleService(ScheduleRepository scheduleRepository, ScheduleJdbcRepository scheduleJdbcRepository,
+            ScheduleListingJdbcRepository scheduleListingRepository, RecurrenceCache recurrenceCache,
+            OccurrenceExpander occurrenceExpander, OccurrenceMaterializer occurrenceMaterializer,
+            CandidateIndex candidateIndex, NextOccurrenceTracker nextOccurrenceTracker,
+            ScheduleNextOccurrenceJdbcRepository nextOccurrenceRepository,
+            ParallelOccurrenceExpansion parallelExpansion, OccurrenceMetrics occurrenceMetrics,
+            ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            @Value("${schedule.occurrences.stream-slice:7d}") Duration streamSlice,
+            @Value("${schedule.occurrences.max-page-size:5000}") int maxPageSize,
+            @Value("${schedule.list.max-page-size:1000}") int maxListPageSize,
+            @Value("${schedule.conflicts.max-pairs:10000}") int maxConflictPairs,
+            @Value("${schedule.histogram.max-buckets:10000}") int maxHistogramBuckets) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleJdbcRepository = scheduleJdbcRepository;
+        this.scheduleListingRepository = scheduleListingRepository;
+        this.recurrenceCache = recurrenceCache;
+        this.occurrenceExpander = occurrenceExpander;
+        this.occurrenceMaterializer = occurrenceMaterializer;
+        this.candidateIndex = candidateIndex;
+        this.nextOccurrenceTracker = nextOccurrenceTracker;
+        this.nextOccurrenceRepository = nextOccurrenceRepository;
+        this.parallelExpansion = parallelExpansion;
+        this.occurrenceMetrics = occurrenceMetrics;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        if (streamSlice.isNegative() || streamSlice.isZero()) {
+            throw new IllegalArgumentException("schedule.occurrences.stream-slice must be positive");
+        }
+        // cada fatia do stream lê o banco na sua transação (ou na do chamador, se houver)
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.streamSlice = streamSlice;
+        this.maxPageSize = maxPageSize;
+        this.maxListPageSize = maxListPageSize;
+        this.maxConflictPairs = maxConflictPairs;
+        this.maxHistogramBuckets = maxHistogramBuckets;
+    }
+
+    // ========= Mutations on existing schedule (without changing RRULE) =========
+    // Cada mutação é um lote de um item (ver applyChildBatch): INSERT ... ON CONFLICT
+    // ou DELETE pela chave única e a atualização das flags, sem carregar os filhos, então
+    // o custo não depende de quantos EXDATEs/RDATEs/OVERRIDES o schedule tem.
+    @Transactional
+    public void putExdate(UUID scheduleId, String exdateLocalStr) {
+        Objects.requireNonNull(exdateLocalStr, "exdateLocal is required");
+        LocalDateTime ldt = LocalDateTime.parse(exdateLocalStr);
+        applyChildBatch(scheduleId, ScheduleChildBatchRequest.builder()
+                .exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(ldt).build()))
+                .build());
+    }
+
+    @Transactional
+    public void deleteExdate(UUID scheduleId, String exdateLocalStr) {
+        Objects.requireNonNull(exdateLocalStr, "exdateLocal is required");
+        LocalDateTime ldt = LocalDateTime.parse(exdateLocalStr);
+        applyChildBatch(scheduleId, ScheduleChildBatchRequest.builder()
+                .removeExdates(List.of(ldt))
+                .build());
+    }
+
+    @Transactional
+    public void putRdate(UUID scheduleId, String rdateLocalStr, Integer durationSeconds) {
+        Objects.requireNonNull(rdateLocalStr, "rdateLocal is required");
+        LocalDateTime ldt = LocalDateTime.parse(rdateLocalStr);
+        // duração nula: a do schedule, resolvida no próprio INSERT
+        applyChildBatch(scheduleId, ScheduleChildBatchRequest.builder()
+                .rdates(List.of(ScheduleRdateRequest.builder().rdateLocal(ldt).durationSeconds(durationSeconds).build()))
+                .build());
+    }
+
+    @Transactional
+    public void deleteRdate(UUID scheduleId, String rdateLocalStr) {
+        Objects.requireNonNull(rdateLocalStr, "rdateLocal is required");
+        LocalDateTime ldt = LocalDateTime.parse(rdateLocalStr);
+        applyChildBatch(scheduleId, ScheduleChildBatchRequest.builder()
+                .removeRdates(List.of(ldt))
+                .build());
+    }
+
+    @Transactional
+    public void putOverride(UUID scheduleId, String recurrenceIdLocalStr, ScheduleOverrideRequest req) {
+        Objects.requireNonNull(recurrenceIdLocalStr, "recurrenceIdLocal is required");
+        Objects.requireNonNull(req.getNewStartLocal(), "newStartLocal is required");
+        LocalDateTime rid = LocalDateTime.parse(recurrenceIdLocalStr);
+        applyChildBatch(scheduleId, ScheduleChildBatchRequest.builder()
+                .overrides(List.of(ScheduleOverrideRequest.builder()
+                        .recurrenceIdLocal(rid)
+                        .newStartLocal(req.getNewStartLocal())
+                        .newDurationSeconds(req.getNewDurationSeconds())
+                        .summary(req.getSummary())
+                        .notes(req.getNotes())
+                        .build()))
+                .build());
+    }
+
+    @Transactional
+    public void deleteOverride(UUID scheduleId, String recurrenceIdLocalStr) {
+        Objects.requireNonNull(recurrenceIdLocalStr, "recurrenceIdLocal is required");
+        LocalDateTime rid = LocalDateTime.parse(recurrenceIdLocalStr);
+        applyChildBatch(scheduleId, ScheduleChildBatchRequest.builder()
+                .removeOverrides(List.of(rid))
+                .build());
+    }
+
+    @Transactional
+    public void forceEnd(UUID scheduleId, ForceEndRequest req) {
+        Schedule s = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
+        Objects.requireNonNull(req.getSeriesUntilUtc(), "seriesUntilUtc is required");
+        // Validation: cannot set until before series start utc
+        if (req.getSeriesUntilUtc().isBefore(s.getSeriesStartUtc())) {
+            throw new IllegalArgumentException("seriesUntilUtc cannot be before seriesStartUtc");
+        }
+        s.setSeriesUntilUtc(req.getSeriesUntilUtc());
+        scheduleRepository.save(s);
+        eventPublisher.publishEvent(ScheduleChangedEvent.of(scheduleId));
+    }
+
+    // ========= Lotes de EXDATE/RDATE/OVERRIDE (SQL por conjunto) =========
+
+    /** Applies a batch of child changes to one schedule; a scheduleId in the body is ignored. */
+    @Transactional
+    public void applyChildBatch(UUID scheduleId, ScheduleChildBatchRequest req) {
+        ChildChanges changes = new ChildChanges();
+        changes.add(scheduleId, req);
+        apply(changes);
+    }
+
+    /**
+     * Applies batches of child changes to several schedules in one transaction: the
+     * schedules are locked and every change goes out as one statement per table and
+     * operation, whatever the number of items. Unknown schedules reject the whole batch.
+     */
+    @Transactional
+    public void applyChildBatches(List<ScheduleChildBatchRequest> reqs) {
+        ChildChanges changes = new ChildChanges();
+        for (ScheduleChildBatchRequest req : reqs) {
+            if (req.getScheduleId() == null) {
+                throw new IllegalArgumentException("scheduleId is required");
+            }
+            changes.add(req.getScheduleId(), req);
+        }
+        apply(changes);
+    }
+
+    private void apply(ChildChanges changes) {
+        if (changes.scheduleIds.isEmpty()) {
+            return;
+        }
+        Set<UUID> found = scheduleJdbcRepository.lockSchedules(changes.scheduleIds);
+        for (UUID id : changes.scheduleIds) {
+            if (!found.contains(id)) {
+                throw new IllegalArgumentException("Schedule not found: " + id);
+            }
+        }
+        scheduleJdbcRepository.deleteExdates(changes.removedExdates.values());
+        scheduleJdbcRepository.deleteRdates(changes.removedRdates.values());
+        scheduleJdbcRepository.deleteOverrides(changes.removedOverrides.values());
+        scheduleJdbcRepository.mergeExdates(changes.exdates.values());
+        scheduleJdbcRepository.mergeRdates(changes.rdates.values());
+        scheduleJdbcRepository.mergeOverrides(changes.overrides.values());
+        scheduleJdbcRepository.refreshChildFlags(changes.scheduleIds);
+        eventPublisher.publishEvent(ScheduleChangedEvent.of(changes.scheduleIds));
+    }
+
+    // Filhos por (schedule, data/hora local): a mesma chave repetida no lote vale uma vez (a última)
+    private static final class ChildChanges {
+        private record Key(UUID scheduleId, LocalDateTime local) {
+        }
+
+        private final Set<UUID> scheduleIds = new LinkedHashSet<>();
+        private final Map<Key, ScheduleExdate> exdates = new LinkedHashMap<>();
+        private final Map<Key, ScheduleExdate> removedExdates = new LinkedHashMap<>();
+        private final Map<Key, ScheduleRdate> rdates = new LinkedHashMap<>();
+        private final Map<Key, ScheduleRdate> removedRdates = new LinkedHashMap<>();
+        private final Map<Key, ScheduleOverride> overrides = new LinkedHashMap<>();
+        private final Map<Key, ScheduleOverride> removedOverrides = new LinkedHashMap<>();
+
+        void add(UUID scheduleId, ScheduleChildBatchRequest req) {
+            scheduleIds.add(scheduleId);
+            // só o id é usado nas escritas por JDBC
+            Schedule s = Schedule.builder().id(scheduleId).build();
+            for (ScheduleExdateRequest e : Optional.ofNullable(req.getExdates()).orElseGet(List::of)) {
+                LocalDateTime ldt = Objects.requireNonNull(e.getExdateLocal(), "exdateLocal is required");
+                exdates.put(new Key(scheduleId, ldt), ScheduleExdate.builder().exdateLocal(ldt).schedule(s).build());
+            }
+            for (LocalDateTime ldt : Optional.ofNullable(req.getRemoveExdates()).orElseGet(List::of)) {
+                Objects.requireNonNull(ldt, "exdateLocal is required");
+                removedExdates.put(new Key(scheduleId, ldt),
+                        ScheduleExdate.builder().exdateLocal(ldt).schedule(s).build());
+            }
+            for (ScheduleRdateRequest r : Optional.ofNullable(req.getRdates()).orElseGet(List::of)) {
+                LocalDateTime ldt = Objects.requireNonNull(r.getRdateLocal(), "rdateLocal is required");
+                rdates.put(new Key(scheduleId, ldt), ScheduleRdate.builder().rdateLocal(ldt)
+                        .durationSeconds(r.getDurationSeconds()).schedule(s).build());
+            }
+            for (LocalDateTime ldt : Optional.ofNullable(req.getRemoveRdates()).orElseGet(List::of)) {
+                Objects.requireNonNull(ldt, "rdateLocal is required");
+                removedRdates.put(new Key(scheduleId, ldt), ScheduleRdate.builder().rdateLocal(ldt).schedule(s).build());
+            }
+            for (ScheduleOverrideRequest o : Optional.ofNullable(req.getOverrides()).orElseGet(List::of)) {
+                LocalDateTime rid = Objects.requireNonNull(o.getRecurrenceIdLocal(), "recurrenceIdLocal is required");
+                Objects.requireNonNull(o.getNewStartLocal(), "newStartLocal is required");
+                overrides.put(new Key(scheduleId, rid), ScheduleOverride.builder()
+                        .recurrenceIdLocal(rid)
+                        .newStartLocal(o.getNewStartLocal())
+                        .newDurationSeconds(o.getNewDurationSeconds())
+                        .summary(o.getSummary())
+                        .notes(o.getNotes())
+                        .schedule(s)
+                        .build());
+            }
+            for (LocalDateTime rid : Optional.ofNullable(req.getRemoveOverrides()).orElseGet(List::of)) {
+                Objects.requireNonNull(rid, "recurrenceIdLocal is required");
+                removedOverrides.put(new Key(scheduleId, rid),
+                        ScheduleOverride.builder().recurrenceIdLocal(rid).schedule(s).build());
+            }
+        }
+    }
+
+    @Transactional
+    public Schedule create(ScheduleRequest req) {
+        Schedule s = Schedule.builder()
+                .rruleJson(req.getRrule())
+                .tzid(req.getTzid())
+                .seriesStartLocal(req.getSeriesStartLocal())
+                .seriesStartUtc(req.getSeriesStartUtc())
+                .seriesUntilUtc(req.getSeriesUntilUtc())
+                .durationSeconds(req.getDurationSeconds())
+                .summary(req.getSummary())
+                .notes(req.getNotes())
+                .hasExdates(req.getExdates() != null && !req.getExdates().isEmpty())
+                .hasRdates(req.getRdates() != null && !req.getRdates().isEmpty())
+                .hasOverrides(req.getOverrides() != null && !req.getOverrides().isEmpty())
+                .build();
+
+        // exdates
+        Optional.ofNullable(req.getExdates()).ifPresent(list -> list.forEach(ldt -> {
+            ScheduleExdate e = ScheduleExdate.builder()
+                    .exdateLocal(ldt.getExdateLocal())
+                    .build();
+            s.addExdate(e);
+        }));
+
+        // rdates: atribui duration igual à duração da série se não informado
+        // separadamente
+        Optional.ofNullable(req.getRdates()).ifPresent(list -> list.forEach(ldt -> {
+            ScheduleRdate r = ScheduleRdate.builder()
+                    .rdateLocal(ldt.getRdateLocal())
+                    .durationSeconds(Optional.ofNullable(ldt.getDurationSeconds()).orElse(s.getDurationSeconds()))
+                    .build();
+            s.addRdate(r);
+        }));
+
+        // overrides
+        Optional.ofNullable(req.getOverrides()).ifPresent(list -> list.forEach(ov -> {
+            ScheduleOverride o = ScheduleOverride.builder()
+                    .recurrenceIdLocal(ov.getRecurrenceIdLocal())
+                    .newStartLocal(ov.getNewStartLocal())
+                    .newDurationSeconds(Optional.ofNullable(ov.getNewDurationSeconds()).orElse(s.getDurationSeconds()))
+                    .summary(ov.getSummary())
+                    .notes(ov.getNotes())
+                    .build();
+            s.addOverride(o);
+        }));
+
+        Schedule saved = scheduleRepository.save(s);
+        eventPublisher.publishEvent(ScheduleChangedEvent.of(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Every schedule in id order, read page by page as DTOs (no managed entities);
+     * without children the exdates/rdates/overrides lists are left null.
+     */
+    @Transactional(readOnly = true)
+    public List<ScheduleResponse> findAll(boolean includeChildren) {
+        List<ScheduleResponse> result = new ArrayList<>();
+        List<ScheduleResponse> page;
+        UUID after = null;
+        do {
+            page = scheduleListingRepository.findPageAfter(after, maxListPageSize);
+            if (includeChildren) {
+                scheduleListingRepository.loadChildren(page);
+            }
+            result.addAll(page);
+            after = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == maxListPageSize);
+        return result;
+    }
+
+    /**
+     * One page of schedules in id order (keyset on the primary key); the cursor is the
+     * id of the last schedule returned. Children are loaded for this page only.
+     */
+    @Transactional(readOnly = true)
+    public SchedulePageResponse findPage(int limit, String cursor, boolean includeChildren) {
+        if (limit < 1 || limit > maxListPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxListPageSize);
+        }
+        UUID after = cursor == null || cursor.isBlank() ? null : UUID.fromString(cursor);
+        // uma linha a mais indica se há próxima página
+        List<ScheduleResponse> items = scheduleListingRepository.findPageAfter(after, limit + 1);
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items = items.subList(0, limit);
+        }
+        if (includeChildren) {
+            scheduleListingRepository.loadChildren(items);
+        }
+        String nextCursor = hasMore ? items.get(items.size() - 1).getId().toString() : null;
+        return new SchedulePageResponse(items, nextCursor);
+    }
+
+    private ScheduleResponse toResponse(Schedule s) {
+    return ScheduleResponse.builder()
+        .id(s.getId())
+        .rruleJson(s.getRruleJson())
+        .tzid(s.getTzid())
+        .seriesStartLocal(s.getSeriesStartLocal())
+        .seriesStartUtc(s.getSeriesStartUtc())
+        .seriesUntilUtc(s.getSeriesUntilUtc())
+        .durationSeconds(s.getDurationSeconds())
+        .summary(s.getSummary())
+        .notes(s.getNotes())
+        .hasExdates(s.isHasExdates())
+        .hasRdates(s.isHasRdates())
+        .hasOverrides(s.isHasOverrides())
+        .createdAt(s.getCreatedAt())
+        .updatedAt(s.getUpdatedAt())
+        .exdates(Optional.ofNullable(s.getExdates()).orElseGet(java.util.Set::of).stream()
+            .map(e -> br.com.honora.icalendar_vevent.dto.response.ScheduleExdateResponse.builder()
+                .id(e.getId())
+                .exdateLocal(e.getExdateLocal())
+                .build())
+            .collect(Collectors.toList()))
+        .rdates(Optional.ofNullable(s.getRdates()).orElseGet(java.util.Set::of).stream()
+            .map(r -> br.com.honora.icalendar_vevent.dto.response.ScheduleRdateResponse.builder()
+                .id(r.getId())
+                .rdateLocal(r.getRdateLocal())
+                .durationSeconds(r.getDurationSeconds())
+                .build())
+            .collect(Collectors.toList()))
+        .overrides(Optional.ofNullable(s.getOverrides()).orElseGet(java.util.Set::of).stream()
+            .map(o -> br.com.honora.icalendar_vevent.dto.response.ScheduleOverrideResponse.builder()
+                .id(o.getId())
+                .recurrenceIdLocal(o.getRecurrenceIdLocal())
+                .newStartLocal(o.getNewStartLocal())
+                .newDurationSeconds(o.getNewDurationSeconds())
+                .summary(o.getSummary())
+                .notes(o.getNotes())
+                .build())
+            .collect(Collectors.toList()))
+        .build();
+    }
+
+    // Exclui todos os schedules (batch)
+    @Transactional
+    public void deleteAll() {
+        // deleteAllInBatch evita carregar entidades na memória
+        scheduleRepository.deleteAllInBatch();
+        eventPublisher.publishEvent(ScheduleChangedEvent.ofAllSchedules());
+    }
+
+    /**
+     * Retorna ocorrências entre from..to (ambos em UTC).
+     * - Usa filtros no banco, ou o {@link CandidateIndex} em memória quando ligado,
+     * para reduzir candidatos (janela da série, RDATEs e OVERRIDES no range)
+     * - Interpreta RRULE em JSON para gerar ocorrências
+     * - Remove EXDATEs para ocorrências RRULE/RDATE do mesmo schedule
+     * - Inclui RDATEs e OVERRIDES
+     */
+    @Transactional(readOnly = true)
+    public List<ScheduleOccurrenceResponse> findOccurrencesBetween(String fromStr, String toStr) {
+        List<ScheduleOccurrenceResponse> result = new ArrayList<>();
+        forEachOccurrenceBetween(fromStr, toStr, null, result::add); // a lista inteira fica na memória de qualquer jeito
+        return result;
+    }
+
+    /**
+     * Same occurrences as {@link #findOccurrencesBetween}, in the same order, handed
+     * to action as they are produced. The window is read in consecutive slices of
+     * schedule.occurrences.stream-slice: the candidates of each slice are looked up
+     * and hydrated in a short read-only transaction, then expanded lazily into sorted
+     * iterators and merged while action runs, outside of it. A long stream holds no
+     * connection while it writes and only one slice's schedules in memory.
+     */
+    public void streamOccurrencesBetween(String fromStr, String toStr, Consumer<ScheduleOccurrenceResponse> action) {
+        forEachOccurrenceBetween(fromStr, toStr, streamSlice, action);
+    }
+
+    // Janela inteira numa fatia só quando slice é null
+    private void forEachOccurrenceBetween(String fromStr, String toStr, Duration slice,
+            Consumer<ScheduleOccurrenceResponse> action) {
+        OffsetDateTime from = DateUtils.parseFlexibleOffsetDateTime(fromStr);
+        OffsetDateTime to = DateUtils.parseFlexibleOffsetDateTime(toStr);
+        Objects.requireNonNull(from, "from is required");
+        Objects.requireNonNull(to, "to is required");
+
+        long[] count = { 0 };
+        Consumer<ScheduleOccurrenceResponse> counting = o -> {
+            count[0]++;
+            action.accept(o);
+        };
+
+        OccurrenceMetrics.Expansion expansion = occurrenceMetrics.startExpansion();
+        boolean allMaterialized = true;
+        // fatias [sliceFrom, sliceEnd) em segundos inteiros, a última fechada em to
+        OffsetDateTime sliceFrom = from;
+        OffsetDateTime sliceEnd = slice != null ? from.truncatedTo(ChronoUnit.SECONDS).plus(slice) : to;
+        while (true) {
+            boolean last = !sliceEnd.isBefore(to);
+            allMaterialized &= forEachInSlice(sliceFrom, last ? to : sliceEnd, !last, expansion, counting);
+            if (last) {
+                break;
+            }
+            sliceFrom = sliceEnd;
+            sliceEnd = sliceEnd.plus(slice);
+        }
+        expansion.stop(allMaterialized, count[0]);
+    }
+
+    /**
+     * Passes the occurrences starting within [from, to] (or [from, to) when toExclusive)
+     * to action, in response order; true when they came from the materialized table.
+     */
+    private boolean forEachInSlice(OffsetDateTime from, OffsetDateTime to, boolean toExclusive,
+            OccurrenceMetrics.Expansion expansion, Consumer<ScheduleOccurrenceResponse> action) {
+        List<ScheduleOccurrenceResponse> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        // Janela dentro do horizonte materializado: um range scan em tb_soc, com cursor só durante a fatia
+        if (occurrenceMaterializer.covers(from, to)) {
+            expansion.time(() -> readOnlyTransaction.execute(status -> {
+                occurrenceMaterializer.forEachBetween(from, to, o -> {
+                    if (!toExclusive || o.getStart().isBefore(to)) {
+                        batch.add(o);
+                        if (batch.size() == STREAM_BATCH_SIZE) {
+                            expansion.excluding(() -> emit(batch, action)); // roda dentro da leitura
+                        }
+                    }
+                });
+                return null;
+            }));
+            emit(batch, action);
+            return true;
+        }
+
+        List<Schedule> candidates = readOnlyTransaction.execute(status -> hydrateCandidates(from, to));
+        try {
+            Iterator<ScheduleOccurrenceResponse> occurrences = expansion
+                    .time(() -> mergeExpansions(candidates, from, to, expansion));
+            boolean more;
+            do {
+                more = expansion.time(() -> fillBatch(occurrences, toExclusive ? to : null, batch));
+                emit(batch, action);
+            } while (more);
+        } finally {
+            entityManager.clear(); // com a sessão aberta na view, solta os schedules da fatia
+        }
+        return false;
+    }
+
+    /**
+     * Moves up to {@value #STREAM_BATCH_SIZE} occurrences into batch, stopping before
+     * the first one starting at endExclusive (when given); false once nothing is left.
+     */
+    private static boolean fillBatch(Iterator<ScheduleOccurrenceResponse> occurrences, OffsetDateTime endExclusive,
+            List<ScheduleOccurrenceResponse> batch) {
+        while (batch.size() < STREAM_BATCH_SIZE) {
+            if (!occurrences.hasNext()) {
+                return false;
+            }
+            ScheduleOccurrenceResponse o = occurrences.next();
+            if (endExclusive != null && !o.getStart().isBefore(endExclusive)) {
+                return false; // começa na próxima fatia
+            }
+            batch.add(o);
+        }
+        return true;
+    }
+
+    private static void emit(List<ScheduleOccurrenceResponse> batch, Consumer<ScheduleOccurrenceResponse> action) {
+        batch.forEach(action);
+        batch.clear();
+    }
+
+    /**
+     * One page of the occurrences between from..to: at most limit occurrences after
+     * the cursor returned by the previous page (null for the first one). Expansion
+     * starts at the cursor's instant and stops as soon as the page is full.
+     */
+    @Transactional(readOnly = true)
+    public ScheduleOccurrencePageResponse findOccurrencesPage(String fromStr, String toStr, int limit,
+            String cursor) {
+        OffsetDateTime from = DateUtils.parseFlexibleOffsetDateTime(fromStr);
+        OffsetDateTime to = DateUtils.parseFlexibleOffsetDateTime(toStr);
+        Objects.requireNonNull(from, "from is required");
+        Objects.requireNonNull(to, "to is required");
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        OccurrenceCursor after = cursor == null || cursor.isBlank() ? null : OccurrenceCursor.decode(cursor);
+        OffsetDateTime windowFrom = after != null && after.startUtc().isAfter(from) ? after.startUtc() : from;
+
+        // one extra row tells whether there is a next page
+        boolean materialized = occurrenceMaterializer.covers(windowFrom, to);
+        OccurrenceMetrics.Expansion expansion = occurrenceMetrics.startExpansion();
+        Iterator<ScheduleOccurrenceResponse> it;
+        if (materialized) {
+            it = expansion.time(() -> occurrenceMaterializer.findPageAfter(windowFrom, to, after, limit + 1))
+                    .iterator();
+        } else {
+            List<Schedule> candidates = hydrateCandidates(windowFrom, to);
+            it = expansion.time(() -> mergeExpansions(candidates, windowFrom, to, expansion));
+        }
+
+        List<ScheduleOccurrenceResponse> items = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<ScheduleOccurrenceResponse> occurrences = it;
+        boolean hasMore = expansion.time(() -> fillPage(occurrences, after, limit, items));
+        expansion.stop(materialized, items.size());
+        String nextCursor = hasMore ? OccurrenceCursor.after(items.get(items.size() - 1)).encode() : null;
+        return new ScheduleOccurrencePageResponse(items, nextCursor);
+    }
+
+    // Enche items até limit depois do cursor; true se ainda sobra ocorrência para a próxima página
+    private static boolean fillPage(Iterator<ScheduleOccurrenceResponse> it, OccurrenceCursor after, int limit,
+            List<ScheduleOccurrenceResponse> items) {
+        while (items.size() < limit && it.hasNext()) {
+            ScheduleOccurrenceResponse o = it.next();
+            // occurrences at the cursor's instant up to the cursor's schedule were already returned
+            if (after == null || after.precedes(o)) {
+                items.add(o);
+            }
+        }
+        while (it.hasNext()) {
+            ScheduleOccurrenceResponse o = it.next();
+            if (after == null || after.precedes(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The first limit occurrences of one schedule starting at or after after
+     * (default now), looked for up to schedule.next-occurrence.horizon ahead.
+     */
+    @Transactional(readOnly = true)
+    public List<ScheduleOccurrenceResponse> findNextOccurrences(UUID scheduleId, String afterStr, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        OffsetDateTime after = afterStr != null
+                ? DateUtils.parseFlexibleOffsetDateTime(afterStr)
+                : OffsetDateTime.now(ZoneOffset.UTC);
+        Schedule s = scheduleRepository.findByIdWithChildren(scheduleId)
+                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
+
+        List<ScheduleOccurrenceResponse> items = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<ScheduleOccurrenceResponse> it = occurrencesFrom(s, after);
+        while (items.size() < limit && it.hasNext()) {
+            items.add(it.next());
+        }
+        return items;
+    }
+
+    /**
+     * The first limit occurrences of all schedules starting at or after after
+     * (default now; earlier instants are raised to now), in response order, paged
+     * with the same cursor as /occurrences. Schedules are read in order of
+     * sch_next_occurrence_utc, a lower bound of their next occurrence, and merged in
+     * a heap: an occurrence is returned once it starts before the next unread bound,
+     * so only about limit + one batch of rows is read, however sparse or dense the
+     * series are.
+     */
+    @Transactional(readOnly = true)
+    public ScheduleOccurrencePageResponse findUpcoming(String afterStr, int limit, String cursor) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        // a coluna só é limite inferior a partir do instante em que foi calculada
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime after = afterStr != null ? DateUtils.parseFlexibleOffsetDateTime(afterStr) : now;
+        if (after.isBefore(now)) {
+            after = now;
+        }
+        OccurrenceCursor position = cursor == null || cursor.isBlank() ? null : OccurrenceCursor.decode(cursor);
+        if (position != null && position.startUtc().isAfter(after)) {
+            after = position.startUtc();
+        }
+        OffsetDateTime until = after.plus(nextOccurrenceTracker.getHorizon());
+        int batchSize = Math.min(limit + 1, ScheduleRepository.CHILD_FETCH_BATCH_SIZE);
+
+        MergedOccurrenceIterator merged = new MergedOccurrenceIterator(List.of());
+        List<NextOccurrence> unread = new ArrayList<>();
+        NextOccurrence lastRead = null;
+        boolean exhausted = false;
+        List<ScheduleOccurrenceResponse> items = new ArrayList<>(Math.min(limit, 1024));
+        boolean hasMore = false;
+        while (!hasMore) {
+            if (unread.isEmpty() && !exhausted) {
+                unread.addAll(nextOccurrenceRepository.findPageAfter(lastRead, until, batchSize));
+                exhausted = unread.size() < batchSize;
+                lastRead = unread.isEmpty() ? lastRead : unread.get(unread.size() - 1);
+            }
+            OffsetDateTime bound = unread.isEmpty() ? null : unread.get(0).nextOccurrenceUtc();
+            if (merged.hasNext() && (bound == null || merged.peek().getStart().isBefore(bound))) {
+                ScheduleOccurrenceResponse o = merged.next();
+                if (position == null || position.precedes(o)) {
+                    hasMore = items.size() == limit;
+                    if (!hasMore) {
+                        items.add(o);
+                    }
+                }
+            } else if (bound == null) {
+                break;
+            } else {
+                // nenhum schedule ainda não lido pode ter ocorrência antes de bound: lê o lote
+                List<UUID> ids = unread.stream().map(NextOccurrence::scheduleId).toList();
+                for (Schedule s : scheduleRepository.findAllWithChildrenByIdIn(ids)) {
+                    merged.add(occurrencesFrom(s, after, until));
+                }
+                unread.clear();
+            }
+        }
+        String nextCursor = hasMore ? OccurrenceCursor.after(items.get(items.size() - 1)).encode() : null;
+        return new ScheduleOccurrencePageResponse(items, nextCursor);
+    }
+
+    private Iterator<ScheduleOccurrenceResponse> occurrencesFrom(Schedule s, OffsetDateTime after) {
+        return occurrencesFrom(s, after, after.plus(nextOccurrenceTracker.getHorizon()));
+    }
+
+    // Ocorrências de s em [after, until]; a regra é expandida a partir do segundo inteiro de after
+    private Iterator<ScheduleOccurrenceResponse> occurrencesFrom(Schedule s, OffsetDateTime after,
+            OffsetDateTime until) {
+        Iterator<ScheduleOccurrenceResponse> it = occurrenceExpander.iterator(s, after, until);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED), false)
+                .dropWhile(o -> o.getStart().isBefore(after))
+                .iterator();
+    }
+
+    // Índice em memória quando ligado e carregado; senão a consulta no banco
+
+    // Candidatos da janela com os filhos carregados
+    private List<Schedule> hydrateCandidates(OffsetDateTime from, OffsetDateTime to) {
+        // Phase 1: candidate ids (overlapping series window, rdates or overrides),
+        // already deduplicated
+        List<UUID> candidateIds = occurrenceMetrics.candidates().record(() -> candidateIndex.findCandidateIds(from, to));
+        occurrenceMetrics.recordCandidates(candidateIds.size());
+
+        // Phase 2: hydrate each candidate once, with its EXDATEs/RDATEs/OVERRIDES
+        return occurrenceMetrics.hydrate()
+                .record(() -> scheduleRepository.findAllWithChildrenByIdIn(candidateIds));
+    }
+
+    // Ocorrências dos candidatos mescladas em ordem de início, depois scheduleId
+    private Iterator<ScheduleOccurrenceResponse> mergeExpansions(List<Schedule> candidates, OffsetDateTime from,
+            OffsetDateTime to, OccurrenceMetrics.Expansion expansion) {
+        // Phase 3: expand each schedule in chunks (on the pool for large candidate
+        // sets, when enabled) and merge them by start asc, then scheduleId; each
+        // schedule's chunks are timed as a whole
+        boolean onPool = parallelExpansion.appliesTo(candidates.size());
+        List<Iterator<ScheduleOccurrenceResponse>> perSchedule = parallelExpansion.expand(candidates,
+                s -> occurrenceExpander.iterator(s, from, to), s -> expansion.schedule(), onPool);
+        if (onPool) {
+            // o merge espera os primeiros blocos de todos, gerados juntos no pool
+            return occurrenceMetrics.parallelExpand().record(() -> new MergedOccurrenceIterator(perSchedule));
+        }
+        return new MergedOccurrenceIterator(perSchedule);
+    }
+
+    // ========================= Free/busy =========================
+
+    /**
+     * Merged busy intervals of the given schedules within [from, to]. The schedules
+     * are expanded with the same rules as /occurrences (see {@link #expandGroup}) and
+     * the start-sorted stream is swept into disjoint intervals as it is generated.
+     */
+    @Transactional(readOnly = true)
+    public FreeBusyResponse findFreeBusy(List<UUID> ids, String fromStr, String toStr) {
+        OffsetDateTime from = DateUtils.parseFlexibleOffsetDateTime(fromStr);
+        OffsetDateTime to = DateUtils.parseFlexibleOffsetDateTime(toStr);
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        return new FreeBusyResponse(from, to, BusyIntervals.merge(expandGroup(ids, from, to), from, to));
+    }
+
+    /** The busy intervals of {@link #findFreeBusy} as a VCALENDAR with one VFREEBUSY. */
+    @Transactional(readOnly = true)
+    public String buildFreeBusyIcs(List<UUID> ids, String fromStr, String toStr) {
+        FreeBusyResponse freeBusy = findFreeBusy(ids, fromStr, toStr);
+        StringBuilder sb = new StringBuilder();
+        IcsWriter ics = new IcsWriter(sb, Instant.now());
+        try {
+            ics.beginCalendar();
+            ics.writeFreeBusy(freeBusy.getFrom(), freeBusy.getTo(), freeBusy.getBusy());
+            ics.endCalendar();
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    // ========================= Conflitos =========================
+
+    /**
+     * Overlapping occurrences among the given schedules (taken as one resource)
+     * within [from, to]: every pair whose [start, end) ranges intersect inside the
+     * window, and the ranges where more than capacity occurrences run at once. The
+     * start-sorted expansion is swept keeping only the occurrences still running, so
+     * the cost is O(n log n + k) for n occurrences and k pairs.
+     */
+    @Transactional(readOnly = true)
+    public ConflictReportResponse findConflicts(List<UUID> ids, String fromStr, String toStr, int capacity) {
+        OffsetDateTime from = DateUtils.parseFlexibleOffsetDateTime(fromStr);
+        OffsetDateTime to = DateUtils.parseFlexibleOffsetDateTime(toStr);
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        ConflictSweep sweep = new ConflictSweep(from, to, capacity, maxConflictPairs);
+        expandGroup(ids, from, to).forEachRemaining(sweep::accept);
+        return sweep.finish();
+    }
+
+    /**
+     * Number of occurrences starting within [from, to] per hour or day bucket in
+     * tzid (default UTC), in total and per schedule (per bucket too with bySchedule),
+     * of the given schedules (all of which must exist) or of every schedule with
+     * occurrences in the window.
+     * Same expansion rules as {@link #findOccurrencesBetween}, but each occurrence
+     * only increments counters (see {@link OccurrenceExpander#forEachStart}).
+     */
+    @Transactional(readOnly = true)
+    public OccurrenceHistogramResponse findOccurrenceHistogram(List<UUID> ids, String fromStr, String toStr,
+            String bucket, String tzid, boolean bySchedule) {
+        OffsetDateTime from = DateUtils.parseFlexibleOffsetDateTime(fromStr);
+        OffsetDateTime to = DateUtils.parseFlexibleOffsetDateTime(toStr);
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        ChronoUnit unit = switch (bucket == null ? "DAY" : bucket.toUpperCase()) {
+            case "HOUR" -> ChronoUnit.HOURS;
+            case "DAY" -> ChronoUnit.DAYS;
+            default -> throw new IllegalArgumentException("bucket must be HOUR or DAY");
+        };
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(tzid == null ? "UTC" : tzid);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid tzid: " + tzid);
+        }
+
+        OccurrenceHistogram histogram = new OccurrenceHistogram(from, to, unit, zone, bySchedule,
+                maxHistogramBuckets);
+        List<UUID> scheduleIds = ids != null && !ids.isEmpty()
+                ? ids.stream().distinct().toList()
+                : candidateIndex.findCandidateIds(from, to);
+        for (int i = 0; i < scheduleIds.size(); i += ScheduleRepository.CHILD_FETCH_BATCH_SIZE) {
+            List<UUID> chunk = scheduleIds.subList(i,
+                    Math.min(scheduleIds.size(), i + ScheduleRepository.CHILD_FETCH_BATCH_SIZE));
+            List<Schedule> schedules = scheduleRepository.findAllWithChildrenByIdIn(chunk);
+            if (ids != null && !ids.isEmpty()) {
+                requireAllFound(chunk, schedules);
+            }
+            for (Schedule s : schedules) {
+                histogram.beginSchedule(s.getId());
+                occurrenceExpander.forEachStart(s, from, to, histogram);
+                histogram.endSchedule();
+            }
+            // o chunk já foi contado: libera as entidades antes do próximo
+            entityManager.clear();
+        }
+        return histogram.finish();
+    }
+
+    /**
+     * Occurrences of the given schedules overlapping [from, to], merged by start:
+     * expansion starts at from minus the longest duration, so occurrences that
+     * began before the window are included.
+     */
+    private Iterator<ScheduleOccurrenceResponse> expandGroup(List<UUID> ids, OffsetDateTime from, OffsetDateTime to) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids is required");
+        }
+        List<UUID> distinctIds = ids.stream().distinct().toList();
+        List<Schedule> schedules = scheduleRepository.findAllWithChildrenByIdIn(distinctIds);
+        requireAllFound(distinctIds, schedules);
+
+        OffsetDateTime expandFrom = from.minusSeconds(longestDurationSeconds(schedules));
+        List<Iterator<ScheduleOccurrenceResponse>> perSchedule = new ArrayList<>(schedules.size());
+        for (Schedule s : schedules) {
+            perSchedule.add(occurrenceExpander.iterator(s, expandFrom, to));
+        }
+        return new MergedOccurrenceIterator(perSchedule);
+    }
+
+    // ids pedidos explicitamente que não existem são erro do cliente, em todos os endpoints
+    private static void requireAllFound(List<UUID> ids, List<Schedule> schedules) {
+        if (schedules.size() != ids.size()) {
+            Set<UUID> found = schedules.stream().map(Schedule::getId).collect(Collectors.toSet());
+            UUID missing = ids.stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+            throw new IllegalArgumentException("Schedule not found: " + missing);
+        }
+    }
+
+    // maior duração entre série, RDATEs e OVERRIDES: quanto uma ocorrência pode começar antes de from
+    private static long longestDurationSeconds(List<Schedule> schedules) {
+        long longest = 0;
+        for (Schedule s : schedules) {
+            longest = Math.max(longest, s.getDurationSeconds());
+            for (ScheduleRdate r : s.getRdates()) {
+                longest = Math.max(longest, Optional.ofNullable(r.getDurationSeconds()).orElse(0));
+            }
+            for (ScheduleOverride o : s.getOverrides()) {
+                longest = Math.max(longest, Optional.ofNullable(o.getNewDurationSeconds()).orElse(0));
+            }
+        }
+        return longest;
+    }
+
+    // ========================= Versão (ETag) =========================
+
+    /** Schedule and its children as returned to clients, with the ETag of this version. */
+    public record Versioned<T>(T body, String etag) {
+    }
+
+    /**
+     * Strong ETag of a schedule version: sch_updated_at in microseconds (the column's
+     * precision), which the database bumps on any change to the schedule or its children.
+     */
+    public static String etagOf(OffsetDateTime updatedAt) {
+        return "\"" + Long.toHexString(ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt.toInstant())) + "\"";
+    }
+
+    /** Current ETag of the schedule, from a primary key lookup of its version only. */
+    @Transactional(readOnly = true)
+    public String findEtag(UUID scheduleId) {
+        return scheduleRepository.findUpdatedAtById(scheduleId)
+                .map(ScheduleService::etagOf)
+                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
+    }
+
+    @Transactional(readOnly = true)
+    public Versioned<ScheduleResponse> findById(UUID scheduleId) {
+        Schedule s = scheduleRepository.findByIdWithChildren(scheduleId)
+                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
+        return new Versioned<>(toResponse(s), etagOf(s.getUpdatedAt()));
+    }
+
+    // ========================= ICS (iCalendar) =========================
+
+    /**
+     * The schedule as a VCALENDAR. DTSTAMP is the schedule version (not the time of
+     * the request), so the same ETag always means the same bytes.
+     */
+    @Transactional(readOnly = true)
+    public Versioned<String> buildIcsForSchedule(UUID scheduleId) {
+        Schedule s = scheduleRepository.findByIdWithChildren(scheduleId)
+                .orElseThrow(() -> new IllegalArgumentException("Schedule not found: " + scheduleId));
+
+        StringBuilder sb = new StringBuilder();
+        IcsWriter ics = new IcsWriter(sb, s.getUpdatedAt().toInstant());
+        try {
+            ics.beginCalendar();
+            ics.writeSchedule(s, recurrenceCache.get(s).getRrule());
+            ics.endCalendar();
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        return new Versioned<>(sb.toString(), etagOf(s.getUpdatedAt()));
+    }
+
+    /** Optional from..to filter of the .ics feed, already validated. */
+    public record FeedWindow(OffsetDateTime from, OffsetDateTime to) {
+    }
+
+    /**
+     * Validates the from/to of the .ics feed: both or neither. Called before the
+     * response starts, so bad input is still answered with 400; null without them.
+     */
+    public FeedWindow icsFeedWindow(String fromStr, String toStr) {
+        if ((fromStr == null) != (toStr == null)) {
+            throw new IllegalArgumentException("from and to must be given together");
+        }
+        if (fromStr == null) {
+            return null;
+        }
+        return new FeedWindow(DateUtils.parseFlexibleOffsetDateTime(fromStr), DateUtils.parseFlexibleOffsetDateTime(toStr));
+    }
+
+    /**
+     * Writes one VCALENDAR with every selected schedule to out: the given ids, or the
+     * schedules with occurrences within the window, or all of them. Schedules are
+     * hydrated and written {@value ScheduleRepository#CHILD_FETCH_BATCH_SIZE} at a
+     * time and then detached, so memory does not grow with the size of the feed.
+     */
+    @Transactional(readOnly = true)
+    public void writeIcsFeed(List<UUID> ids, FeedWindow window, Appendable out) throws IOException {
+        IcsWriter ics = new IcsWriter(out, Instant.now());
+        ics.beginCalendar();
+        if (ids != null && !ids.isEmpty()) {
+            writeIcsChunks(ics, ids.stream().distinct().iterator());
+        } else if (window != null) {
+            writeIcsChunks(ics, candidateIndex.findCandidateIds(window.from(), window.to()).iterator());
+        } else {
+            try (Stream<UUID> all = scheduleRepository.streamAllIds()) {
+                writeIcsChunks(ics, all.iterator());
+            }
+        }
+        ics.endCalendar();
+    }
+
+    private void writeIcsChunks(IcsWriter ics, Iterator<UUID> ids) throws IOException {
+        List<UUID> chunk = new ArrayList<>(ScheduleRepository.CHILD_FETCH_BATCH_SIZE);
+        while (ids.hasNext()) {
+            chunk.add(ids.next());
+            if (chunk.size() == ScheduleRepository.CHILD_FETCH_BATCH_SIZE || !ids.hasNext()) {
+                for (Schedule s : scheduleRepository.findAllWithChildrenByIdIn(chunk)) {
+                    ics.writeSchedule(s, recurrenceCache.get(s).getRrule());
+                }
+                // o chunk já foi escrito: libera as entidades antes do próximo
+                entityManager.clear();
+                chunk.clear();
+            }
+        }
+    }
+}
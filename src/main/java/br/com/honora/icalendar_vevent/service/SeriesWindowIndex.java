@@ -0,0 +1,155 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Índice imutável, em arrays primitivos, das janelas de série e dos instantes
+ * avulsos (RDATEs e novos inícios de OVERRIDES) de um conjunto de schedules:
+ * - janelas ordenadas pelo início, com uma árvore de intervalos implícita sobre o
+ * array: o nó do trecho [lo, hi) é o meio, e maxEnds guarda o maior fim do trecho
+ * - instantes ordenados, com a posição do schedule dono, para busca binária
+ * Tempos em epoch seconds arredondados para baixo, o que só pode acrescentar
+ * candidatos, nunca perder um.
+ */
+final class SeriesWindowIndex {
+
+    static final SeriesWindowIndex EMPTY = build(Map.of());
+
+    /** Window and instants of one schedule, in epoch seconds; end is Long.MAX_VALUE for open series. */
+    record Entry(long start, long end, long[] instants) {
+
+        /** Marks a schedule that no longer exists: matches no window. */
+        static final Entry REMOVED = new Entry(Long.MAX_VALUE, Long.MIN_VALUE, new long[0]);
+
+        boolean matches(long from, long to) {
+            if (start <= to && end >= from) {
+                return true;
+            }
+            for (long instant : instants) {
+                if (instant >= from && instant <= to) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final UUID[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final long[] instants;
+    private final int[] instantOwners;
+
+    private SeriesWindowIndex(UUID[] ids, long[] starts, long[] ends, long[] instants, int[] instantOwners) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[ids.length];
+        this.instants = instants;
+        this.instantOwners = instantOwners;
+        fillMaxEnds(0, ids.length);
+    }
+
+    static SeriesWindowIndex build(Map<UUID, Entry> entries) {
+        @SuppressWarnings("unchecked")
+        Map.Entry<UUID, Entry>[] byStart = entries.entrySet().toArray(new Map.Entry[0]);
+        Arrays.sort(byStart, Comparator.comparingLong(e -> e.getValue().start()));
+
+        int n = byStart.length;
+        UUID[] ids = new UUID[n];
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        int instantCount = 0;
+        for (int i = 0; i < n; i++) {
+            ids[i] = byStart[i].getKey();
+            starts[i] = byStart[i].getValue().start();
+            ends[i] = byStart[i].getValue().end();
+            instantCount += byStart[i].getValue().instants().length;
+        }
+
+        // (instante, dono) ordenados pelo instante
+        long[] unsortedInstants = new long[instantCount];
+        int[] unsortedOwners = new int[instantCount];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            for (long instant : byStart[i].getValue().instants()) {
+                unsortedInstants[k] = instant;
+                unsortedOwners[k++] = i;
+            }
+        }
+        Integer[] order = new Integer[instantCount];
+        for (int i = 0; i < instantCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> unsortedInstants[i]));
+        long[] instants = new long[instantCount];
+        int[] owners = new int[instantCount];
+        for (int i = 0; i < instantCount; i++) {
+            instants[i] = unsortedInstants[order[i]];
+            owners[i] = unsortedOwners[order[i]];
+        }
+        return new SeriesWindowIndex(ids, starts, ends, instants, owners);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Passes to action the id of every schedule whose window overlaps [from, to] or
+     * that has an instant inside it. A schedule may be passed more than once.
+     */
+    void forEachCandidate(long from, long to, Consumer<UUID> action) {
+        collectWindows(0, ids.length, from, to, action);
+        for (int i = lowerBound(instants, from); i < instants.length && instants[i] <= to; i++) {
+            action.accept(ids[instantOwners[i]]);
+        }
+    }
+
+    private long fillMaxEnds(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(fillMaxEnds(lo, mid), fillMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    private void collectWindows(int lo, int hi, long from, long to, Consumer<UUID> action) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] < from) {
+            return; // nada neste trecho chega até from
+        }
+        collectWindows(lo, mid, from, to, action);
+        if (starts[mid] > to) {
+            return; // mid e tudo à direita começam depois de to
+        }
+        if (ends[mid] >= from) {
+            action.accept(ids[mid]);
+        }
+        collectWindows(mid + 1, hi, from, to, action);
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
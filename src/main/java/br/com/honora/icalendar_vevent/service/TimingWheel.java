@@ -0,0 +1,152 @@
+package br.com.honora.icalendar_vevent.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Timing wheel hierárquica (Varghese e Lauck, a mesma ideia dos timers do kernel
+ * Linux): {@value #LEVELS} níveis de {@value #SLOTS} slots, em que um slot do nível
+ * n cobre SLOTS^n ticks.
+ * - agendar e cancelar são O(1): cada slot é uma lista duplamente ligada
+ * - avançar um tick esvazia só o slot que vence; quando um nível completa uma volta,
+ * o slot atual do nível de cima é redistribuído nos de baixo
+ * - prazos além do alcance da roda ficam no nível mais alto e são redistribuídos
+ * até caberem
+ * Tempos em milissegundos arredondados para o tick de cima: um timer nunca dispara
+ * antes do prazo. Não é thread-safe.
+ */
+final class TimingWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /** A scheduled payload, also the handle passed to {@link TimingWheel#cancel}. */
+    static final class Timer<T> {
+        private final long expiry; // tick
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next; // null: disparado ou cancelado
+
+        private Timer(long expiry, T payload) {
+            this.expiry = expiry;
+            this.payload = payload;
+        }
+
+        T payload() {
+            return payload;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timer<T>[][] slots; // sentinelas de listas circulares
+    private long currentTick; // último tick processado
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        this.slots = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer<T> sentinel = new Timer<>(0, null);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules payload for the first {@link #advance} to deadlineMillis or later;
+     * deadlines that have already passed fire on the next tick.
+     */
+    Timer<T> schedule(long deadlineMillis, T payload) {
+        long expiry = Math.max(-Math.floorDiv(-deadlineMillis, tickMillis), currentTick + 1);
+        Timer<T> timer = new Timer<>(expiry, payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /** Removes a pending timer; false when it has already fired or been cancelled. */
+    boolean cancel(Timer<T> timer) {
+        if (timer.next == null) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /** Passes to action, tick by tick, the payload of every timer due up to nowMillis. */
+    void advance(long nowMillis, Consumer<T> action) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target; // nada a redistribuir nem a disparar no caminho
+                return;
+            }
+            currentTick++;
+            cascade();
+            Timer<T> head = slots[0][index(currentTick, 0)];
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                unlink(timer);
+                size--;
+                action.accept(timer.payload);
+            }
+        }
+    }
+
+    // Ao completar uma volta do nível n - 1, o slot atual do nível n desce
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Timer<T> head = slots[level][index(currentTick, level)];
+            Timer<T> timer = head.next;
+            head.prev = head;
+            head.next = head;
+            while (timer != head) {
+                Timer<T> next = timer.next;
+                place(timer);
+                timer = next;
+            }
+        }
+    }
+
+    // Nível: o primeiro cujo alcance cobre o prazo; slot: os bits do prazo naquele nível
+    private void place(Timer<T> timer) {
+        long delta = Math.min(Math.max(timer.expiry - currentTick, 0), MAX_DELTA);
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timer<T> head = slots[level][index(currentTick + delta, level)];
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    private static int index(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+}
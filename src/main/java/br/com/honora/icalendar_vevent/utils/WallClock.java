@@ -0,0 +1,89 @@
+package br.com.honora.icalendar_vevent.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * Converts between epoch seconds and local wall-clock seconds (local date-time
+ * counted as if it were UTC) for one zone, caching the span where the current
+ * offset is valid so conversions inside it are plain arithmetic.
+ * Local times in a DST gap or overlap resolve like {@link LocalDateTime#atZone}.
+ * Not thread-safe: use one instance per expansion.
+ */
+public final class WallClock {
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final boolean fixed;
+    private final int fixedOffset;
+
+    // epoch -> local: [spanStart, spanEnd) in epoch seconds
+    private long spanStart = 1;
+    private long spanEnd = 0;
+    private int spanOffset;
+
+    // local -> epoch: [localStart, localEnd) in local seconds with a single valid offset
+    private long localStart = 1;
+    private long localEnd = 0;
+    private int localOffset;
+
+    public WallClock(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.fixed = rules.isFixedOffset();
+        this.fixedOffset = fixed ? rules.getOffset(Instant.EPOCH).getTotalSeconds() : 0;
+    }
+
+    public long toLocal(long epochSecond) {
+        if (fixed)
+            return epochSecond + fixedOffset;
+        if (epochSecond < spanStart || epochSecond >= spanEnd)
+            loadSpan(epochSecond);
+        return epochSecond + spanOffset;
+    }
+
+    public long toEpoch(long localSecond) {
+        if (fixed)
+            return localSecond - fixedOffset;
+        if (localSecond < localStart || localSecond >= localEnd)
+            loadLocalSpan(localSecond);
+        return localSecond - localOffset;
+    }
+
+    private void loadSpan(long epochSecond) {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        spanOffset = rules.getOffset(instant).getTotalSeconds();
+        spanStart = previous == null ? Long.MIN_VALUE : previous.toEpochSecond();
+        spanEnd = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+    }
+
+    private void loadLocalSpan(long localSecond) {
+        LocalDateTime ldt = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+        long epochSecond = ZonedDateTime.ofLocal(ldt, zone, null).toEpochSecond();
+        List<ZoneOffset> valid = rules.getValidOffsets(ldt);
+        if (valid.size() != 1) {
+            // gap or overlap: resolved by java.time, cached for this second only
+            localStart = localSecond;
+            localEnd = localSecond + 1;
+            localOffset = (int) (localSecond - epochSecond);
+            return;
+        }
+        int offset = valid.get(0).getTotalSeconds();
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        localStart = previous == null ? Long.MIN_VALUE
+                : previous.toEpochSecond() + Math.max(offset, previous.getOffsetBefore().getTotalSeconds());
+        localEnd = next == null ? Long.MAX_VALUE
+                : next.toEpochSecond() + Math.min(offset, next.getOffsetAfter().getTotalSeconds());
+        localOffset = offset;
+    }
+}
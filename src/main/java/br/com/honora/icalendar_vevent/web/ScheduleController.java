@@ -1,146 +1,392 @@
-package br.com.honora.icalendar_vevent.web;
-
-import java.net.URI;
-import java.nio.charset.StandardCharsets;
-import java.util.UUID;
-import java.util.List;
-
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.DeleteMapping;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.PatchMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
-
-import br.com.honora.icalendar_vevent.domain.Schedule;
-import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
-import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
-import br.com.honora.icalendar_vevent.dto.request.ForceEndRequest;
-import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
-import br.com.honora.icalendar_vevent.dto.response.ScheduleResponse;
-import br.com.honora.icalendar_vevent.service.ScheduleService;
-import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.Content;
-import io.swagger.v3.oas.annotations.media.ExampleObject;
-import io.swagger.v3.oas.annotations.media.Schema;
-import io.swagger.v3.oas.annotations.responses.ApiResponse;
-
-@RestController
-@RequestMapping("/api/schedules")
-public class ScheduleController {
-
-    private final ScheduleService scheduleService;
-
-    public ScheduleController(ScheduleService scheduleService) {
-        this.scheduleService = scheduleService;
-    }
-
-    @Operation(summary = "Create schedule", description = "Cria um schedule (rrule armazenado como JSON) com exdates/rdates.")
-    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleRequest.class), examples = {
-            @ExampleObject(value = "{\"rrule\":{\"freq\":\"WEEKLY\",\"interval\":1,\"byday\":[\"TH\"]},\"tzid\":\"America/Sao_Paulo\",\"seriesStartLocal\":\"2025-09-04T15:00:00\",\"seriesStartUtc\":\"2025-09-04T18:00:00Z\",\"seriesUntilUtc\":null,\"durationSeconds\":3600,\"summary\":\"Reunião semanal\",\"notes\":\"Exemplo\",\"exdates\":[{\"exdateLocal\":\"2025-09-11T15:00:00\"}],\"rdates\":[{\"rdateLocal\":\"2025-09-11T15:00:00\"}]}") }))
-    @PostMapping
-    public ResponseEntity<?> create(@RequestBody ScheduleRequest req) {
-        Schedule saved = scheduleService.create(req);
-        return ResponseEntity.created(URI.create("/api/schedules/" + saved.getId())).body(saved.getId());
-    }
-
-    @Operation(summary = "List schedules", description = "Retorna a lista de schedules persistidos.")
-    @ApiResponse(responseCode = "200", description = "Lista de schedules", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleResponse.class)))
-    @GetMapping
-    public ResponseEntity<List<ScheduleResponse>> list() {
-        List<ScheduleResponse> list = scheduleService.findAll();
-        return ResponseEntity.ok(list);
-    }
-
-    @Operation(summary = "Delete all schedules", description = "Remove todos os schedules do banco. Use com cuidado; ação irreversível.")
-    @ApiResponse(responseCode = "204", description = "Todos os schedules foram removidos", content = @Content)
-    @DeleteMapping
-    public ResponseEntity<Void> deleteAll() {
-        scheduleService.deleteAll();
-        return ResponseEntity.noContent().build();
-    }
-
-    @Operation(summary = "List occurrences between intervalo", description = "Retorna ocorrências (após aplicar EXDATEs) entre from e to. Params em ISO-8601 (UTC recomendado).")
-    @GetMapping("/occurrences")
-    public ResponseEntity<List<ScheduleOccurrenceResponse>> occurrences(
-            @RequestParam("from") String from,
-            @RequestParam("to") String to) {
-
-        List<ScheduleOccurrenceResponse> list = scheduleService.findOccurrencesBetween(from, to);
-        return ResponseEntity.ok(list);
-    }
-
-    @Operation(summary = "Exporta um Schedule como .ics", description = "Gera um arquivo iCalendar (text/calendar) com VEVENT mestre (RRULE/EXDATE/RDATE) e VEVENTs de overrides.")
-    @GetMapping(value = "/{id}/calendar.ics")
-    public ResponseEntity<byte[]> exportIcs(@PathVariable("id") UUID id) {
-        String ics = scheduleService.buildIcsForSchedule(id);
-        byte[] bytes = ics.getBytes(StandardCharsets.UTF_8);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(new MediaType("text", "calendar"));
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=calendar-" + id + ".ics");
-        return ResponseEntity.ok().headers(headers).body(bytes);
-    }
-
-    @Operation(summary = "Upsert EXDATE (idempotente)", description = "Cria ou garante a existência de um EXDATE para a data/hora local informada.")
-    @PutMapping("/{id}/exdates/{exdateLocal}")
-    public ResponseEntity<Void> putExdate(@PathVariable("id") UUID id, @PathVariable("exdateLocal") String exdateLocal) {
-        scheduleService.putExdate(id, exdateLocal);
-        return ResponseEntity.noContent().build();
-    }
-
-    @Operation(summary = "Remove EXDATE")
-    @DeleteMapping("/{id}/exdates/{exdateLocal}")
-    public ResponseEntity<Void> deleteExdate(@PathVariable("id") UUID id, @PathVariable("exdateLocal") String exdateLocal) {
-        scheduleService.deleteExdate(id, exdateLocal);
-        return ResponseEntity.noContent().build();
-    }
-
-    @Operation(summary = "Upsert RDATE (idempotente)", description = "Cria ou atualiza um RDATE pela data/hora local da ocorrência; durationSeconds é opcional.")
-    @PutMapping("/{id}/rdates/{rdateLocal}")
-    public ResponseEntity<Void> putRdate(
-            @PathVariable("id") UUID id,
-            @PathVariable("rdateLocal") String rdateLocal,
-            @RequestParam(value = "durationSeconds", required = false) Integer durationSeconds) {
-        scheduleService.putRdate(id, rdateLocal, durationSeconds);
-        return ResponseEntity.noContent().build();
-    }
-
-    @Operation(summary = "Remove RDATE")
-    @DeleteMapping("/{id}/rdates/{rdateLocal}")
-    public ResponseEntity<Void> deleteRdate(@PathVariable("id") UUID id, @PathVariable("rdateLocal") String rdateLocal) {
-        scheduleService.deleteRdate(id, rdateLocal);
-        return ResponseEntity.noContent().build();
-    }
-
-    @Operation(summary = "Upsert OVERRIDE (idempotente)", description = "Cria ou atualiza um override pela recurrenceIdLocal; newStartLocal é obrigatório.")
-    @PutMapping("/{id}/overrides/{recurrenceIdLocal}")
-    public ResponseEntity<Void> putOverride(
-            @PathVariable("id") UUID id,
-            @PathVariable("recurrenceIdLocal") String recurrenceIdLocal,
-            @RequestBody ScheduleOverrideRequest req) {
-        scheduleService.putOverride(id, recurrenceIdLocal, req);
-        return ResponseEntity.noContent().build();
-    }
-
-    @Operation(summary = "Remove OVERRIDE")
-    @DeleteMapping("/{id}/overrides/{recurrenceIdLocal}")
-    public ResponseEntity<Void> deleteOverride(@PathVariable("id") UUID id, @PathVariable("recurrenceIdLocal") String recurrenceIdLocal) {
-        scheduleService.deleteOverride(id, recurrenceIdLocal);
-        return ResponseEntity.noContent().build();
-    }
-
-    @Operation(summary = "Força encerramento da série (PATCH seriesUntilUtc)")
-    @PatchMapping("/{id}/series-until")
-    public ResponseEntity<Void> forceEnd(@PathVariable("id") UUID id, @RequestBody ForceEndRequest req) {
-        scheduleService.forceEnd(id, req);
-        return ResponseEntity.noContent().build();
-    }
-
+package br.com.honora.icalendar_vevent.web;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.List;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleChildBatchRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ForceEndRequest;
+import br.com.honora.icalendar_vevent.dto.response.ConflictReportResponse;
+import br.com.honora.icalendar_vevent.dto.response.FreeBusyResponse;
+import br.com.honora.icalendar_vevent.dto.response.OccurrenceHistogramResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleImportResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrencePageResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.dto.response.SchedulePageResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleResponse;
+import br.com.honora.icalendar_vevent.service.ScheduleImportService;
+import br.com.honora.icalendar_vevent.service.ScheduleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+@RestController
+@RequestMapping("/api/schedules")
+public class ScheduleController {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+    private static final int FEED_BUFFER_SIZE = 64 * 1024; // caracteres acumulados antes de cada escrita na resposta
+
+    private final ScheduleService scheduleService;
+    private final ScheduleImportService scheduleImportService;
+    private final ObjectWriter occurrenceWriter;
+
+    public ScheduleController(ScheduleService scheduleService, ScheduleImportService scheduleImportService,
+            ObjectMapper objectMapper) {
+        this.scheduleService = scheduleService;
+        this.scheduleImportService = scheduleImportService;
+        this.occurrenceWriter = objectMapper.writerFor(ScheduleOccurrenceResponse.class);
+    }
+
+    @Operation(summary = "Create schedule", description = "Cria um schedule (rrule armazenado como JSON) com exdates/rdates.")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleRequest.class), examples = {
+            @ExampleObject(value = "{\"rrule\":{\"freq\":\"WEEKLY\",\"interval\":1,\"byday\":[\"TH\"]},\"tzid\":\"America/Sao_Paulo\",\"seriesStartLocal\":\"2025-09-04T15:00:00\",\"seriesStartUtc\":\"2025-09-04T18:00:00Z\",\"seriesUntilUtc\":null,\"durationSeconds\":3600,\"summary\":\"Reunião semanal\",\"notes\":\"Exemplo\",\"exdates\":[{\"exdateLocal\":\"2025-09-11T15:00:00\"}],\"rdates\":[{\"rdateLocal\":\"2025-09-11T15:00:00\"}]}") }))
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody ScheduleRequest req) {
+        Schedule saved = scheduleService.create(req);
+        return ResponseEntity.created(URI.create("/api/schedules/" + saved.getId())).body(saved.getId());
+    }
+
+    @Operation(summary = "Bulk import schedules", description = "Importa um array JSON de schedules (mesmo formato do POST) lido em streaming e gravado em lotes, "
+            + "cada lote na sua transação. Itens inválidos não interrompem a importação: voltam em errors com a posição no array.")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ScheduleImportResponse> importSchedules(InputStream body) throws IOException {
+        return ResponseEntity.ok(scheduleImportService.importJson(body));
+    }
+
+    @Operation(summary = "Import .ics", description = "Importa os VEVENTs de um arquivo iCalendar (text/calendar) lido em streaming: DTSTART;TZID, DURATION/DTEND, RRULE, EXDATE e RDATE viram o schedule; "
+            + "VEVENTs com RECURRENCE-ID viram overrides (ou EXDATEs, se STATUS:CANCELLED). Erros voltam por posição do VEVENT no arquivo.")
+    @PostMapping(value = "/import", consumes = "text/calendar")
+    public ResponseEntity<ScheduleImportResponse> importIcs(InputStream body) throws IOException {
+        return ResponseEntity.ok(scheduleImportService.importIcs(body));
+    }
+
+    @Operation(summary = "List schedules", description = "Retorna os schedules persistidos, em ordem de id. Com limit e/ou cursor devolve uma página; "
+            + "o cursor da próxima vem no header X-Next-Cursor (ausente na última página). children=false omite exdates, rdates e overrides.")
+    @ApiResponse(responseCode = "200", description = "Lista de schedules", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleResponse.class)))
+    @GetMapping
+    public ResponseEntity<List<ScheduleResponse>> list(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "children", defaultValue = "true") boolean children) {
+
+        if (limit == null && cursor == null) {
+            List<ScheduleResponse> list = scheduleService.findAll(children);
+            return ResponseEntity.ok(list);
+        }
+        SchedulePageResponse page = scheduleService.findPage(limit != null ? limit : DEFAULT_PAGE_SIZE, cursor,
+                children);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @Operation(summary = "Delete all schedules", description = "Remove todos os schedules do banco. Use com cuidado; ação irreversível.")
+    @ApiResponse(responseCode = "204", description = "Todos os schedules foram removidos", content = @Content)
+    @DeleteMapping
+    public ResponseEntity<Void> deleteAll() {
+        scheduleService.deleteAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "List occurrences between intervalo", description = "Retorna ocorrências (após aplicar EXDATEs) entre from e to. Params em ISO-8601 (UTC recomendado). "
+            + "Com limit e/ou cursor devolve uma página; o cursor da próxima vem no header X-Next-Cursor (ausente na última página).")
+    @GetMapping("/occurrences")
+    public ResponseEntity<List<ScheduleOccurrenceResponse>> occurrences(
+            @RequestParam("from") String from,
+            @RequestParam("to") String to,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (limit == null && cursor == null) {
+            List<ScheduleOccurrenceResponse> list = scheduleService.findOccurrencesBetween(from, to);
+            return ResponseEntity.ok(list);
+        }
+        ScheduleOccurrencePageResponse page = scheduleService.findOccurrencesPage(from, to,
+                limit != null ? limit : DEFAULT_PAGE_SIZE, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @Operation(summary = "Stream occurrences (NDJSON)", description = "Mesmas ocorrências de /occurrences, na mesma ordem, uma por linha (application/x-ndjson). São geradas e enviadas sob demanda, sem montar a lista inteira em memória.")
+    @GetMapping(value = "/occurrences/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamOccurrences(
+            @RequestParam("from") String from,
+            @RequestParam("to") String to) {
+
+        StreamingResponseBody body = out -> {
+            scheduleService.streamOccurrencesBetween(from, to, occurrence -> {
+                try {
+                    out.write(occurrenceWriter.writeValueAsBytes(occurrence));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Occurrence histogram", description = "Quantidade de ocorrências que começam entre from e to por bucket (HOUR ou DAY, no fuso tzid, padrão UTC), "
+            + "no total e por schedule (por bucket também com bySchedule=true). Mesmas regras de /occurrences; sem ids, conta todos os schedules com ocorrências na janela.")
+    @GetMapping("/occurrences/histogram")
+    public ResponseEntity<OccurrenceHistogramResponse> occurrenceHistogram(
+            @RequestParam(value = "ids", required = false) List<UUID> ids,
+            @RequestParam("from") String from,
+            @RequestParam("to") String to,
+            @RequestParam(value = "bucket", defaultValue = "DAY") String bucket,
+            @RequestParam(value = "tzid", defaultValue = "UTC") String tzid,
+            @RequestParam(value = "bySchedule", defaultValue = "false") boolean bySchedule) {
+        return ResponseEntity.ok(scheduleService.findOccurrenceHistogram(ids, from, to, bucket, tzid, bySchedule));
+    }
+
+    @Operation(summary = "Upcoming occurrences", description = "Próximas ocorrências de todos os schedules a partir de after (padrão e mínimo: agora), "
+            + "na ordem de /occurrences e paginadas pelo mesmo cursor (header X-Next-Cursor). Procuradas até schedule.next-occurrence.horizon à frente.")
+    @GetMapping("/occurrences/next")
+    public ResponseEntity<List<ScheduleOccurrenceResponse>> upcomingOccurrences(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        ScheduleOccurrencePageResponse page = scheduleService.findUpcoming(after, limit, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @Operation(summary = "Next occurrences of a schedule", description = "As limit primeiras ocorrências do schedule que começam em after ou depois (padrão: agora), "
+            + "procuradas até schedule.next-occurrence.horizon à frente.")
+    @GetMapping("/{id}/occurrences/next")
+    public ResponseEntity<List<ScheduleOccurrenceResponse>> nextOccurrences(@PathVariable("id") UUID id,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(scheduleService.findNextOccurrences(id, after, limit));
+    }
+
+    @Operation(summary = "Free/busy", description = "Intervalos ocupados (ocorrências unidas, sem sobreposição) dos schedules em ids entre from e to, "
+            + "recortados à janela. Com Accept: text/calendar devolve um VFREEBUSY.")
+    @GetMapping(value = "/freebusy", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FreeBusyResponse> freeBusy(
+            @RequestParam("ids") List<UUID> ids,
+            @RequestParam("from") String from,
+            @RequestParam("to") String to) {
+        return ResponseEntity.ok(scheduleService.findFreeBusy(ids, from, to));
+    }
+
+    @GetMapping(value = "/freebusy", produces = "text/calendar")
+    public ResponseEntity<byte[]> freeBusyIcs(
+            @RequestParam("ids") List<UUID> ids,
+            @RequestParam("from") String from,
+            @RequestParam("to") String to) {
+        byte[] bytes = scheduleService.buildFreeBusyIcs(ids, from, to).getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(TEXT_CALENDAR);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=freebusy.ics");
+        return ResponseEntity.ok().headers(headers).body(bytes);
+    }
+
+    @Operation(summary = "Conflitos entre schedules", description = "Trata os schedules em ids como um mesmo recurso: devolve os pares de ocorrências sobrepostas ([start, end)) entre from e to "
+            + "e os trechos com mais de capacity ocorrências simultâneas. Expansão com as mesmas regras de /occurrences (EXDATE, RDATE, OVERRIDE).")
+    @GetMapping("/conflicts")
+    public ResponseEntity<ConflictReportResponse> conflicts(
+            @RequestParam("ids") List<UUID> ids,
+            @RequestParam("from") String from,
+            @RequestParam("to") String to,
+            @RequestParam(value = "capacity", defaultValue = "1") int capacity) {
+        return ResponseEntity.ok(scheduleService.findConflicts(ids, from, to, capacity));
+    }
+
+    @Operation(summary = "Feed .ics de vários schedules", description = "Um único VCALENDAR (text/calendar) com os schedules de ids, ou os que têm ocorrências entre from e to, ou todos. "
+            + "Os VEVENTs são escritos direto na resposta, em lotes lidos do banco, sem montar o documento em memória.")
+    @GetMapping(value = "/calendar.ics")
+    public ResponseEntity<StreamingResponseBody> exportIcsFeed(
+            @RequestParam(value = "ids", required = false) List<UUID> ids,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+
+        // validado antes do corpo: depois do 200 enviado não há mais como responder 400
+        ScheduleService.FeedWindow window = scheduleService.icsFeedWindow(from, to);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), FEED_BUFFER_SIZE);
+            scheduleService.writeIcsFeed(ids, window, writer);
+            writer.flush();
+        };
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(TEXT_CALENDAR);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=calendar.ics");
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    @Operation(summary = "Get schedule", description = "Retorna o schedule com exdates, rdates e overrides. Responde com ETag; "
+            + "com If-None-Match igual à versão atual devolve 304 sem carregar o schedule.")
+    @GetMapping("/{id}")
+    public ResponseEntity<ScheduleResponse> get(@PathVariable("id") UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = scheduleService.findEtag(id);
+            if (etagMatches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
+        ScheduleService.Versioned<ScheduleResponse> schedule = scheduleService.findById(id);
+        return ResponseEntity.ok().eTag(schedule.etag()).cacheControl(CacheControl.noCache()).body(schedule.body());
+    }
+
+    @Operation(summary = "Exporta um Schedule como .ics", description = "Gera um arquivo iCalendar (text/calendar) com VEVENT mestre (RRULE/EXDATE/RDATE) e VEVENTs de overrides. "
+            + "Responde com ETag; com If-None-Match igual à versão atual devolve 304 sem montar o arquivo.")
+    @GetMapping(value = "/{id}/calendar.ics")
+    public ResponseEntity<byte[]> exportIcs(@PathVariable("id") UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = scheduleService.findEtag(id);
+            if (etagMatches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
+        ScheduleService.Versioned<String> ics = scheduleService.buildIcsForSchedule(id);
+        byte[] bytes = ics.body().getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "calendar"));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=calendar-" + id + ".ics");
+        return ResponseEntity.ok().headers(headers).eTag(ics.etag()).cacheControl(CacheControl.noCache()).body(bytes);
+    }
+
+    @Operation(summary = "Upsert EXDATE (idempotente)", description = "Cria ou garante a existência de um EXDATE para a data/hora local informada.")
+    @PutMapping("/{id}/exdates/{exdateLocal}")
+    public ResponseEntity<Void> putExdate(@PathVariable("id") UUID id, @PathVariable("exdateLocal") String exdateLocal) {
+        scheduleService.putExdate(id, exdateLocal);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Remove EXDATE")
+    @DeleteMapping("/{id}/exdates/{exdateLocal}")
+    public ResponseEntity<Void> deleteExdate(@PathVariable("id") UUID id, @PathVariable("exdateLocal") String exdateLocal) {
+        scheduleService.deleteExdate(id, exdateLocal);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Upsert RDATE (idempotente)", description = "Cria ou atualiza um RDATE pela data/hora local da ocorrência; durationSeconds é opcional.")
+    @PutMapping("/{id}/rdates/{rdateLocal}")
+    public ResponseEntity<Void> putRdate(
+            @PathVariable("id") UUID id,
+            @PathVariable("rdateLocal") String rdateLocal,
+            @RequestParam(value = "durationSeconds", required = false) Integer durationSeconds) {
+        scheduleService.putRdate(id, rdateLocal, durationSeconds);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Remove RDATE")
+    @DeleteMapping("/{id}/rdates/{rdateLocal}")
+    public ResponseEntity<Void> deleteRdate(@PathVariable("id") UUID id, @PathVariable("rdateLocal") String rdateLocal) {
+        scheduleService.deleteRdate(id, rdateLocal);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Upsert OVERRIDE (idempotente)", description = "Cria ou atualiza um override pela recurrenceIdLocal; newStartLocal é obrigatório.")
+    @PutMapping("/{id}/overrides/{recurrenceIdLocal}")
+    public ResponseEntity<Void> putOverride(
+            @PathVariable("id") UUID id,
+            @PathVariable("recurrenceIdLocal") String recurrenceIdLocal,
+            @RequestBody ScheduleOverrideRequest req) {
+        scheduleService.putOverride(id, recurrenceIdLocal, req);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Remove OVERRIDE")
+    @DeleteMapping("/{id}/overrides/{recurrenceIdLocal}")
+    public ResponseEntity<Void> deleteOverride(@PathVariable("id") UUID id, @PathVariable("recurrenceIdLocal") String recurrenceIdLocal) {
+        scheduleService.deleteOverride(id, recurrenceIdLocal);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Lote de EXDATE/RDATE/OVERRIDE", description = "Aplica numa transação upserts e remoções de exdates, rdates e overrides do schedule, "
+            + "com um statement por tabela e operação (não um por item). Remoções são aplicadas antes dos upserts.")
+    @PostMapping("/{id}/children/batch")
+    public ResponseEntity<Void> applyChildBatch(@PathVariable("id") UUID id, @RequestBody ScheduleChildBatchRequest req) {
+        scheduleService.applyChildBatch(id, req);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Lote de EXDATE/RDATE/OVERRIDE em vários schedules", description = "Como /{id}/children/batch, com scheduleId em cada item; tudo numa única transação. "
+            + "Um schedule inexistente rejeita o lote inteiro.")
+    @PostMapping("/children/batch")
+    public ResponseEntity<Void> applyChildBatches(@RequestBody List<ScheduleChildBatchRequest> reqs) {
+        scheduleService.applyChildBatches(reqs);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Força encerramento da série (PATCH seriesUntilUtc)")
+    @PatchMapping("/{id}/series-until")
+    public ResponseEntity<Void> forceEnd(@PathVariable("id") UUID id, @RequestBody ForceEndRequest req) {
+        scheduleService.forceEnd(id, req);
+        return ResponseEntity.noContent().build();
+    }
+
+    // entrada inválida, inclusive ids de schedule que não existem, é 400 em todos os endpoints
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ProblemDetail> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    // no-cache: o cliente guarda a resposta, mas revalida a cada uso com If-None-Match
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    // If-None-Match usa comparação fraca (RFC 9110, 13.1.2): W/"x" também casa com "x"
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+-- ===========================================
+-- Instantes UTC de RDATEs e OVERRIDES
+-- ===========================================
+-- Os filtros por janela convertiam o horário local com (x AT TIME ZONE s.sch_tzid),
+-- expressão que nenhum índice atende. Guardamos o instante já convertido ao lado do
+-- valor local, mantido por trigger, e indexamos (instante, sch_id) para que as
+-- consultas por intervalo virem range scans.
+
+-- RDATEs
+ALTER TABLE tb_srd_schedule_rdate
+  ADD COLUMN IF NOT EXISTS srd_rdate_utc timestamptz;
+
+UPDATE tb_srd_schedule_rdate r
+   SET srd_rdate_utc = r.srd_rdate_local AT TIME ZONE s.sch_tzid
+  FROM tb_sch_schedule s
+ WHERE s.sch_id = r.sch_id;
+
+ALTER TABLE tb_srd_schedule_rdate
+  ALTER COLUMN srd_rdate_utc SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_srd_rdate_utc
+  ON tb_srd_schedule_rdate (srd_rdate_utc, sch_id);
+
+CREATE OR REPLACE FUNCTION set_srd_rdate_utc() RETURNS trigger AS $$
+BEGIN
+  SELECT NEW.srd_rdate_local AT TIME ZONE s.sch_tzid
+    INTO NEW.srd_rdate_utc
+    FROM tb_sch_schedule s
+   WHERE s.sch_id = NEW.sch_id;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_tb_srd_schedule_rdate_utc ON tb_srd_schedule_rdate;
+CREATE TRIGGER trg_tb_srd_schedule_rdate_utc
+BEFORE INSERT OR UPDATE OF srd_rdate_local, sch_id ON tb_srd_schedule_rdate
+FOR EACH ROW
+EXECUTE FUNCTION set_srd_rdate_utc();
+
+-- OVERRIDES (novo início)
+ALTER TABLE tb_sov_schedule_override
+  ADD COLUMN IF NOT EXISTS sov_new_start_utc timestamptz;
+
+UPDATE tb_sov_schedule_override o
+   SET sov_new_start_utc = o.sov_new_start_local AT TIME ZONE s.sch_tzid
+  FROM tb_sch_schedule s
+ WHERE s.sch_id = o.sch_id;
+
+ALTER TABLE tb_sov_schedule_override
+  ALTER COLUMN sov_new_start_utc SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_sov_new_start_utc
+  ON tb_sov_schedule_override (sov_new_start_utc, sch_id);
+
+CREATE OR REPLACE FUNCTION set_sov_new_start_utc() RETURNS trigger AS $$
+BEGIN
+  SELECT NEW.sov_new_start_local AT TIME ZONE s.sch_tzid
+    INTO NEW.sov_new_start_utc
+    FROM tb_sch_schedule s
+   WHERE s.sch_id = NEW.sch_id;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_tb_sov_schedule_override_utc ON tb_sov_schedule_override;
+CREATE TRIGGER trg_tb_sov_schedule_override_utc
+BEFORE INSERT OR UPDATE OF sov_new_start_local, sch_id ON tb_sov_schedule_override
+FOR EACH ROW
+EXECUTE FUNCTION set_sov_new_start_utc();
@@ -0,0 +1,31 @@
+-- ===========================================
+-- Ocorrências materializadas: tb_soc_schedule_occurrence
+-- ===========================================
+-- Modo opcional (schedule.materialization.enabled): guarda as ocorrências já
+-- expandidas (RRULE - EXDATE + RDATE + OVERRIDE) dentro de um horizonte móvel, para
+-- que consultas dentro dele sejam um único range scan.
+CREATE TABLE IF NOT EXISTS tb_soc_schedule_occurrence (
+  sch_id               uuid        NOT NULL REFERENCES tb_sch_schedule(sch_id) ON DELETE CASCADE,
+  soc_start_utc        timestamptz NOT NULL,                       -- início da ocorrência (UTC)
+  soc_type             text        NOT NULL,                       -- SCHEDULE, RDATE ou OVERRIDE
+  soc_duration_seconds integer     NOT NULL CHECK (soc_duration_seconds > 0),
+
+  -- no máximo uma ocorrência por instante por schedule (mesma regra da expansão)
+  CONSTRAINT pk_soc_schedule_occurrence PRIMARY KEY (sch_id, soc_start_utc),
+  CONSTRAINT soc_type_valid CHECK (soc_type IN ('SCHEDULE', 'RDATE', 'OVERRIDE'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_soc_start_sch
+  ON tb_soc_schedule_occurrence (soc_start_utc, sch_id);
+
+-- ===========================================
+-- Horizonte materializado: tb_soh_occurrence_horizon (linha única)
+-- ===========================================
+CREATE TABLE IF NOT EXISTS tb_soh_occurrence_horizon (
+  soh_id           smallint    PRIMARY KEY CHECK (soh_id = 1),
+  soh_from_utc     timestamptz NOT NULL,
+  soh_until_utc    timestamptz NOT NULL,
+  soh_refreshed_at timestamptz NOT NULL DEFAULT now(),
+
+  CONSTRAINT soh_until_after_from CHECK (soh_until_utc > soh_from_utc)
+);
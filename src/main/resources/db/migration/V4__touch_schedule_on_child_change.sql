@@ -0,0 +1,107 @@
+-- ===========================================
+-- sch_updated_at como versão do schedule inteiro
+-- ===========================================
+-- Mudanças em EXDATEs, RDATEs e OVERRIDES também alteram o .ics e o JSON do
+-- schedule, então atualizam o sch_updated_at do pai (que vira o ETag). Os triggers
+-- são por statement, com transition tables: um UPDATE no pai por statement, não por
+-- linha filha, e cada schedule tocado uma única vez. O UPDATE passa pelo trigger
+-- trg_tb_sch_schedule_updated, que grava now().
+-- Transition tables não podem ser usadas em triggers de mais de um evento, por isso
+-- há um trigger por evento e tabela.
+
+CREATE OR REPLACE FUNCTION touch_schedule_from_new_rows() RETURNS trigger AS $$
+BEGIN
+  UPDATE tb_sch_schedule s
+     SET sch_updated_at = now()
+   WHERE s.sch_id IN (SELECT n.sch_id FROM new_rows n);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION touch_schedule_from_old_rows() RETURNS trigger AS $$
+BEGIN
+  -- em DELETE por cascata o pai já não existe e o UPDATE não encontra nada
+  UPDATE tb_sch_schedule s
+     SET sch_updated_at = now()
+   WHERE s.sch_id IN (SELECT o.sch_id FROM old_rows o);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- UPDATE pode mover a linha de schedule (sch_id): toca o antigo e o novo
+CREATE OR REPLACE FUNCTION touch_schedule_from_changed_rows() RETURNS trigger AS $$
+BEGIN
+  UPDATE tb_sch_schedule s
+     SET sch_updated_at = now()
+   WHERE s.sch_id IN (SELECT n.sch_id FROM new_rows n
+                      UNION
+                      SELECT o.sch_id FROM old_rows o);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- EXDATEs
+DROP TRIGGER IF EXISTS trg_tb_sex_schedule_exdate_touch_ins ON tb_sex_schedule_exdate;
+CREATE TRIGGER trg_tb_sex_schedule_exdate_touch_ins
+AFTER INSERT ON tb_sex_schedule_exdate
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_new_rows();
+
+DROP TRIGGER IF EXISTS trg_tb_sex_schedule_exdate_touch_upd ON tb_sex_schedule_exdate;
+CREATE TRIGGER trg_tb_sex_schedule_exdate_touch_upd
+AFTER UPDATE ON tb_sex_schedule_exdate
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_changed_rows();
+
+DROP TRIGGER IF EXISTS trg_tb_sex_schedule_exdate_touch_del ON tb_sex_schedule_exdate;
+CREATE TRIGGER trg_tb_sex_schedule_exdate_touch_del
+AFTER DELETE ON tb_sex_schedule_exdate
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_old_rows();
+
+-- RDATEs
+DROP TRIGGER IF EXISTS trg_tb_srd_schedule_rdate_touch_ins ON tb_srd_schedule_rdate;
+CREATE TRIGGER trg_tb_srd_schedule_rdate_touch_ins
+AFTER INSERT ON tb_srd_schedule_rdate
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_new_rows();
+
+DROP TRIGGER IF EXISTS trg_tb_srd_schedule_rdate_touch_upd ON tb_srd_schedule_rdate;
+CREATE TRIGGER trg_tb_srd_schedule_rdate_touch_upd
+AFTER UPDATE ON tb_srd_schedule_rdate
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_changed_rows();
+
+DROP TRIGGER IF EXISTS trg_tb_srd_schedule_rdate_touch_del ON tb_srd_schedule_rdate;
+CREATE TRIGGER trg_tb_srd_schedule_rdate_touch_del
+AFTER DELETE ON tb_srd_schedule_rdate
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_old_rows();
+
+-- OVERRIDES
+DROP TRIGGER IF EXISTS trg_tb_sov_schedule_override_touch_ins ON tb_sov_schedule_override;
+CREATE TRIGGER trg_tb_sov_schedule_override_touch_ins
+AFTER INSERT ON tb_sov_schedule_override
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_new_rows();
+
+DROP TRIGGER IF EXISTS trg_tb_sov_schedule_override_touch_upd ON tb_sov_schedule_override;
+CREATE TRIGGER trg_tb_sov_schedule_override_touch_upd
+AFTER UPDATE ON tb_sov_schedule_override
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_changed_rows();
+
+DROP TRIGGER IF EXISTS trg_tb_sov_schedule_override_touch_del ON tb_sov_schedule_override;
+CREATE TRIGGER trg_tb_sov_schedule_override_touch_del
+AFTER DELETE ON tb_sov_schedule_override
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION touch_schedule_from_old_rows();
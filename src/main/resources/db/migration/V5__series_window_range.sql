@@ -0,0 +1,22 @@
+-- ===========================================
+-- Janela da série como tstzrange, com índice GiST
+-- ===========================================
+-- O filtro de candidatos (início <= :to AND (fim IS NULL OR fim >= :from)) só
+-- conseguia usar um dos dois B-trees (idx_sch_start_utc ou idx_sch_until_utc): numa
+-- janela no passado recente quase toda a tabela satisfaz cada metade sozinha e a
+-- consulta vira seq scan. A janela passa a ser uma coluna gerada (fechada nas duas
+-- pontas, como a comparação original; sem fim quando sch_series_until_utc é NULL)
+-- e o filtro vira sch_series_window && tstzrange(:from, :to, '[]'), atendido por um
+-- único índice GiST. sch_until_after_start garante que o range é sempre válido.
+-- ADD COLUMN ... STORED reescreve a tabela: em bases grandes, rodar fora do pico.
+
+ALTER TABLE tb_sch_schedule
+  ADD COLUMN IF NOT EXISTS sch_series_window tstzrange
+  GENERATED ALWAYS AS (tstzrange(sch_series_start_utc, sch_series_until_utc, '[]')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_sch_series_window
+  ON tb_sch_schedule USING GIST (sch_series_window);
+
+-- sem outro uso além do filtro de candidatos
+DROP INDEX IF EXISTS idx_sch_start_utc;
+DROP INDEX IF EXISTS idx_sch_until_utc;
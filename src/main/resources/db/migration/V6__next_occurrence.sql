@@ -0,0 +1,35 @@
+-- ===========================================
+-- Próxima ocorrência de cada schedule: sch_next_occurrence_utc
+-- ===========================================
+-- Início da primeira ocorrência a partir do instante em que foi calculada (na
+-- alteração do schedule ou no job que recalcula as que já passaram), ou, sem
+-- ocorrência dentro do horizonte, o fim dele. É sempre um limite inferior da
+-- próxima ocorrência, então o feed de próximas ocorrências lê os schedules em
+-- ordem desta coluna e para assim que o que já tem vem antes do próximo valor.
+-- NULL: a série acabou e não há RDATE/OVERRIDE depois do cálculo.
+
+ALTER TABLE tb_sch_schedule
+  ADD COLUMN IF NOT EXISTS sch_next_occurrence_utc timestamptz;
+
+-- Recalcular a próxima ocorrência não é uma alteração do schedule: o trigger de
+-- sch_updated_at (que vira o ETag) só dispara para as demais colunas
+DROP TRIGGER IF EXISTS trg_tb_sch_schedule_updated ON tb_sch_schedule;
+CREATE TRIGGER trg_tb_sch_schedule_updated
+BEFORE UPDATE OF sch_id, sch_rrule_json, sch_tzid, sch_series_start_local, sch_series_start_utc,
+                 sch_series_until_utc, sch_duration_seconds, sch_summary, sch_notes,
+                 sch_has_exdates, sch_has_rdates, sch_has_overrides, sch_created_at, sch_updated_at
+ON tb_sch_schedule
+FOR EACH ROW
+EXECUTE FUNCTION set_updated_at();
+
+-- Valor inicial: o menor início possível (série, RDATEs, OVERRIDES), que já é um
+-- limite inferior válido; o job o troca pela próxima ocorrência real
+UPDATE tb_sch_schedule s
+   SET sch_next_occurrence_utc = LEAST(
+         s.sch_series_start_utc,
+         (SELECT min(r.srd_rdate_utc) FROM tb_srd_schedule_rdate r WHERE r.sch_id = s.sch_id),
+         (SELECT min(o.sov_new_start_utc) FROM tb_sov_schedule_override o WHERE o.sch_id = s.sch_id));
+
+CREATE INDEX IF NOT EXISTS idx_sch_next_occurrence
+  ON tb_sch_schedule (sch_next_occurrence_utc, sch_id)
+  WHERE sch_next_occurrence_utc IS NOT NULL;
@@ -0,0 +1,26 @@
+-- ===========================================
+-- Área de trabalho do import .ics (por importação, sis/sio_import_id)
+-- ===========================================
+-- O import não guarda o arquivo em memória: cada série gravada registra aqui o
+-- seu UID, e os VEVENTs com RECURRENCE-ID cujo mestre não está à mão (ainda não
+-- lido, ou já fora do cache de séries recentes) são guardados como JSON. No fim,
+-- um join por UID liga cada um ao seu mestre; as linhas da importação são apagadas.
+-- UNLOGGED: dado temporário, sem custo de WAL (e esvaziado após um crash do banco).
+CREATE UNLOGGED TABLE IF NOT EXISTS tb_sis_import_series (
+  sis_import_id        uuid    NOT NULL,
+  sis_uid              text    NOT NULL,                  -- UID do VEVENT mestre
+  sch_id               uuid    NOT NULL,                  -- schedule gravado (o último, se o UID se repetir)
+  sis_tzid             text    NOT NULL,
+  sis_duration_seconds integer NOT NULL,
+
+  CONSTRAINT pk_sis_import_series PRIMARY KEY (sis_import_id, sis_uid)
+);
+
+CREATE UNLOGGED TABLE IF NOT EXISTS tb_sio_import_orphan (
+  sio_import_id uuid    NOT NULL,
+  sio_index     integer NOT NULL,                         -- posição do VEVENT no arquivo
+  sio_uid       text    NOT NULL,
+  sio_event     jsonb   NOT NULL,                         -- propriedades do VEVENT
+
+  CONSTRAINT pk_sio_import_orphan PRIMARY KEY (sio_import_id, sio_index)
+);
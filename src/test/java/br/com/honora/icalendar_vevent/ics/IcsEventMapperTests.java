@@ -0,0 +1,89 @@
+package br.com.honora.icalendar_vevent.ics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+
+class IcsEventMapperTests {
+
+	private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+	@Test
+	void mapsMasterEventWithFoldedLinesIntoAScheduleRequest() throws Exception {
+		IcsEvent master = readSingle(
+				"BEGIN:VEVENT",
+				"UID:1",
+				"SUMMARY:Reunião\\; sema",
+				" nal",
+				"DTSTART;TZID=America/Sao_Paulo:20250904T150000",
+				"DTEND;TZID=America/Sao_Paulo:20250904T163000",
+				"RRULE:FREQ=WEEKLY;BYDAY=TH;UNTIL=20251231T235959Z",
+				"EXDATE;TZID=America/Sao_Paulo:20250911T150000,20250918T150000",
+				"EXDATE:20250925T180000Z",
+				"END:VEVENT");
+
+		ScheduleRequest req = IcsEventMapper.toScheduleRequest(master);
+
+		assertThat(req.getSummary()).isEqualTo("Reunião; semanal");
+		assertThat(req.getTzid()).isEqualTo("America/Sao_Paulo");
+		assertThat(req.getSeriesStartUtc()).isAtSameInstantAs(OffsetDateTime.parse("2025-09-04T18:00:00Z"));
+		assertThat(req.getDurationSeconds()).isEqualTo(5400);
+		assertThat(req.getRrule().toString())
+				.isEqualTo("{\"freq\":\"WEEKLY\",\"byday\":[\"TH\"],\"until_utc\":\"2025-12-31T23:59:59Z\"}");
+		assertThat(req.getSeriesUntilUtc()).isEqualTo(OffsetDateTime.parse("2025-12-31T23:59:59Z"));
+		assertThat(req.getExdates()).extracting(ScheduleExdateRequest::getExdateLocal).containsExactly(
+				LocalDateTime.of(2025, 9, 11, 15, 0),
+				LocalDateTime.of(2025, 9, 18, 15, 0),
+				LocalDateTime.of(2025, 9, 25, 15, 0));
+	}
+
+	@Test
+	void mapsRecurrenceIdEventIntoTheSeriesZone() throws Exception {
+		IcsEvent override = readSingle(
+				"BEGIN:VEVENT",
+				"UID:1",
+				"RECURRENCE-ID;TZID=America/Sao_Paulo:20251002T150000",
+				"DTSTART:20251002T200000Z",
+				"DURATION:P1W",
+				"END:VEVENT");
+
+		ScheduleOverrideRequest req = IcsEventMapper.toOverrideRequest(override, SAO_PAULO);
+
+		assertThat(req.getRecurrenceIdLocal()).isEqualTo(LocalDateTime.of(2025, 10, 2, 15, 0));
+		assertThat(req.getNewStartLocal()).isEqualTo(LocalDateTime.of(2025, 10, 2, 17, 0));
+		assertThat(req.getNewDurationSeconds()).isEqualTo(7 * 86_400);
+	}
+
+	@Test
+	void rejectsRulePartsTheStoredJsonCannotRepresent() throws Exception {
+		IcsEvent master = readSingle(
+				"BEGIN:VEVENT",
+				"DTSTART:20250901T120000Z",
+				"DURATION:PT1H",
+				"RRULE:FREQ=MONTHLY;BYMONTHDAY=1",
+				"END:VEVENT");
+
+		assertThatThrownBy(() -> IcsEventMapper.toScheduleRequest(master))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Unsupported RRULE part: BYMONTHDAY=1");
+	}
+
+	private static IcsEvent readSingle(String... lines) throws Exception {
+		try (IcsReader reader = new IcsReader(new StringReader(String.join("\r\n", lines) + "\r\n"))) {
+			IcsEvent event = reader.nextEvent();
+			assertThat(reader.nextEvent()).isNull();
+			return event;
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+package br.com.honora.icalendar_vevent.ics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.dto.response.BusyIntervalResponse;
+
+class IcsWriterTests {
+
+	@Test
+	void writesMasterEventWithSortedExdatesAndOneEventPerOverride() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2025, 9, 4, 15, 0);
+		Schedule s = Schedule.builder()
+				.id(UUID.fromString("6f1c2d3e-0000-4000-8000-000000000001"))
+				.tzid("America/Sao_Paulo")
+				.seriesStartLocal(start)
+				.seriesStartUtc(OffsetDateTime.parse("2025-09-04T18:00:00Z"))
+				.durationSeconds(5400)
+				.summary("Reunião; semanal")
+				.hasExdates(true)
+				.hasOverrides(true)
+				.build();
+		s.addExdate(ScheduleExdate.builder().id(UUID.randomUUID()).exdateLocal(start.plusWeeks(2)).build());
+		s.addExdate(ScheduleExdate.builder().id(UUID.randomUUID()).exdateLocal(start.plusWeeks(1)).build());
+		s.addOverride(ScheduleOverride.builder()
+				.id(UUID.randomUUID())
+				.recurrenceIdLocal(start.plusWeeks(3))
+				.newStartLocal(start.plusWeeks(3).plusHours(1))
+				.build());
+
+		StringBuilder sb = new StringBuilder();
+		IcsWriter ics = new IcsWriter(sb, Instant.parse("2025-01-01T12:00:00Z"));
+		ics.beginCalendar();
+		ics.writeSchedule(s, "FREQ=WEEKLY;BYDAY=TH");
+		ics.endCalendar();
+
+		assertThat(sb.toString())
+				.startsWith("BEGIN:VCALENDAR\r\n")
+				.contains("UID:6f1c2d3e-0000-4000-8000-000000000001@icalendar-vevent\r\n")
+				.contains("DTSTAMP:20250101T120000Z\r\n")
+				.contains("SUMMARY:Reunião\\; semanal\r\n")
+				.contains("DTSTART;TZID=America/Sao_Paulo:20250904T150000\r\n")
+				.contains("DURATION:PT1H30M\r\n")
+				.contains("RRULE:FREQ=WEEKLY;BYDAY=TH\r\n")
+				.contains("EXDATE;TZID=America/Sao_Paulo:20250911T150000,20250918T150000\r\n")
+				.contains("RECURRENCE-ID;TZID=America/Sao_Paulo:20250925T150000\r\n"
+						+ "DTSTART;TZID=America/Sao_Paulo:20250925T160000\r\n"
+						+ "DURATION:PT1H30M\r\n")
+				.endsWith("END:VEVENT\r\n\r\nEND:VCALENDAR\r\n");
+	}
+
+	@Test
+	void writesOneFreeBusyLinePerIntervalInUtc() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		IcsWriter ics = new IcsWriter(sb, Instant.parse("2025-01-01T12:00:00Z"));
+		ics.writeFreeBusy(OffsetDateTime.parse("2025-01-06T00:00:00-03:00"), OffsetDateTime.parse("2025-01-07T00:00:00-03:00"),
+				List.of(new BusyIntervalResponse(OffsetDateTime.parse("2025-01-06T08:00:00-03:00"),
+						OffsetDateTime.parse("2025-01-06T10:30:00-03:00")),
+						new BusyIntervalResponse(OffsetDateTime.parse("2025-01-06T14:00:00Z"),
+								OffsetDateTime.parse("2025-01-06T15:00:00Z"))));
+
+		assertThat(sb.toString())
+				.startsWith("BEGIN:VFREEBUSY\r\nUID:")
+				.contains("DTSTAMP:20250101T120000Z\r\n"
+						+ "DTSTART:20250106T030000Z\r\n"
+						+ "DTEND:20250107T030000Z\r\n"
+						+ "FREEBUSY;FBTYPE=BUSY:20250106T110000Z/20250106T133000Z\r\n"
+						+ "FREEBUSY;FBTYPE=BUSY:20250106T140000Z/20250106T150000Z\r\n")
+				.endsWith("END:VFREEBUSY\r\n");
+	}
+
+}
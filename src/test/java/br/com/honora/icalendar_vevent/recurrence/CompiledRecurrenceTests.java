@@ -0,0 +1,76 @@
+package br.com.honora.icalendar_vevent.recurrence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class CompiledRecurrenceTests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+	private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo"); // ainda com horário de verão em 2017/2018
+
+	@Test
+	void ical4jFallbackMatchesTheNativePathAcrossDst() throws Exception {
+		List<String> rules = List.of(
+				"{\"freq\":\"DAILY\"}",
+				"{\"freq\":\"DAILY\",\"interval\":3,\"count\":100}",
+				"{\"freq\":\"WEEKLY\",\"interval\":2,\"byday\":[\"MO\",\"WE\",\"FR\"]}",
+				"{\"freq\":\"WEEKLY\",\"until_utc\":\"2018-04-01T00:00:00Z\"}",
+				"{\"freq\":\"MONTHLY\"}");
+		for (ZoneId zone : List.of(BERLIN, SAO_PAULO)) {
+			for (String json : rules) {
+				JsonNode rr = MAPPER.readTree(json);
+				LocalDateTime start = LocalDateTime.of(2017, 9, 4, 8, 30); // segunda-feira: BYDAY não depende do WKST
+				CompiledRecurrence nativePath = CompiledRecurrence.compile(rr, start, zone);
+				CompiledRecurrence fallback = CompiledRecurrence.compileWithIcal4j(rr,
+						CompiledRecurrence.toRruleString(rr), start, zone);
+				long from = epoch("2017-10-01T00:00:00Z");
+				long to = epoch("2018-11-30T00:00:00Z");
+
+				assertThat(nativePath.getWindowed()).as(json).isNotNull();
+				assertThat(fallback.getWindowed()).isNull();
+				assertThat(fallback.expand(from, to)).as("%s in %s", json, zone)
+						.isNotEmpty()
+						.containsExactly(nativePath.expand(from, to));
+			}
+		}
+	}
+
+	@Test
+	void fallbackOnlyRuleKeepsTheLocalTimeInBothOffsets() throws Exception {
+		JsonNode rr = MAPPER.readTree("{\"freq\":\"MONTHLY\",\"byday\":[\"-1SU\"]}");
+		CompiledRecurrence recurrence = CompiledRecurrence.compile(rr, LocalDateTime.of(2025, 1, 26, 9, 0), BERLIN);
+
+		long[] starts = recurrence.expand(epoch("2025-01-01T00:00:00Z"), epoch("2025-12-31T23:59:59Z"));
+
+		List<Long> expected = new ArrayList<>();
+		for (int month = 1; month <= 12; month++) {
+			LocalDate lastSunday = YearMonth.of(2025, month).atEndOfMonth()
+					.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+			expected.add(lastSunday.atTime(LocalTime.of(9, 0)).atZone(BERLIN).toEpochSecond());
+		}
+		assertThat(recurrence.getWindowed()).isNull();
+		assertThat(starts).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+		assertThat(starts[2]).isEqualTo(epoch("2025-03-30T07:00:00Z")); // dia da mudança para +02:00
+		assertThat(starts[9]).isEqualTo(epoch("2025-10-26T08:00:00Z")); // e da volta para +01:00
+	}
+
+	private static long epoch(String instant) {
+		return Instant.parse(instant).getEpochSecond();
+	}
+}
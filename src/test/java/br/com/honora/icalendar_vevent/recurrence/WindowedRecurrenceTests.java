@@ -0,0 +1,102 @@
+package br.com.honora.icalendar_vevent.recurrence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.fortuna.ical4j.model.DateList;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Recur;
+import net.fortuna.ical4j.model.parameter.Value;
+
+class WindowedRecurrenceTests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+	@Test
+	void dailySeriesFromYearsAgoYieldsOnlyTheWindow() throws Exception {
+		WindowedRecurrence recurrence = WindowedRecurrence.compile(
+				rule("{\"freq\":\"DAILY\",\"interval\":1}"), LocalDateTime.of(2015, 3, 2, 8, 0), SAO_PAULO);
+
+		long[] starts = recurrence.expand(epoch("2025-09-01T00:00:00Z"), epoch("2025-09-30T23:59:59Z"));
+
+		assertThat(starts).hasSize(30);
+		assertThat(Arrays.stream(starts).mapToObj(e -> LocalDateTime.ofInstant(Instant.ofEpochSecond(e), SAO_PAULO)))
+				.allMatch(ldt -> ldt.getHour() == 8 && ldt.getMinute() == 0);
+		assertThat(starts[0]).isEqualTo(epoch("2025-09-01T11:00:00Z"));
+	}
+
+	@Test
+	void weeklyByDayWithCountMatchesIcal4j() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2019, 1, 9, 7, 30);
+		WindowedRecurrence recurrence = WindowedRecurrence.compile(
+				rule("{\"freq\":\"WEEKLY\",\"interval\":2,\"byday\":[\"MO\",\"WE\",\"FR\"],\"count\":200}"),
+				start, ZoneOffset.UTC);
+
+		long from = epoch("2020-02-01T00:00:00Z");
+		long to = epoch("2020-12-31T00:00:00Z");
+
+		assertThat(recurrence.expand(from, to))
+				.containsExactly(ical4j("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR;WKST=MO;COUNT=200", start, from, to));
+	}
+
+	@Test
+	void monthlyOnThe31stSkipsShorterMonths() throws Exception {
+		WindowedRecurrence recurrence = WindowedRecurrence.compile(
+				rule("{\"freq\":\"MONTHLY\",\"until_utc\":\"2025-12-31T00:00:00Z\"}"),
+				LocalDateTime.of(2024, 1, 31, 20, 0), ZoneOffset.UTC);
+
+		long[] starts = recurrence.expand(epoch("2025-01-01T00:00:00Z"), epoch("2026-12-31T00:00:00Z"));
+
+		assertThat(starts).containsExactly(
+				epoch("2025-01-31T20:00:00Z"), epoch("2025-03-31T20:00:00Z"), epoch("2025-05-31T20:00:00Z"),
+				epoch("2025-07-31T20:00:00Z"), epoch("2025-08-31T20:00:00Z"), epoch("2025-10-31T20:00:00Z"));
+	}
+
+	@Test
+	void rulesOutsideTheSubsetAreLeftToIcal4j() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+		assertThat(WindowedRecurrence.compile(rule("{\"freq\":\"MONTHLY\",\"byday\":[\"1MO\"]}"), start, SAO_PAULO))
+				.isNull();
+		assertThat(WindowedRecurrence.compile(rule("{\"freq\":\"YEARLY\",\"byday\":[\"MO\"]}"), start, SAO_PAULO))
+				.isNull();
+	}
+
+	private static JsonNode rule(String json) throws Exception {
+		return MAPPER.readTree(json);
+	}
+
+	private static long epoch(String instant) {
+		return Instant.parse(instant).getEpochSecond();
+	}
+
+	private static long[] ical4j(String rrule, LocalDateTime startUtc, long from, long to) throws Exception {
+		DateTime seed = utc(startUtc.toEpochSecond(ZoneOffset.UTC));
+		DateList dates = new Recur(rrule).getDates(seed, utc(from), utc(to), Value.DATE_TIME);
+		long[] starts = new long[dates.size()];
+		int i = 0;
+		for (Object date : dates) {
+			starts[i++] = ((DateTime) date).getTime() / 1000;
+		}
+		return starts;
+	}
+
+	private static DateTime utc(long epochSecond) {
+		DateTime dt = new DateTime(Date.from(Instant.ofEpochSecond(epochSecond)));
+		dt.setUtc(true);
+		return dt;
+	}
+
+}
@@ -0,0 +1,92 @@
+package br.com.honora.icalendar_vevent.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks the plans of the occurrence candidate queries against a 1M-row fixture.
+ * Seeding takes a few minutes, so it only runs with -Dexplain.fixture=true; the
+ * fixture is rolled back with the test transaction.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "explain.fixture", matches = "true")
+@Sql("/explain/candidate-ids-1m.sql")
+class ScheduleRepositoryExplainTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ScheduleRepositoryExplainTests.class);
+
+	// ramo da janela da série em findCandidateIdsInWindow, antes e depois da V5
+	private static final String SERIES_WINDOW_BOUNDS = """
+			SELECT s.sch_id
+			FROM tb_sch_schedule s
+			WHERE s.sch_series_start_utc <= :to
+				AND (s.sch_series_until_utc IS NULL OR s.sch_series_until_utc >= :from)
+			""";
+	private static final String SERIES_WINDOW_RANGE = """
+			SELECT s.sch_id
+			FROM tb_sch_schedule s
+			WHERE s.sch_series_window && tstzrange(CAST(:from AS timestamptz), CAST(:to AS timestamptz), '[]')
+			""";
+
+	private static final OffsetDateTime FROM = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+	private static final OffsetDateTime TO = OffsetDateTime.parse("2025-01-31T23:59:59Z");
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void candidateIdQueryHasNoSequentialScans() throws Exception {
+		String plan = explain("findCandidateIdsInWindow");
+
+		assertThat(plan).contains("idx_sch_series_window", "idx_srd_rdate_utc", "idx_sov_new_start_utc");
+		assertThat(plan).doesNotContain("Seq Scan");
+	}
+
+	@Test
+	void seriesWindowRangeMatchesTheSeparateBounds() {
+		// os B-trees removidos pela V5, só dentro da transação do teste, para comparar os planos
+		jdbcTemplate.getJdbcTemplate().execute("CREATE INDEX idx_tmp_sch_start_utc ON tb_sch_schedule (sch_series_start_utc)");
+		jdbcTemplate.getJdbcTemplate().execute("CREATE INDEX idx_tmp_sch_until_utc ON tb_sch_schedule (sch_series_until_utc)");
+		jdbcTemplate.getJdbcTemplate().execute("ANALYZE tb_sch_schedule");
+		Map<String, OffsetDateTime> params = Map.of("from", FROM, "to", TO);
+
+		List<UUID> byRange = jdbcTemplate.queryForList(SERIES_WINDOW_RANGE, params, UUID.class);
+		List<UUID> byBounds = jdbcTemplate.queryForList(SERIES_WINDOW_BOUNDS, params, UUID.class);
+
+		assertThat(byRange).isNotEmpty().containsExactlyInAnyOrderElementsOf(byBounds);
+		log.info("tstzrange && (GiST):\n{}", explainAnalyze(SERIES_WINDOW_RANGE));
+		log.info("start/until bounds (B-trees):\n{}", explainAnalyze(SERIES_WINDOW_BOUNDS));
+	}
+
+	// Explains the native SQL declared on the repository method, binding :from/:to
+	private String explain(String repositoryMethod) throws NoSuchMethodException {
+		String sql = ScheduleRepository.class
+				.getMethod(repositoryMethod, OffsetDateTime.class, OffsetDateTime.class)
+				.getAnnotation(Query.class)
+				.value();
+		return String.join("\n",
+				jdbcTemplate.queryForList("EXPLAIN " + sql, Map.of("from", FROM, "to", TO), String.class));
+	}
+
+	private String explainAnalyze(String sql) {
+		return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql,
+				Map.of("from", FROM, "to", TO), String.class));
+	}
+
+}
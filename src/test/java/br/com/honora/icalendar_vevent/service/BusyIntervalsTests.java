@@ -0,0 +1,55 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.honora.icalendar_vevent.dto.response.BusyIntervalResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+class BusyIntervalsTests {
+
+	private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+	private static final UUID SECOND = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+	@Test
+	void mergesOverlappingAndTouchingOccurrencesAndClipsToTheWindow() {
+		List<ScheduleOccurrenceResponse> byStart = List.of(
+				occ(FIRST, "07:00", 7200), // começa antes da janela, termina dentro
+				occ(SECOND, "08:30", 1800), // toca o anterior (09:00)
+				occ(FIRST, "09:00", 600),
+				occ(SECOND, "09:05", 60), // contido
+				occ(FIRST, "12:00", 3600),
+				occ(SECOND, "17:30", 3600)); // termina depois da janela
+
+		List<String> busy = BusyIntervals.merge(byStart.iterator(), at("08:00"), at("18:00")).stream()
+				.map(BusyIntervalsTests::format)
+				.toList();
+
+		assertThat(busy).containsExactly("08:00-09:10", "12:00-13:00", "17:30-18:00");
+	}
+
+	@Test
+	void occurrencesEndingBeforeTheWindowAreIgnored() {
+		List<BusyIntervalResponse> busy = BusyIntervals.merge(
+				List.of(occ(FIRST, "06:00", 3600), occ(FIRST, "07:00", 3600)).iterator(), at("08:00"), at("18:00"));
+
+		assertThat(busy).isEmpty();
+	}
+
+	private static ScheduleOccurrenceResponse occ(UUID scheduleId, String time, int durationSeconds) {
+		return new ScheduleOccurrenceResponse(scheduleId, "SCHEDULE", at(time), durationSeconds, null, null);
+	}
+
+	private static OffsetDateTime at(String time) {
+		return OffsetDateTime.parse("2025-01-06T" + time + ":00Z");
+	}
+
+	private static String format(BusyIntervalResponse b) {
+		return b.getStart().toLocalTime() + "-" + b.getEnd().toLocalTime();
+	}
+}
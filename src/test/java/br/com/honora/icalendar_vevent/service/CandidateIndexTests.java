@@ -0,0 +1,164 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleWindowJdbcRepository;
+
+@SpringBootTest(properties = "schedule.candidate-index.enabled=true")
+class CandidateIndexTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2098, 3, 1, 9, 0);
+	private static final String FROM = "2098-03-01T00:00:00Z";
+	private static final String TO = "2098-03-31T23:59:59Z";
+
+	@Autowired
+	private CandidateIndex candidateIndex;
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	@Autowired
+	private OccurrenceExpander occurrenceExpander;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@MockitoSpyBean
+	private ScheduleWindowJdbcRepository windowRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void changesAreOverlaidUntilTheIndexIsRebuilt() {
+		UUID daily = create(START, 10);
+		UUID later = create(START.plusMonths(2), 3);
+		// as releituras depois do commit ficam na camada pendente
+		assertThat(candidateIndex.pendingCount()).isPositive();
+		assertThat(indexedCandidates()).containsExactly(daily);
+		assertOccurrencesMatchTheDatabasePath();
+
+		// um override traz uma instância da série de maio para a janela
+		scheduleService.putOverride(later, START.plusMonths(2).plusDays(1).toString(), ScheduleOverrideRequest.builder()
+				.newStartLocal(START.plusDays(19).withHour(10))
+				.build());
+		scheduleService.putExdate(daily, START.plusDays(2).toString());
+		assertThat(indexedCandidates()).containsExactlyInAnyOrder(daily, later);
+		assertOccurrencesMatchTheDatabasePath();
+
+		// passar de MAX_PENDING reconstrói o índice base com tudo o que já foi relido
+		List<UUID> unknown = Stream.generate(UUID::randomUUID).limit(CandidateIndex.MAX_PENDING + 1).toList();
+		candidateIndex.onScheduleChanged(ScheduleChangedEvent.of(unknown));
+		assertThat(candidateIndex.pendingCount()).isZero();
+		assertThat(indexedCandidates()).containsExactlyInAnyOrder(daily, later);
+		assertOccurrencesMatchTheDatabasePath();
+	}
+
+	@Test
+	void deleteAllEventReloadsTheIndexFromTheDatabase() throws Exception {
+		UUID daily = create(START, 10);
+
+		// o schedule ainda existe: a releitura completa, em segundo plano, o mantém
+		candidateIndex.onScheduleChanged(ScheduleChangedEvent.ofAllSchedules());
+		candidateIndex.awaitReloads();
+
+		assertThat(candidateIndex.pendingCount()).isZero();
+		assertThat(indexedCandidates()).containsExactly(daily);
+		assertOccurrencesMatchTheDatabasePath();
+	}
+
+	@Test
+	void failedReloadKeepsTheIndexAndLetsTheNextOneRun() {
+		UUID daily = create(START, 10);
+		doThrow(new DataAccessResourceFailureException("connection lost")).doCallRealMethod()
+				.when(windowRepository).forEachWindow(any(ScheduleWindowJdbcRepository.WindowHandler.class));
+
+		assertThatThrownBy(candidateIndex::reload).isInstanceOf(DataAccessResourceFailureException.class);
+		// a falha não deixa a carga marcada como em andamento: as alterações seguem aplicadas
+		UUID later = create(START.plusDays(5), 3);
+		assertThat(indexedCandidates()).containsExactlyInAnyOrder(daily, later);
+
+		candidateIndex.reload();
+		assertThat(candidateIndex.pendingCount()).isZero();
+		assertThat(indexedCandidates()).containsExactlyInAnyOrder(daily, later);
+		assertOccurrencesMatchTheDatabasePath();
+	}
+
+	private List<UUID> indexedCandidates() {
+		List<UUID> indexed = candidateIndex.findIndexed(OffsetDateTime.parse(FROM), OffsetDateTime.parse(TO))
+				.orElseThrow();
+		return indexed.stream().filter(created::contains).toList();
+	}
+
+	// /occurrences pelo índice é igual à expansão dos candidatos lidos do banco
+	private void assertOccurrencesMatchTheDatabasePath() {
+		OffsetDateTime from = OffsetDateTime.parse(FROM);
+		OffsetDateTime to = OffsetDateTime.parse(TO);
+		List<UUID> stored = scheduleRepository.findCandidateIdsInWindow(from, to).stream()
+				.filter(created::contains)
+				.toList();
+		assertThat(indexedCandidates()).containsExactlyInAnyOrderElementsOf(stored);
+
+		List<ScheduleOccurrenceResponse> viaDatabase = transactionTemplate.execute(status -> {
+			List<ScheduleOccurrenceResponse> result = new ArrayList<>();
+			for (Schedule s : scheduleRepository.findAllWithChildrenByIdIn(stored)) {
+				occurrenceExpander.iterator(s, from, to).forEachRemaining(result::add);
+			}
+			return result;
+		});
+		List<ScheduleOccurrenceResponse> viaIndex = scheduleService.findOccurrencesBetween(FROM, TO).stream()
+				.filter(o -> created.contains(o.getScheduleId()))
+				.toList();
+
+		assertThat(viaIndex).isNotEmpty()
+				.usingRecursiveFieldByFieldElementComparator()
+				.withComparatorForType(OffsetDateTime::compareTo, OffsetDateTime.class)
+				.containsExactlyInAnyOrderElementsOf(viaDatabase);
+	}
+
+	private UUID create(LocalDateTime start, int count) {
+		UUID id = scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", count))
+				.tzid("UTC")
+				.seriesStartLocal(start)
+				.seriesStartUtc(OffsetDateTime.of(start, ZoneOffset.UTC))
+				.durationSeconds(1800)
+				.build()).getId();
+		created.add(id);
+		return id;
+	}
+}
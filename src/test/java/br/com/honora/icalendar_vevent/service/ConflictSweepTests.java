@@ -0,0 +1,84 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.honora.icalendar_vevent.dto.response.BusyIntervalResponse;
+import br.com.honora.icalendar_vevent.dto.response.ConflictReportResponse;
+import br.com.honora.icalendar_vevent.dto.response.ConflictResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+class ConflictSweepTests {
+
+	private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+	private static final UUID SECOND = UUID.fromString("00000000-0000-0000-0000-000000000002");
+	private static final UUID THIRD = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+	private static final List<ScheduleOccurrenceResponse> BY_START = List.of(
+			occ(FIRST, "07:00", 3600),
+			occ(SECOND, "07:30", 7200), // sobrepõe FIRST só antes da janela
+			occ(THIRD, "08:30", 3600),
+			occ(FIRST, "09:30", 1800), // começa quando as outras terminam: sem conflito
+			occ(FIRST, "12:00", 3600),
+			occ(SECOND, "12:15", 1800),
+			occ(THIRD, "12:30", 600));
+
+	@Test
+	void reportsOnlyPairsOverlappingInsideTheWindow() {
+		ConflictReportResponse report = sweep(1, 100);
+
+		assertThat(report.getConflicts()).extracting(ConflictSweepTests::format).containsExactlyInAnyOrder(
+				"2@07:30 x 3@08:30 08:30-09:30",
+				"1@12:00 x 2@12:15 12:15-12:45",
+				"1@12:00 x 3@12:30 12:30-12:40",
+				"2@12:15 x 3@12:30 12:30-12:40");
+		assertThat(report.isTruncated()).isFalse();
+	}
+
+	@Test
+	void overCapacityRangesDependOnCapacity() {
+		assertThat(sweep(1, 100).getOverCapacity()).extracting(ConflictSweepTests::format)
+				.containsExactly("08:30-09:30", "12:15-12:45");
+		assertThat(sweep(2, 100).getOverCapacity()).extracting(ConflictSweepTests::format)
+				.containsExactly("12:30-12:40");
+	}
+
+	@Test
+	void pairsStopAtTheLimit() {
+		ConflictReportResponse report = sweep(1, 2);
+
+		assertThat(report.getConflicts()).hasSize(2);
+		assertThat(report.isTruncated()).isTrue();
+		assertThat(report.getOverCapacity()).hasSize(2);
+	}
+
+	private static ConflictReportResponse sweep(int capacity, int maxPairs) {
+		ConflictSweep sweep = new ConflictSweep(at("08:00"), at("18:00"), capacity, maxPairs);
+		BY_START.forEach(sweep::accept);
+		return sweep.finish();
+	}
+
+	private static ScheduleOccurrenceResponse occ(UUID scheduleId, String time, int durationSeconds) {
+		return new ScheduleOccurrenceResponse(scheduleId, "SCHEDULE", at(time), durationSeconds, null, null);
+	}
+
+	private static OffsetDateTime at(String time) {
+		return OffsetDateTime.parse("2025-01-06T" + time + ":00Z");
+	}
+
+	private static String format(ConflictResponse c) {
+		return c.getFirst().getScheduleId().toString().substring(35) + "@" + c.getFirst().getStart().toLocalTime()
+				+ " x " + c.getSecond().getScheduleId().toString().substring(35) + "@"
+				+ c.getSecond().getStart().toLocalTime() + " " + format(
+						new BusyIntervalResponse(c.getOverlapStart(), c.getOverlapEnd()));
+	}
+
+	private static String format(BusyIntervalResponse b) {
+		return b.getStart().toLocalTime() + "-" + b.getEnd().toLocalTime();
+	}
+}
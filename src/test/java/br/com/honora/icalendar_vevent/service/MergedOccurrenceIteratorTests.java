@@ -0,0 +1,59 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+
+class MergedOccurrenceIteratorTests {
+
+	private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+	private static final UUID SECOND = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+	@Test
+	void mergesSortedSourcesByStartThenSchedule() {
+		List<Iterator<ScheduleOccurrenceResponse>> sources = List.of(
+				List.of(occ(SECOND, "08:00"), occ(SECOND, "10:00")).iterator(),
+				List.<ScheduleOccurrenceResponse>of().iterator(),
+				List.of(occ(FIRST, "09:00"), occ(FIRST, "10:00"), occ(FIRST, "11:00")).iterator());
+
+		List<String> merged = new ArrayList<>();
+		new MergedOccurrenceIterator(sources)
+				.forEachRemaining(o -> merged.add(o.getStart().toLocalTime() + " " + o.getScheduleId().toString().substring(35)));
+
+		assertThat(merged).containsExactly("08:00 2", "09:00 1", "10:00 1", "10:00 2", "11:00 1");
+	}
+
+	@Test
+	void sourcesAddedLaterJoinTheMerge() {
+		MergedOccurrenceIterator merged = new MergedOccurrenceIterator(List.of());
+		assertThat(merged.hasNext()).isFalse();
+		assertThatThrownBy(merged::peek).isInstanceOf(NoSuchElementException.class);
+
+		merged.add(List.of(occ(FIRST, "09:00"), occ(FIRST, "11:00")).iterator());
+		merged.add(List.<ScheduleOccurrenceResponse>of().iterator());
+		assertThat(merged.peek().getStart().toLocalTime()).hasToString("09:00");
+		assertThat(merged.next().getStart().toLocalTime()).hasToString("09:00");
+
+		merged.add(List.of(occ(SECOND, "10:00")).iterator());
+		assertThat(merged.peek().getScheduleId()).isEqualTo(SECOND);
+		assertThat(merged.next().getScheduleId()).isEqualTo(SECOND);
+		assertThat(merged.next().getStart().toLocalTime()).hasToString("11:00");
+		assertThat(merged.hasNext()).isFalse();
+	}
+
+	private static ScheduleOccurrenceResponse occ(UUID scheduleId, String time) {
+		return new ScheduleOccurrenceResponse(scheduleId, "SCHEDULE",
+				OffsetDateTime.parse("2025-01-06T" + time + ":00Z"), 3600, null, null);
+	}
+
+}
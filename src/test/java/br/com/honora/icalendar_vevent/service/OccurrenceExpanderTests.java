@@ -0,0 +1,70 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleOverride;
+import br.com.honora.icalendar_vevent.domain.ScheduleRdate;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OccurrenceExpanderTests {
+
+	private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+	private static final LocalDateTime START = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+	private final OccurrenceExpander expander = new OccurrenceExpander(
+			new RecurrenceCache(1000, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+			new SimpleMeterRegistry());
+
+	@Test
+	void sameInstantKeepsOverrideThenRruleThenRdate() {
+		Schedule s = Schedule.builder()
+				.id(UUID.randomUUID())
+				.rruleJson(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 4))
+				.tzid(ZONE.getId())
+				.seriesStartLocal(START)
+				.seriesStartUtc(at(START))
+				.durationSeconds(3600)
+				.summary("série")
+				.build();
+		// RDATE no mesmo início de uma instância da regra: vale a da regra
+		s.addRdate(ScheduleRdate.builder().id(UUID.randomUUID()).rdateLocal(START).durationSeconds(600).build());
+		// RDATE sozinho
+		s.addRdate(ScheduleRdate.builder().id(UUID.randomUUID()).rdateLocal(START.plusDays(1).withHour(13))
+				.durationSeconds(600).build());
+		// OVERRIDE movido para cima de uma instância da regra e de um RDATE: vale o override
+		s.addOverride(ScheduleOverride.builder().id(UUID.randomUUID())
+				.recurrenceIdLocal(START.plusDays(1))
+				.newStartLocal(START.plusDays(2))
+				.newDurationSeconds(1800)
+				.summary("movida")
+				.build());
+		s.addRdate(ScheduleRdate.builder().id(UUID.randomUUID()).rdateLocal(START.plusDays(2)).durationSeconds(600)
+				.build());
+
+		assertThat(expander.expand(s, at(START.minusDays(1)), at(START.plusDays(7))))
+				.extracting(ScheduleOccurrenceResponse::getType, o -> o.getStart().toInstant(),
+						ScheduleOccurrenceResponse::getDurationSeconds, ScheduleOccurrenceResponse::getSummary)
+				.containsExactly(
+						tuple("SCHEDULE", at(START).toInstant(), 3600, "série"),
+						tuple("RDATE", at(START.plusDays(1).withHour(13)).toInstant(), 600, "série"),
+						tuple("OVERRIDE", at(START.plusDays(2)).toInstant(), 1800, "movida"),
+						tuple("SCHEDULE", at(START.plusDays(3)).toInstant(), 3600, "série"));
+	}
+
+	private static OffsetDateTime at(LocalDateTime local) {
+		return local.atZone(ZONE).toOffsetDateTime();
+	}
+}
@@ -0,0 +1,75 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest(properties = "schedule.materialization.enabled=true")
+class OccurrenceMaterializerTests {
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private OccurrenceMaterializer occurrenceMaterializer;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private UUID created;
+
+	@AfterEach
+	void cleanUp() {
+		if (created != null) {
+			scheduleRepository.deleteById(created);
+		}
+	}
+
+	@Test
+	void windowInsideHorizonIsServedFromMaterializedRowsAndFollowsMutations() {
+		LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS).plusDays(1).withHour(8);
+		created = scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 5))
+				.tzid("UTC")
+				.seriesStartLocal(start)
+				.seriesStartUtc(OffsetDateTime.of(start, ZoneOffset.UTC))
+				.durationSeconds(3600)
+				.summary("Plantão materializado")
+				.build()).getId();
+		OffsetDateTime from = OffsetDateTime.of(start.minusHours(1), ZoneOffset.UTC);
+		OffsetDateTime to = from.plusDays(7);
+
+		assertThat(occurrenceMaterializer.covers(from, to)).isTrue();
+		assertThat(startsOf(from, to)).hasSize(5);
+
+		scheduleService.putExdate(created, start.plusDays(2).toString());
+
+		assertThat(startsOf(from, to))
+				.hasSize(4)
+				.doesNotContain(OffsetDateTime.of(start.plusDays(2), ZoneOffset.UTC));
+	}
+
+	private List<OffsetDateTime> startsOf(OffsetDateTime from, OffsetDateTime to) {
+		return scheduleService.findOccurrencesBetween(from.toString(), to.toString()).stream()
+				.filter(o -> o.getScheduleId().equals(created))
+				.map(ScheduleOccurrenceResponse::getStart)
+				.toList();
+	}
+
+}
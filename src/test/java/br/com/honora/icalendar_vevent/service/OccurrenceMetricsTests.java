@@ -0,0 +1,93 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OccurrenceMetricsTests {
+
+	private static final OffsetDateTime FROM = OffsetDateTime.parse("2025-03-01T00:00:00Z");
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final OccurrenceMetrics metrics = new OccurrenceMetrics(registry);
+
+	@Test
+	void expandTimeLeavesOutTheConsumer() {
+		OccurrenceMetrics.Expansion expansion = metrics.startExpansion();
+
+		expansion.time(() -> {
+			occurrences(5).forEach(o -> expansion.excluding(() -> sleep(20))); // a escrita da resposta
+			return null;
+		});
+		expansion.stop(false, 5);
+
+		assertThat(stageTimer("expand").count()).isEqualTo(1);
+		assertThat(stageTimer("expand").totalTime(TimeUnit.MILLISECONDS)).isLessThan(50);
+		assertThat(registry.get("schedule.occurrences.results").summary().totalAmount()).isEqualTo(5);
+	}
+
+	@Test
+	void eachScheduleIsRecordedOnceAndLeftOutOfTheMerge() {
+		OccurrenceMetrics.Expansion expansion = metrics.startExpansion();
+		Iterator<ScheduleOccurrenceResponse> slow = new ChunkedOccurrences(() -> {
+			Iterator<ScheduleOccurrenceResponse> source = occurrences(3).iterator();
+			return new Iterator<>() {
+				@Override
+				public boolean hasNext() {
+					return source.hasNext();
+				}
+
+				@Override
+				public ScheduleOccurrenceResponse next() {
+					sleep(20);
+					return source.next();
+				}
+			};
+		}, 2, null, expansion.schedule());
+		Iterator<ScheduleOccurrenceResponse> fast = new ChunkedOccurrences(() -> occurrences(3).iterator(), 2, null,
+				expansion.schedule());
+
+		expansion.time(() -> {
+			new MergedOccurrenceIterator(List.of(slow, fast)).forEachRemaining(o -> {
+			});
+			return null;
+		});
+		expansion.stop(false, 6);
+
+		Timer perSchedule = registry.get("schedule.occurrences.expansion").timer();
+		assertThat(perSchedule.count()).isEqualTo(2);
+		assertThat(perSchedule.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(60);
+		assertThat(stageTimer("expand").totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(60);
+		assertThat(stageTimer("merge").totalTime(TimeUnit.MILLISECONDS)).isLessThan(40);
+	}
+
+	private Timer stageTimer(String stage) {
+		return registry.get("schedule.occurrences.stage").tag("stage", stage).timer();
+	}
+
+	private static List<ScheduleOccurrenceResponse> occurrences(int count) {
+		UUID id = UUID.randomUUID();
+		return IntStream.range(0, count)
+				.mapToObj(i -> new ScheduleOccurrenceResponse(id, "SCHEDULE", FROM.plusDays(i), 3600, null, null))
+				.toList();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
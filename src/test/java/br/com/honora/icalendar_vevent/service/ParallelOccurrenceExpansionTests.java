@@ -0,0 +1,146 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.domain.ScheduleExdate;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ParallelOccurrenceExpansionTests {
+
+	private static final OffsetDateTime FROM = OffsetDateTime.parse("2025-03-01T00:00:00Z");
+	private static final OffsetDateTime TO = OffsetDateTime.parse("2025-05-31T23:59:59Z");
+
+	private final OccurrenceExpander expander = new OccurrenceExpander(
+			new RecurrenceCache(1000, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+			new SimpleMeterRegistry());
+	private final ParallelOccurrenceExpansion parallel = new ParallelOccurrenceExpansion(expander, 4, 1, 8);
+
+	@AfterEach
+	void shutdown() {
+		parallel.shutdown();
+	}
+
+	@Test
+	void parallelExpansionMergesToTheSequentialResult() {
+		List<Schedule> schedules = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0).plusDays(i % 7).plusMinutes(i % 3 * 30);
+			Schedule s = Schedule.builder()
+					.id(UUID.randomUUID())
+					.rruleJson(new ObjectMapper().createObjectNode().put("freq", i % 2 == 0 ? "DAILY" : "WEEKLY"))
+					.tzid("America/Sao_Paulo")
+					.seriesStartLocal(start)
+					.seriesStartUtc(start.atZone(ZoneId.of("America/Sao_Paulo")).toOffsetDateTime())
+					.durationSeconds(3600)
+					.build();
+			s.addExdate(ScheduleExdate.builder().id(UUID.randomUUID()).exdateLocal(start.plusWeeks(270)).build());
+			schedules.add(s);
+		}
+
+		List<Iterator<ScheduleOccurrenceResponse>> sequential = new ArrayList<>();
+		schedules.forEach(s -> sequential.add(expander.iterator(s, FROM, TO)));
+
+		assertThat(parallel.appliesTo(schedules.size())).isTrue();
+		assertThat(drain(parallel.expandAll(schedules, FROM, TO)))
+				.isNotEmpty()
+				.usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyElementsOf(drain(sequential));
+	}
+
+	@Test
+	void expandAllLeavesTheIterationToTheCaller() {
+		// quase mil anos diários por schedule: listas materializadas não caberiam na memória
+		OffsetDateTime farTo = OffsetDateTime.parse("2999-12-31T23:59:59Z");
+		List<Schedule> schedules = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0).plusMinutes(i);
+			schedules.add(Schedule.builder()
+					.id(UUID.randomUUID())
+					.rruleJson(new ObjectMapper().createObjectNode().put("freq", "DAILY"))
+					.tzid("America/Sao_Paulo")
+					.seriesStartLocal(start)
+					.seriesStartUtc(start.atZone(ZoneId.of("America/Sao_Paulo")).toOffsetDateTime())
+					.durationSeconds(3600)
+					.build());
+		}
+
+		List<Iterator<ScheduleOccurrenceResponse>> perSchedule = parallel.expandAll(schedules, FROM, farTo);
+
+		assertThat(perSchedule).hasSize(100);
+		MergedOccurrenceIterator merged = new MergedOccurrenceIterator(perSchedule);
+		for (int i = 0; i < 100; i++) {
+			assertThat(merged.next().getScheduleId()).isEqualTo(schedules.get(i).getId());
+		}
+	}
+
+	@Test
+	void occurrencesAreGeneratedOnThePoolInBoundedChunks() {
+		List<Schedule> schedules = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0).plusMinutes(i);
+			schedules.add(Schedule.builder()
+					.id(UUID.randomUUID())
+					.rruleJson(new ObjectMapper().createObjectNode().put("freq", "DAILY"))
+					.tzid("UTC")
+					.seriesStartLocal(start)
+					.seriesStartUtc(start.atOffset(ZoneOffset.UTC))
+					.durationSeconds(3600)
+					.build());
+		}
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		AtomicInteger generated = new AtomicInteger();
+		Function<Schedule, Iterator<ScheduleOccurrenceResponse>> counting = s -> {
+			Iterator<ScheduleOccurrenceResponse> occurrences = expander.iterator(s, FROM, TO);
+			return new Iterator<>() {
+				@Override
+				public boolean hasNext() {
+					return occurrences.hasNext();
+				}
+
+				@Override
+				public ScheduleOccurrenceResponse next() {
+					threads.add(Thread.currentThread());
+					generated.incrementAndGet();
+					return occurrences.next();
+				}
+			};
+		};
+
+		MergedOccurrenceIterator merged = new MergedOccurrenceIterator(parallel.expandAll(schedules, counting));
+		for (int i = 0; i < 100; i++) {
+			merged.next();
+		}
+
+		assertThat(threads).isNotEmpty().doesNotContain(Thread.currentThread());
+		// cada schedule está no máximo um bloco (8) à frente do bloco em consumo
+		assertThat(generated.get()).isLessThanOrEqualTo(100 + schedules.size() * 2 * 8);
+	}
+
+	private static List<ScheduleOccurrenceResponse> drain(List<Iterator<ScheduleOccurrenceResponse>> perSchedule) {
+		List<ScheduleOccurrenceResponse> result = new ArrayList<>();
+		new MergedOccurrenceIterator(perSchedule).forEachRemaining(result::add);
+		return result;
+	}
+
+}
@@ -0,0 +1,121 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+class ReminderDispatcherTests {
+
+	private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+	private static final LocalDateTime START = LocalDateTime.of(2095, 6, 1, 9, 0); // 12:00Z
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	@Autowired
+	private OccurrenceExpander occurrenceExpander;
+
+	@Autowired
+	private CandidateIndex candidateIndex;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	/** Sink em memória: guarda "scheduleId-início-antecedência" dos schedules do teste. */
+	private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void sendsEachLeadTimeOnceAndReschedulesChangedSchedules() {
+		UUID shift = create();
+		UUID moved = create();
+		// o bean da aplicação fica desligado; este é avançado com um relógio simulado
+		ReminderDispatcher dispatcher = new ReminderDispatcher(scheduleRepository, occurrenceExpander,
+				candidateIndex, transactionTemplate, entityManager, List.of(this::receive), true,
+				List.of(Duration.ofHours(1), Duration.ofMinutes(15)), Duration.ofHours(6), 1000);
+
+		dispatcher.start(Instant.parse("2095-06-01T08:00:00Z"));
+		dispatcher.advance(Instant.parse("2095-06-01T10:59:59Z"));
+		assertThat(received).isEmpty();
+
+		scheduleService.putOverride(moved, START.toString(), ScheduleOverrideRequest.builder()
+				.newStartLocal(START.withHour(10))
+				.build());
+		dispatcher.onScheduleChanged(ScheduleChangedEvent.of(moved));
+
+		dispatcher.advance(Instant.parse("2095-06-01T11:00:00Z"));
+		assertThat(received).containsExactly(key(shift, "12:00", "PT1H"));
+
+		dispatcher.advance(Instant.parse("2095-06-01T12:00:00Z"));
+		dispatcher.advance(Instant.parse("2095-06-01T12:00:00Z")); // mesmo instante: nada novo
+		assertThat(received).containsExactly(key(shift, "12:00", "PT1H"), key(shift, "12:00", "PT15M"),
+				key(moved, "13:00", "PT1H"));
+
+		dispatcher.advance(Instant.parse("2095-06-01T12:45:00Z"));
+		assertThat(received).endsWith(key(moved, "13:00", "PT15M")).hasSize(4);
+
+		// a roda é recarregada à frente: os do dia seguinte chegam na hora
+		dispatcher.advance(Instant.parse("2095-06-02T11:00:00Z"));
+		assertThat(received).hasSize(6);
+		assertThat(received.subList(4, 6)).containsExactlyInAnyOrder(key(shift, "12:00", "PT1H"),
+				key(moved, "12:00", "PT1H"));
+	}
+
+	private void receive(Reminder reminder) {
+		UUID id = reminder.occurrence().getScheduleId();
+		if (created.contains(id)) {
+			received.add(key(id, reminder.occurrence().getStart().toInstant().toString().substring(11, 16),
+					reminder.leadTime().toString()));
+		}
+	}
+
+	private static String key(UUID scheduleId, String startUtc, String leadTime) {
+		return scheduleId + "-" + startUtc + "-" + leadTime;
+	}
+
+	private UUID create() {
+		UUID id = scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 3))
+				.tzid("America/Sao_Paulo")
+				.seriesStartLocal(START)
+				.seriesStartUtc(START.atZone(ZONE).toOffsetDateTime())
+				.durationSeconds(3600)
+				.build()).getId();
+		created.add(id);
+		return id;
+	}
+}
@@ -0,0 +1,239 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleImportResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleImportStagingJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest(properties = "schedule.import.chunk-size=2")
+class ScheduleImportServiceTests {
+
+	private static final String SUMMARY = "Importado em lote";
+
+	@Autowired
+	private ScheduleImportService scheduleImportService;
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ScheduleJdbcRepository scheduleJdbcRepository;
+
+	@Autowired
+	private ScheduleImportStagingJdbcRepository stagingRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(importedIds());
+	}
+
+	@Test
+	void importsValidItemsInChunksAndReportsTheRejectedOnes() throws Exception {
+		String json = """
+				[
+				  {"rrule":{"freq":"DAILY","count":3},"tzid":"America/Sao_Paulo","seriesStartLocal":"2096-05-01T08:00:00",
+				   "durationSeconds":3600,"summary":"%1$s",
+				   "exdates":[{"exdateLocal":"2096-05-02T08:00:00"},{"exdateLocal":"2096-05-02T08:00:00"}],
+				   "overrides":[{"recurrenceIdLocal":"2096-05-03T08:00:00","newStartLocal":"2096-05-03T10:00:00"}]},
+				  {"rrule":{"freq":"HOURLY"},"tzid":"UTC","seriesStartLocal":"2096-05-01T08:00:00","durationSeconds":60},
+				  {"rrule":{"freq":"WEEKLY","count":2},"tzid":"UTC","seriesStartLocal":"2096-05-01T09:00:00",
+				   "durationSeconds":1800,"summary":"%1$s","rdates":[{"rdateLocal":"2096-05-04T09:00:00"}]},
+				  {"rrule":{"freq":"DAILY"},"seriesStartLocal":"2096-05-01T08:00:00","durationSeconds":60},
+				  42
+				]
+				""".formatted(SUMMARY);
+
+		ScheduleImportResponse response = scheduleImportService
+				.importJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(response.getImported()).isEqualTo(2);
+		assertThat(response.getFailed()).isEqualTo(3);
+		assertThat(response.getErrors()).extracting(ScheduleImportResponse.ItemError::getIndex)
+				.containsExactly(1, 3, 4);
+		assertThat(response.getErrors().get(1).getMessage()).isEqualTo("tzid is required");
+
+		List<ScheduleOccurrenceResponse> occurrences = scheduleService
+				.findOccurrencesBetween("2096-05-01T00:00:00Z", "2096-05-31T23:59:59Z").stream()
+				.filter(o -> SUMMARY.equals(o.getSummary()))
+				.toList();
+		// diária: 1 RRULE + 1 OVERRIDE (o EXDATE repetido vira um só); semanal: 2 RRULE + 1 RDATE
+		assertThat(occurrences).extracting(ScheduleOccurrenceResponse::getType)
+				.containsExactlyInAnyOrder("SCHEDULE", "OVERRIDE", "SCHEDULE", "SCHEDULE", "RDATE");
+	}
+
+	@Test
+	void importsIcsEventsAndLinksRecurrenceIdsToTheirMaster() throws Exception {
+		String ics = String.join("\r\n",
+				"BEGIN:VCALENDAR",
+				"VERSION:2.0",
+				"BEGIN:VEVENT",
+				"UID:m1",
+				"RECURRENCE-ID;TZID=America/Sao_Paulo:20960603T090000",
+				"DTSTART;TZID=America/Sao_Paulo:20960603T090000",
+				"STATUS:CANCELLED",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:m1",
+				"SUMMARY:" + SUMMARY,
+				"DTSTART;TZID=America/Sao_Paulo:20960601T090000",
+				"DURATION:PT1H",
+				"RRULE:FREQ=DAILY;COUNT=5",
+				"EXDATE;TZID=America/Sao_Paulo:20960602T090000",
+				"BEGIN:VALARM",
+				"ACTION:DISPLAY",
+				"TRIGGER:-PT15M",
+				"END:VALARM",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:m2",
+				"DTSTART:20960601T120000Z",
+				"DURATION:PT1H",
+				"RRULE:FREQ=MONTHLY;BYMONTHDAY=1",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:m3",
+				"SUMMARY:" + SUMMARY,
+				"DTSTART:20960610T120000Z",
+				"DTEND:20960610T123000Z",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:m1",
+				"RECURRENCE-ID;TZID=America/Sao_Paulo:20960604T090000",
+				"DTSTART;TZID=America/Sao_Paulo:20960604T110000",
+				"DURATION:PT2H",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:ghost",
+				"RECURRENCE-ID:20960604T120000Z",
+				"DTSTART:20960604T130000Z",
+				"DURATION:PT1H",
+				"END:VEVENT",
+				"END:VCALENDAR",
+				"");
+
+		ScheduleImportResponse response = scheduleImportService
+				.importIcs(new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8)));
+
+		// o cancelamento (0) vem antes do mestre (1) e é ligado no fim; o override (4) chega depois do chunk do mestre
+		assertThat(response.getImported()).isEqualTo(4);
+		assertThat(response.getErrors()).extracting(ScheduleImportResponse.ItemError::getIndex)
+				.containsExactly(2, 5);
+
+		List<ScheduleOccurrenceResponse> occurrences = scheduleService
+				.findOccurrencesBetween("2096-06-01T00:00:00Z", "2096-06-30T23:59:59Z").stream()
+				.filter(o -> SUMMARY.equals(o.getSummary()))
+				.toList();
+		assertThat(occurrences).extracting(o -> o.getStart().toInstant().toString(), ScheduleOccurrenceResponse::getType,
+				ScheduleOccurrenceResponse::getDurationSeconds)
+				.containsExactly(
+						tuple("2096-06-01T12:00:00Z", "SCHEDULE", 3600),
+						tuple("2096-06-04T14:00:00Z", "OVERRIDE", 7200),
+						tuple("2096-06-05T12:00:00Z", "SCHEDULE", 3600),
+						tuple("2096-06-10T12:00:00Z", "SCHEDULE", 1800));
+	}
+
+	@Test
+	void reportsMalformedEventsAndLinksRecurrenceIdsBeyondTheSeriesCache() throws Exception {
+		// só o último mestre fica em memória: as instâncias de "a" são ligadas pela área de trabalho
+		ScheduleImportService service = new ScheduleImportService(objectMapper, scheduleJdbcRepository,
+				stagingRepository, transactionTemplate, eventPublisher, 2, 1);
+		String ics = String.join("\r\n",
+				"BEGIN:VCALENDAR",
+				"VERSION:2.0",
+				"BEGIN:VEVENT",
+				"UID:a",
+				"SUMMARY:" + SUMMARY,
+				"DTSTART;TZID=America/Sao_Paulo:20970701T090000",
+				"DURATION:PT1H",
+				"RRULE:FREQ=DAILY;COUNT=3",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:b",
+				"SUMMARY:" + SUMMARY,
+				"DTSTART:20970710T120000Z",
+				"DTEND:20970710T123000Z",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:a",
+				"RECURRENCE-ID;TZID=America/Sao_Paulo:20970702T090000",
+				"DTSTART;TZID=America/Sao_Paulo:20970702T110000",
+				"DURATION:PT1H",
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:bad",
+				"SUMMARY" + SUMMARY,
+				"END:VEVENT",
+				"BEGIN:VEVENT",
+				"UID:a",
+				"RECURRENCE-ID;TZID=America/Sao_Paulo:20970703T090000",
+				"DTSTART;TZID=America/Sao_Paulo:20970703T090000",
+				"STATUS:CANCELLED",
+				"END:VEVENT",
+				"END:VCALENDAR",
+				"");
+
+		ScheduleImportResponse response = service
+				.importIcs(new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(response.getImported()).isEqualTo(4);
+		assertThat(response.getErrors()).extracting(ScheduleImportResponse.ItemError::getIndex).containsExactly(3);
+		assertThat(response.getErrors().get(0).getMessage()).startsWith("Malformed content line");
+
+		List<ScheduleOccurrenceResponse> occurrences = scheduleService
+				.findOccurrencesBetween("2097-07-01T00:00:00Z", "2097-07-31T23:59:59Z").stream()
+				.filter(o -> SUMMARY.equals(o.getSummary()))
+				.toList();
+		assertThat(occurrences).extracting(o -> o.getStart().toInstant().toString(), ScheduleOccurrenceResponse::getType)
+				.containsExactly(
+						tuple("2097-07-01T12:00:00Z", "SCHEDULE"),
+						tuple("2097-07-02T14:00:00Z", "OVERRIDE"),
+						tuple("2097-07-10T12:00:00Z", "SCHEDULE"));
+	}
+
+	@Test
+	void rejectsADocumentThatIsNotAnArray() {
+		assertThatThrownBy(() -> scheduleImportService
+				.importJson(new ByteArrayInputStream("{\"tzid\":\"UTC\"}".getBytes(StandardCharsets.UTF_8))))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private List<UUID> importedIds() {
+		return scheduleRepository.findAll().stream()
+				.filter(s -> SUMMARY.equals(s.getSummary()))
+				.map(Schedule::getId)
+				.toList();
+	}
+
+}
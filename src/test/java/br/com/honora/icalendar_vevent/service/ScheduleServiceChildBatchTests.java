@@ -0,0 +1,176 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleChildBatchRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleExdateResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleRdateResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest
+class ScheduleServiceChildBatchTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2097, 1, 5, 8, 0);
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void batchAcrossSchedulesUpsertsAndRemovesChildren() {
+		UUID first = createSchedule(List.of(START.plusDays(1), START.plusDays(2)));
+		UUID second = createSchedule(List.of());
+
+		List<ScheduleExdateRequest> cancellations = new ArrayList<>();
+		for (int day = 3; day < 503; day++) {
+			cancellations.add(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(day)).build());
+		}
+		scheduleService.applyChildBatches(List.of(
+				ScheduleChildBatchRequest.builder()
+						.scheduleId(first)
+						.exdates(cancellations)
+						.removeExdates(List.of(START.plusDays(1)))
+						.rdates(List.of(ScheduleRdateRequest.builder().rdateLocal(START.plusHours(12)).build()))
+						.build(),
+				ScheduleChildBatchRequest.builder()
+						.scheduleId(second)
+						.overrides(List.of(ScheduleOverrideRequest.builder()
+								.recurrenceIdLocal(START.plusDays(1))
+								.newStartLocal(START.plusDays(1).plusHours(3))
+								.summary("Moved")
+								.build()))
+						.build()));
+
+		ScheduleResponse a = scheduleService.findById(first).body();
+		assertThat(a.getExdates()).hasSize(501)
+				.extracting(ScheduleExdateResponse::getExdateLocal)
+				.contains(START.plusDays(2), START.plusDays(502))
+				.doesNotContain(START.plusDays(1));
+		assertThat(a.getRdates()).singleElement()
+				.extracting(ScheduleRdateResponse::getDurationSeconds).isEqualTo(3600);
+		assertThat(a.isHasRdates()).isTrue();
+
+		ScheduleResponse b = scheduleService.findById(second).body();
+		assertThat(b.isHasOverrides()).isTrue();
+		assertThat(b.getOverrides()).singleElement()
+				.satisfies(o -> {
+					assertThat(o.getNewStartLocal()).isEqualTo(START.plusDays(1).plusHours(3));
+					assertThat(o.getNewDurationSeconds()).isEqualTo(3600);
+					assertThat(o.getSummary()).isEqualTo("Moved");
+				});
+
+		scheduleService.applyChildBatch(second, ScheduleChildBatchRequest.builder()
+				.removeOverrides(List.of(START.plusDays(1)))
+				.build());
+		ScheduleResponse cleared = scheduleService.findById(second).body();
+		assertThat(cleared.getOverrides()).isEmpty();
+		assertThat(cleared.isHasOverrides()).isFalse();
+	}
+
+	@Test
+	void unknownScheduleRejectsTheWholeBatch() {
+		UUID existing = createSchedule(List.of());
+
+		assertThatThrownBy(() -> scheduleService.applyChildBatches(List.of(
+				ScheduleChildBatchRequest.builder()
+						.scheduleId(existing)
+						.exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(1)).build()))
+						.build(),
+				ScheduleChildBatchRequest.builder()
+						.scheduleId(UUID.randomUUID())
+						.exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(1)).build()))
+						.build())))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		ScheduleResponse unchanged = scheduleService.findById(existing).body();
+		assertThat(unchanged.getExdates()).isEmpty();
+		assertThat(unchanged.isHasExdates()).isFalse();
+	}
+
+	@Test
+	void singleMutationsUpsertByKeyAndKeepFlagsInSync() {
+		UUID id = createSchedule(List.of(START.plusDays(1)));
+
+		scheduleService.putExdate(id, START.plusDays(1).toString()); // já existe: nada muda
+		scheduleService.putRdate(id, START.plusHours(6).toString(), null);
+		scheduleService.putRdate(id, START.plusHours(6).toString(), 900);
+		scheduleService.putOverride(id, START.plusDays(2).toString(), ScheduleOverrideRequest.builder()
+				.newStartLocal(START.plusDays(2).plusHours(1))
+				.notes("first")
+				.build());
+		scheduleService.putOverride(id, START.plusDays(2).toString(), ScheduleOverrideRequest.builder()
+				.newStartLocal(START.plusDays(2).plusHours(2))
+				.newDurationSeconds(600)
+				.build());
+
+		ScheduleResponse updated = scheduleService.findById(id).body();
+		assertThat(updated.getExdates()).hasSize(1);
+		assertThat(updated.getRdates()).singleElement()
+				.extracting(ScheduleRdateResponse::getDurationSeconds).isEqualTo(900);
+		assertThat(updated.getOverrides()).singleElement()
+				.satisfies(o -> {
+					assertThat(o.getNewStartLocal()).isEqualTo(START.plusDays(2).plusHours(2));
+					assertThat(o.getNewDurationSeconds()).isEqualTo(600);
+					assertThat(o.getNotes()).isNull();
+				});
+
+		scheduleService.deleteExdate(id, START.plusDays(1).toString());
+		scheduleService.deleteRdate(id, START.plusHours(6).toString());
+		scheduleService.deleteOverride(id, START.plusDays(2).toString());
+		scheduleService.deleteOverride(id, START.plusDays(9).toString()); // inexistente: sem efeito
+
+		ScheduleResponse emptied = scheduleService.findById(id).body();
+		assertThat(emptied.getExdates()).isEmpty();
+		assertThat(emptied.getRdates()).isEmpty();
+		assertThat(emptied.getOverrides()).isEmpty();
+		assertThat(emptied.isHasExdates()).isFalse();
+		assertThat(emptied.isHasRdates()).isFalse();
+		assertThat(emptied.isHasOverrides()).isFalse();
+		assertThatThrownBy(() -> scheduleService.putExdate(UUID.randomUUID(), START.toString()))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private UUID createSchedule(List<LocalDateTime> exdates) {
+		UUID id = scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 1000))
+				.tzid("UTC")
+				.seriesStartLocal(START)
+				.seriesStartUtc(OffsetDateTime.of(START, ZoneOffset.UTC))
+				.durationSeconds(3600)
+				.summary("Batch")
+				.exdates(exdates.stream().map(e -> ScheduleExdateRequest.builder().exdateLocal(e).build()).toList())
+				.build()).getId();
+		created.add(id);
+		return id;
+	}
+}
@@ -0,0 +1,105 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest
+class ScheduleServiceEtagTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2096, 4, 1, 9, 0);
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private UUID id;
+
+	@BeforeEach
+	void createSchedule() {
+		id = scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 10))
+				.tzid("UTC")
+				.seriesStartLocal(START)
+				.seriesStartUtc(OffsetDateTime.of(START, ZoneOffset.UTC))
+				.durationSeconds(1800)
+				.summary("ETag")
+				.build()).getId();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteById(id);
+	}
+
+	@Test
+	void everyChildMutationChangesTheEtag() {
+		String created = scheduleService.findEtag(id);
+
+		scheduleService.putExdate(id, START.plusDays(1).toString());
+		String firstExdate = scheduleService.findEtag(id);
+		// sch_has_exdates já é true: só o trigger dos filhos muda a versão
+		scheduleService.putExdate(id, START.plusDays(2).toString());
+		String secondExdate = scheduleService.findEtag(id);
+		scheduleService.deleteExdate(id, START.plusDays(2).toString());
+		String exdateDeleted = scheduleService.findEtag(id);
+		scheduleService.putOverride(id, START.plusDays(3).toString(), ScheduleOverrideRequest.builder()
+				.newStartLocal(START.plusDays(3).plusHours(1))
+				.build());
+		String overridden = scheduleService.findEtag(id);
+		scheduleService.putRdate(id, START.plusDays(20).toString(), null);
+		String rdate = scheduleService.findEtag(id);
+
+		assertThat(List.of(created, firstExdate, secondExdate, exdateDeleted, overridden, rdate))
+				.doesNotHaveDuplicates();
+	}
+
+	@Test
+	void idempotentChildChangesKeepTheEtag() {
+		scheduleService.putExdate(id, START.plusDays(1).toString());
+		String etag = scheduleService.findEtag(id);
+
+		scheduleService.putExdate(id, START.plusDays(1).toString()); // já existe
+		scheduleService.deleteExdate(id, START.plusDays(5).toString()); // não existe
+		scheduleService.deleteRdate(id, START.plusDays(20).toString());
+
+		assertThat(scheduleService.findEtag(id)).isEqualTo(etag);
+	}
+
+	@Test
+	void etagMatchesTheLoadedVersionAndIcsIsStableForIt() {
+		String etag = scheduleService.findEtag(id);
+
+		ScheduleService.Versioned<String> first = scheduleService.buildIcsForSchedule(id);
+		ScheduleService.Versioned<String> second = scheduleService.buildIcsForSchedule(id);
+
+		assertThat(first.etag()).isEqualTo(etag).startsWith("\"").endsWith("\"");
+		assertThat(scheduleService.findById(id).etag()).isEqualTo(etag);
+		assertThat(second.body()).isEqualTo(first.body());
+	}
+
+	@Test
+	void unknownScheduleHasNoEtag() {
+		assertThatThrownBy(() -> scheduleService.findEtag(UUID.randomUUID()))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,71 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.FreeBusyResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest
+class ScheduleServiceFreeBusyTests {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2099, 6, 1, 0, 0);
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void busyIntervalsMergeSchedulesAndIncludeShiftsStartedBeforeTheWindow() {
+		// plantão noturno 22:00-06:00 e turno diurno 06:00-14:00: contíguos, viram um intervalo
+		UUID night = create(DAY.withHour(22), 8 * 3600);
+		UUID day = create(DAY.plusDays(1).withHour(6), 8 * 3600);
+
+		FreeBusyResponse freeBusy = scheduleService.findFreeBusy(List.of(night, day),
+				"2099-06-02T00:00:00Z", "2099-06-03T00:00:00Z");
+
+		assertThat(freeBusy.getBusy()).extracting(b -> b.getStart() + "/" + b.getEnd())
+				.containsExactly(
+						"2099-06-02T00:00Z/2099-06-02T14:00Z",
+						"2099-06-02T22:00Z/2099-06-03T00:00Z");
+		assertThat(scheduleService.buildFreeBusyIcs(List.of(night, day), "2099-06-02T00:00:00Z",
+				"2099-06-03T00:00:00Z"))
+				.contains("FREEBUSY;FBTYPE=BUSY:20990602T000000Z/20990602T140000Z\r\n");
+	}
+
+	private UUID create(LocalDateTime start, int durationSeconds) {
+		UUID id = scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 5))
+				.tzid("UTC")
+				.seriesStartLocal(start)
+				.seriesStartUtc(OffsetDateTime.of(start, ZoneOffset.UTC))
+				.durationSeconds(durationSeconds)
+				.build()).getId();
+		created.add(id);
+		return id;
+	}
+}
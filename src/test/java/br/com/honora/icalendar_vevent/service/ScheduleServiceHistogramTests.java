@@ -0,0 +1,132 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.OccurrenceHistogramResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceCountResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest
+class ScheduleServiceHistogramTests {
+
+	private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+	private static final LocalDateTime START = LocalDateTime.of(2096, 4, 1, 9, 0);
+	private static final String FROM = "2096-04-01T03:00:00Z"; // 00:00 em São Paulo
+	private static final String TO = "2096-04-11T02:59:59Z";
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void countsMatchTheExpandedOccurrencesPerLocalDay() {
+		UUID busy = create(ScheduleRequest.builder()
+				.exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(1)).build()))
+				.rdates(List.of(
+						ScheduleRdateRequest.builder().rdateLocal(START.plusDays(2).withHour(13)).build(),
+						ScheduleRdateRequest.builder().rdateLocal(START.plusDays(3)).build())) // mesmo instante da regra
+				.overrides(List.of(ScheduleOverrideRequest.builder()
+						.recurrenceIdLocal(START.plusDays(4))
+						.newStartLocal(START.plusDays(5).withHour(15))
+						.build())));
+		UUID plain = create(ScheduleRequest.builder());
+
+		OccurrenceHistogramResponse histogram = scheduleService.findOccurrenceHistogram(List.of(busy, plain), FROM,
+				TO, "day", "America/Sao_Paulo", true);
+
+		Map<UUID, Map<LocalDate, Long>> expected = scheduleService.findOccurrencesBetween(FROM, TO).stream()
+				.filter(o -> created.contains(o.getScheduleId()))
+				.collect(Collectors.groupingBy(ScheduleOccurrenceResponse::getScheduleId, Collectors.groupingBy(
+						o -> o.getStart().atZoneSameInstant(ZONE).toLocalDate(), Collectors.counting())));
+		assertThat(histogram.getBucketStarts()).hasSize(10);
+		assertThat(histogram.getBucketStarts().get(0)).isEqualTo(OffsetDateTime.parse("2096-04-01T00:00:00-03:00"));
+		assertThat(histogram.getSchedules()).hasSize(2);
+		for (ScheduleOccurrenceCountResponse schedule : histogram.getSchedules()) {
+			Map<LocalDate, Long> perDay = expected.get(schedule.getScheduleId());
+			assertThat(schedule.getTotal()).isEqualTo(perDay.values().stream().mapToLong(Long::longValue).sum());
+			for (int i = 0; i < histogram.getBucketStarts().size(); i++) {
+				LocalDate day = histogram.getBucketStarts().get(i).atZoneSameInstant(ZONE).toLocalDate();
+				assertThat(schedule.getCounts()[i]).as("%s on %s", schedule.getScheduleId(), day)
+						.isEqualTo(perDay.getOrDefault(day, 0L));
+			}
+		}
+		// 10 dias da regra - 1 EXDATE + 1 RDATE (o que coincide com a regra não conta); o override só troca o dia
+		assertThat(histogram.getSchedules()).filteredOn(c -> c.getScheduleId().equals(busy))
+				.singleElement().extracting(ScheduleOccurrenceCountResponse::getTotal).isEqualTo(10L);
+		assertThat(histogram.getTotal()).isEqualTo(20L);
+		assertThat(histogram.getCounts()[5]).isEqualTo(3L); // dia 6: as duas regras e o override
+	}
+
+	@Test
+	void hourBucketsAndLimits() {
+		UUID id = create(ScheduleRequest.builder());
+
+		OccurrenceHistogramResponse histogram = scheduleService.findOccurrenceHistogram(List.of(id),
+				"2096-04-01T12:00:00Z", "2096-04-01T13:59:59Z", "HOUR", null, false);
+
+		assertThat(histogram.getCounts()).containsExactly(1L, 0L); // 09:00 em São Paulo = 12:00Z
+		assertThat(histogram.getSchedules()).singleElement()
+				.satisfies(c -> assertThat(c.getCounts()).isNull());
+		assertThatThrownBy(() -> scheduleService.findOccurrenceHistogram(List.of(id), FROM, TO, "WEEK", null, false))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> scheduleService.findOccurrenceHistogram(List.of(id), "2096-01-01T00:00:00Z",
+				"2099-01-01T00:00:00Z", "HOUR", null, false))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void unknownIdsAreRejected() {
+		UUID id = create(ScheduleRequest.builder());
+		UUID unknown = UUID.randomUUID();
+
+		assertThatThrownBy(() -> scheduleService.findOccurrenceHistogram(List.of(id, unknown), FROM, TO, "DAY", null,
+				false))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining(unknown.toString());
+	}
+
+	private UUID create(ScheduleRequest.ScheduleRequestBuilder request) {
+		UUID id = scheduleService.create(request
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 30))
+				.tzid("America/Sao_Paulo")
+				.seriesStartLocal(START)
+				.seriesStartUtc(START.atZone(ZONE).toOffsetDateTime())
+				.durationSeconds(3600)
+				.build()).getId();
+		created.add(id);
+		return id;
+	}
+}
@@ -0,0 +1,81 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest
+class ScheduleServiceIcsFeedTests {
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void feedHoldsOneCalendarWithEverySelectedSchedule() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2095, 2, 1, 7, 0);
+		for (int i = 0; i < 3; i++) {
+			created.add(scheduleService.create(ScheduleRequest.builder()
+					.rrule(new ObjectMapper().createObjectNode().put("freq", "WEEKLY").put("count", 4))
+					.tzid("UTC")
+					.seriesStartLocal(start.plusDays(i))
+					.seriesStartUtc(OffsetDateTime.of(start.plusDays(i), ZoneOffset.UTC))
+					.durationSeconds(3600)
+					.summary("Feed " + i)
+					.overrides(List.of(ScheduleOverrideRequest.builder()
+							.recurrenceIdLocal(start.plusDays(i).plusWeeks(1))
+							.newStartLocal(start.plusDays(i).plusWeeks(1).plusHours(2))
+							.build()))
+					.build()).getId());
+		}
+
+		StringWriter byIds = new StringWriter();
+		scheduleService.writeIcsFeed(created.subList(0, 2), null, byIds);
+		StringWriter byWindow = new StringWriter();
+		scheduleService.writeIcsFeed(null, scheduleService.icsFeedWindow("2095-02-01T00:00:00Z", "2095-02-28T23:59:59Z"),
+				byWindow);
+
+		// master + override por schedule
+		assertThat(byIds.toString()).startsWith("BEGIN:VCALENDAR").endsWith("END:VCALENDAR\r\n");
+		assertThat(count(byIds.toString(), "BEGIN:VEVENT")).isEqualTo(4);
+		assertThat(byIds.toString()).contains("SUMMARY:Feed 0", "SUMMARY:Feed 1").doesNotContain("SUMMARY:Feed 2");
+		assertThat(byWindow.toString()).contains("SUMMARY:Feed 0", "SUMMARY:Feed 1", "SUMMARY:Feed 2");
+		assertThat(count(byWindow.toString(), "BEGIN:VCALENDAR")).isEqualTo(1);
+	}
+
+	private static int count(String text, String token) {
+		int n = 0;
+		for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + 1)) {
+			n++;
+		}
+		return n;
+	}
+
+}
@@ -0,0 +1,118 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.SchedulePageResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest
+class ScheduleServiceListingTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2098, 3, 2, 10, 0);
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void pagesWalkEveryScheduleOnceInIdOrderWithTheirChildren() {
+		for (int i = 0; i < 5; i++) {
+			created.add(scheduleService.create(ScheduleRequest.builder()
+					.rrule(new ObjectMapper().createObjectNode().put("freq", "WEEKLY").put("count", 3))
+					.tzid("America/Sao_Paulo")
+					.seriesStartLocal(START.plusDays(i))
+					.seriesStartUtc(OffsetDateTime.of(START.plusDays(i).plusHours(3), ZoneOffset.UTC))
+					.durationSeconds(1800)
+					.summary("List " + i)
+					.exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(i).plusWeeks(1)).build()))
+					.overrides(List.of(ScheduleOverrideRequest.builder()
+							.recurrenceIdLocal(START.plusDays(i).plusWeeks(2))
+							.newStartLocal(START.plusDays(i).plusWeeks(2).plusHours(1))
+							.newDurationSeconds(900)
+							.build()))
+					.build()).getId());
+		}
+
+		List<ScheduleResponse> walked = new ArrayList<>();
+		String cursor = null;
+		do {
+			SchedulePageResponse page = scheduleService.findPage(2, cursor, true);
+			assertThat(page.getItems()).hasSizeLessThanOrEqualTo(2);
+			walked.addAll(page.getItems());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(walked).extracting(ScheduleResponse::getId)
+				.doesNotHaveDuplicates()
+				.isSortedAccordingTo(OccurrenceExpander::compareUuids)
+				.containsAll(created);
+		Map<UUID, ScheduleResponse> byId = walked.stream()
+				.collect(Collectors.toMap(ScheduleResponse::getId, Function.identity()));
+		ScheduleResponse first = byId.get(created.get(0));
+		assertThat(first.getRruleJson().get("freq").asText()).isEqualTo("WEEKLY");
+		assertThat(first.getSeriesStartUtc()).isEqualTo(OffsetDateTime.of(START.plusHours(3), ZoneOffset.UTC));
+		assertThat(first.getUpdatedAt()).isNotNull();
+		assertThat(first.getExdates()).singleElement()
+				.satisfies(e -> assertThat(e.getExdateLocal()).isEqualTo(START.plusWeeks(1)));
+		assertThat(first.getRdates()).isEmpty();
+		assertThat(first.getOverrides()).singleElement()
+				.satisfies(o -> assertThat(o.getNewDurationSeconds()).isEqualTo(900));
+	}
+
+	@Test
+	void childrenCanBeOmitted() {
+		created.add(scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 2))
+				.tzid("UTC")
+				.seriesStartLocal(START)
+				.seriesStartUtc(OffsetDateTime.of(START, ZoneOffset.UTC))
+				.durationSeconds(1800)
+				.exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(1)).build()))
+				.build()).getId());
+
+		ScheduleResponse listed = scheduleService.findAll(false).stream()
+				.filter(s -> s.getId().equals(created.get(0)))
+				.findFirst().orElseThrow();
+
+		assertThat(listed.isHasExdates()).isTrue();
+		assertThat(listed.getExdates()).isNull();
+	}
+
+	@Test
+	void limitIsBounded() {
+		assertThatThrownBy(() -> scheduleService.findPage(0, null, false))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,196 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.domain.Schedule;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrencePageResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleJdbcRepository;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+// horizonte de 100 anos: as séries de teste (2095) ficam dentro dele
+@SpringBootTest(properties = "schedule.next-occurrence.horizon=36500d")
+class ScheduleServiceNextOccurrenceTests {
+
+	private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+	private static final LocalDateTime START = LocalDateTime.of(2095, 3, 1, 9, 0);
+	private static final String AFTER = "2095-03-01T00:00:00Z";
+	private static final String TO = "2095-04-30T23:59:59Z";
+	private static final String BATCH_SUMMARY = "Lote da próxima ocorrência";
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	@Autowired
+	private ScheduleJdbcRepository scheduleJdbcRepository;
+
+	@Autowired
+	private NextOccurrenceTracker nextOccurrenceTracker;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+		jdbcTemplate.update("DELETE FROM tb_sch_schedule WHERE sch_summary = ?", BATCH_SUMMARY);
+	}
+
+	@Test
+	void nextOccurrencesOfOneScheduleFollowTheRules() {
+		UUID id = create(ScheduleRequest.builder()
+				.exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(1)).build()))
+				.rdates(List.of(ScheduleRdateRequest.builder().rdateLocal(START.withHour(13)).build()))
+				.overrides(List.of(ScheduleOverrideRequest.builder()
+						.recurrenceIdLocal(START.plusDays(2))
+						.newStartLocal(START.plusDays(2).withHour(15))
+						.build())), START, 30);
+		String firstStart = START.atZone(ZONE).toOffsetDateTime().toString();
+
+		assertThat(starts(scheduleService.findNextOccurrences(id, firstStart, 4)))
+				.containsExactly(at(START), at(START.withHour(13)), at(START.plusDays(2).withHour(15)),
+						at(START.plusDays(3)));
+		// after é inclusivo: um segundo depois, a primeira ocorrência fica de fora
+		assertThat(starts(scheduleService.findNextOccurrences(id,
+				START.atZone(ZONE).plusSeconds(1).toOffsetDateTime().toString(), 1)))
+				.containsExactly(at(START.withHour(13)));
+		assertThat(scheduleService.findNextOccurrences(id, "2096-01-01T00:00:00Z", 10)).isEmpty();
+		assertThatThrownBy(() -> scheduleService.findNextOccurrences(id, AFTER, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> scheduleService.findNextOccurrences(UUID.randomUUID(), AFTER, 1))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void storedNextOccurrenceIsRecomputedOnChange() {
+		UUID id = create(ScheduleRequest.builder().seriesUntilUtc(at(START.plusDays(2))), START, 3);
+		assertThat(storedNextOccurrence(id)).isEqualTo(at(START));
+
+		scheduleService.putExdate(id, START.toString());
+		assertThat(storedNextOccurrence(id)).isEqualTo(at(START.plusDays(1)));
+
+		scheduleService.putExdate(id, START.plusDays(1).toString());
+		scheduleService.putExdate(id, START.plusDays(2).toString());
+		assertThat(storedNextOccurrence(id)).isNull(); // série encerrada, nada mais a acontecer
+	}
+
+	@Test
+	void countSeriesWithoutUntilEndsWithNull() {
+		UUID finished = create(ScheduleRequest.builder(), LocalDateTime.of(2020, 1, 1, 9, 0), 3);
+		UUID running = create(ScheduleRequest.builder(), START, 3);
+
+		// sem sch_series_until_utc: o COUNT esgotado é que encerra a série
+		assertThat(storedNextOccurrence(finished)).isNull();
+		assertThat(storedNextOccurrence(running)).isEqualTo(at(START));
+	}
+
+	@Test
+	void passedNextOccurrencesAreRecomputedInBatches() {
+		// mais de um lote de CHILD_FETCH_BATCH_SIZE, gravados direto como no import
+		List<Schedule> batch = IntStream.rangeClosed(0, ScheduleRepository.CHILD_FETCH_BATCH_SIZE)
+				.mapToObj(i -> ScheduleImportService.toSchedule(request(ScheduleRequest.builder(), START, 5)
+						.summary(BATCH_SUMMARY)
+						.build()))
+				.toList();
+		scheduleJdbcRepository.insertAll(batch);
+		UUID finished = create(ScheduleRequest.builder(), LocalDateTime.of(2020, 1, 1, 9, 0), 3);
+		jdbcTemplate.update("""
+				UPDATE tb_sch_schedule
+				SET sch_next_occurrence_utc = TIMESTAMPTZ '2000-01-01 00:00:00Z'
+				WHERE sch_summary = ? OR sch_id = ?
+				""", BATCH_SUMMARY, finished);
+
+		nextOccurrenceTracker.refreshPassed();
+
+		Integer recomputed = jdbcTemplate.queryForObject("""
+				SELECT count(*) FROM tb_sch_schedule
+				WHERE sch_summary = ? AND sch_next_occurrence_utc = ?
+				""", Integer.class, BATCH_SUMMARY, at(START));
+		assertThat(recomputed).isEqualTo(batch.size());
+		assertThat(storedNextOccurrence(finished)).isNull();
+	}
+
+	@Test
+	void upcomingFeedPagesThroughTheMergedSchedules() {
+		create(ScheduleRequest.builder()
+				.exdates(List.of(ScheduleExdateRequest.builder().exdateLocal(START.plusDays(2)).build())), START, 10);
+		create(ScheduleRequest.builder()
+				.overrides(List.of(ScheduleOverrideRequest.builder()
+						.recurrenceIdLocal(START.plusDays(6).withHour(7))
+						.newStartLocal(START.plusDays(1).withHour(20)) // antes do início da série
+						.build())), START.plusDays(5).withHour(7), 5);
+		create(ScheduleRequest.builder(), START.plusDays(40), 2);
+
+		List<ScheduleOccurrenceResponse> expected = scheduleService.findOccurrencesBetween(AFTER, TO).stream()
+				.filter(o -> created.contains(o.getScheduleId()))
+				.toList();
+		List<ScheduleOccurrenceResponse> paged = new ArrayList<>();
+		String cursor = null;
+		do {
+			ScheduleOccurrencePageResponse page = scheduleService.findUpcoming(AFTER, 3, cursor);
+			assertThat(page.getItems()).hasSizeLessThanOrEqualTo(3);
+			page.getItems().stream().filter(o -> created.contains(o.getScheduleId())).forEach(paged::add);
+			cursor = page.getNextCursor();
+		} while (cursor != null && paged.size() < expected.size());
+
+		assertThat(expected).hasSize(9 + 5 + 2);
+		assertThat(paged).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected);
+	}
+
+	private OffsetDateTime storedNextOccurrence(UUID id) {
+		OffsetDateTime next = jdbcTemplate.queryForObject(
+				"SELECT sch_next_occurrence_utc FROM tb_sch_schedule WHERE sch_id = ?", OffsetDateTime.class, id);
+		return next != null ? next.atZoneSameInstant(ZONE).toOffsetDateTime() : null;
+	}
+
+	private static OffsetDateTime at(LocalDateTime local) {
+		return local.atZone(ZONE).toOffsetDateTime();
+	}
+
+	private static List<OffsetDateTime> starts(List<ScheduleOccurrenceResponse> occurrences) {
+		return occurrences.stream().map(o -> o.getStart().atZoneSameInstant(ZONE).toOffsetDateTime()).toList();
+	}
+
+	private UUID create(ScheduleRequest.ScheduleRequestBuilder request, LocalDateTime start, int count) {
+		UUID id = scheduleService.create(request(request, start, count).build()).getId();
+		created.add(id);
+		return id;
+	}
+
+	private static ScheduleRequest.ScheduleRequestBuilder request(ScheduleRequest.ScheduleRequestBuilder request,
+			LocalDateTime start, int count) {
+		return request
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", count))
+				.tzid("America/Sao_Paulo")
+				.seriesStartLocal(start)
+				.seriesStartUtc(at(start))
+				.durationSeconds(3600);
+	}
+}
@@ -0,0 +1,80 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrencePageResponse;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+
+@SpringBootTest
+class ScheduleServicePaginationTests {
+
+	private static final String FROM = "2097-03-01T00:00:00Z";
+	private static final String TO = "2097-03-10T23:59:59Z";
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void pagesFollowTheFullListWithoutGapsOrRepeats() {
+		// same start for every schedule, so pages split inside a tie on start
+		LocalDateTime start = LocalDateTime.of(2097, 3, 1, 9, 0);
+		for (int i = 0; i < 3; i++) {
+			created.add(scheduleService.create(ScheduleRequest.builder()
+					.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("count", 5))
+					.tzid("UTC")
+					.seriesStartLocal(start)
+					.seriesStartUtc(OffsetDateTime.of(start, ZoneOffset.UTC))
+					.durationSeconds(1800)
+					.summary("Plantão " + i)
+					.build()).getId());
+		}
+		List<ScheduleOccurrenceResponse> all = scheduleService.findOccurrencesBetween(FROM, TO);
+
+		List<ScheduleOccurrenceResponse> paged = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			ScheduleOccurrencePageResponse page = scheduleService.findOccurrencesPage(FROM, TO, 4, cursor);
+			assertThat(page.getItems()).hasSizeLessThanOrEqualTo(4);
+			paged.addAll(page.getItems());
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(all).hasSize(15);
+		assertThat(pages).isEqualTo(4);
+		assertThat(paged).extracting(ScheduleOccurrenceResponse::getScheduleId, ScheduleOccurrenceResponse::getStart)
+				.containsExactlyElementsOf(all.stream()
+						.map(o -> tuple(o.getScheduleId(), o.getStart()))
+						.toList());
+	}
+
+}
@@ -0,0 +1,88 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleExdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleOverrideRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRdateRequest;
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ScheduleServiceQueryCountTests {
+
+	private static final String FROM = "2099-01-01T00:00:00Z";
+	private static final String TO = "2099-01-31T23:59:59Z";
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void occurrenceStatementCountDoesNotGrowWithCandidates() {
+		long withFewSchedules = statementsForOccurrenceQuery(5);
+		long withManySchedules = statementsForOccurrenceQuery(50);
+
+		assertThat(withManySchedules).isEqualTo(withFewSchedules);
+	}
+
+	private long statementsForOccurrenceQuery(int schedulesToCreate) {
+		for (int i = 0; i < schedulesToCreate; i++) {
+			created.add(scheduleService.create(dailyWithChildren(i)).getId());
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		assertThat(scheduleService.findOccurrencesBetween(FROM, TO)).isNotEmpty();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static ScheduleRequest dailyWithChildren(int minuteOffset) {
+		LocalDateTime start = LocalDateTime.of(2098, 12, 1, 8, minuteOffset % 60);
+		return ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", "DAILY").put("interval", 1))
+				.tzid("UTC")
+				.seriesStartLocal(start)
+				.seriesStartUtc(OffsetDateTime.of(start, ZoneOffset.UTC))
+				.durationSeconds(3600)
+				.summary("Plantão " + minuteOffset)
+				.exdates(List.of(new ScheduleExdateRequest(start.plusDays(32))))
+				.rdates(List.of(new ScheduleRdateRequest(start.plusDays(33).plusHours(4), 1800)))
+				.overrides(List.of(ScheduleOverrideRequest.builder()
+						.recurrenceIdLocal(start.plusDays(34))
+						.newStartLocal(start.plusDays(34).plusHours(2))
+						.build()))
+				.build();
+	}
+
+}
@@ -0,0 +1,78 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.honora.icalendar_vevent.service.SeriesWindowIndex.Entry;
+
+class SeriesWindowIndexTests {
+
+	private static final UUID CLOSED = UUID.fromString("00000000-0000-0000-0000-000000000001");
+	private static final UUID OPEN = UUID.fromString("00000000-0000-0000-0000-000000000002");
+	private static final UUID MOVED = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+	@Test
+	void findsOverlappingWindowsAndInstantsInsideTheRange() {
+		Map<UUID, Entry> entries = new LinkedHashMap<>();
+		entries.put(CLOSED, new Entry(100, 200, new long[0]));
+		entries.put(OPEN, new Entry(500, Long.MAX_VALUE, new long[0]));
+		entries.put(MOVED, new Entry(0, 50, new long[] { 300, 900 })); // RDATE/OVERRIDE fora da série
+		SeriesWindowIndex index = SeriesWindowIndex.build(entries);
+
+		assertThat(find(index, 200, 250)).containsExactly(CLOSED); // fim inclusivo
+		assertThat(find(index, 250, 299)).isEmpty();
+		assertThat(find(index, 250, 300)).containsExactly(MOVED);
+		assertThat(find(index, 450, 500)).containsExactly(OPEN); // início inclusivo
+		assertThat(find(index, 10_000, 20_000)).containsExactly(OPEN);
+		assertThat(find(index, 0, 1000)).containsExactlyInAnyOrder(CLOSED, OPEN, MOVED);
+	}
+
+	@Test
+	void removedEntriesMatchNothing() {
+		assertThat(Entry.REMOVED.matches(Long.MIN_VALUE, Long.MAX_VALUE)).isFalse();
+		assertThat(find(SeriesWindowIndex.EMPTY, 0, 1000)).isEmpty();
+	}
+
+	@Test
+	void agreesWithALinearScan() {
+		Random random = new Random(42);
+		Map<UUID, Entry> entries = new HashMap<>();
+		for (int i = 0; i < 2000; i++) {
+			long start = random.nextInt(100_000);
+			long end = random.nextInt(10) == 0 ? Long.MAX_VALUE : start + random.nextInt(5_000);
+			long[] instants = new long[random.nextInt(3)];
+			for (int j = 0; j < instants.length; j++) {
+				instants[j] = random.nextInt(120_000);
+			}
+			entries.put(new UUID(0, i), new Entry(start, end, instants));
+		}
+		SeriesWindowIndex index = SeriesWindowIndex.build(entries);
+
+		for (int q = 0; q < 500; q++) {
+			long from = random.nextInt(120_000);
+			long to = from + random.nextInt(3_000);
+			Set<UUID> expected = new HashSet<>();
+			entries.forEach((id, e) -> {
+				if (e.matches(from, to)) {
+					expected.add(id);
+				}
+			});
+			assertThat(find(index, from, to)).isEqualTo(expected);
+		}
+	}
+
+	private static Set<UUID> find(SeriesWindowIndex index, long from, long to) {
+		Set<UUID> ids = new HashSet<>();
+		index.forEachCandidate(from, to, ids::add);
+		return ids;
+	}
+}
@@ -0,0 +1,68 @@
+package br.com.honora.icalendar_vevent.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTests {
+
+	@Test
+	void timersFireOnTheFirstAdvanceReachingTheirDeadline() {
+		Random random = new Random(42);
+		for (int round = 0; round < 10; round++) {
+			long tickMillis = 1 + random.nextInt(3);
+			long start = random.nextInt(1_000_000);
+			long firstTick = Math.floorDiv(start, tickMillis) + 1;
+			TimingWheel<Integer> wheel = new TimingWheel<>(tickMillis, start);
+			// prazos perto e além do alcance da roda (SLOTS^LEVELS ticks)
+			long[] deadlines = new long[500];
+			Map<Integer, TimingWheel.Timer<Integer>> pending = new HashMap<>();
+			for (int i = 0; i < deadlines.length; i++) {
+				deadlines[i] = start + (random.nextBoolean() ? random.nextInt(5_000) : random.nextInt(20_000_000));
+				pending.put(i, wheel.schedule(deadlines[i], i));
+			}
+			for (int i = 0; i < 50; i++) {
+				assertThat(wheel.cancel(pending.remove(i))).isTrue();
+			}
+
+			long now = start;
+			while (!pending.isEmpty()) {
+				long previous = now;
+				now += random.nextInt(10) == 0 ? random.nextInt(5_000_000) : random.nextInt(3_000);
+				long current = now;
+				wheel.advance(now, i -> {
+					long dueTick = Math.max(-Math.floorDiv(-deadlines[i], tickMillis), firstTick);
+					assertThat(dueTick).isLessThanOrEqualTo(Math.floorDiv(current, tickMillis)); // nunca antes
+					assertThat(dueTick).isGreaterThan(Math.floorDiv(previous, tickMillis)); // nem depois
+					assertThat(pending.remove(i)).as("timer %d", i).isNotNull(); // cancelados não disparam
+				});
+				assertThat(wheel.size()).isEqualTo(pending.size());
+			}
+		}
+	}
+
+	@Test
+	void passedDeadlinesFireOnTheNextTickAndCancelledOnesNever() {
+		TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+		TimingWheel.Timer<String> cancelled = wheel.schedule(12_000, "cancelled");
+		wheel.schedule(5_000, "late");
+		wheel.schedule(11_500, "next");
+		List<String> fired = new ArrayList<>();
+
+		assertThat(wheel.cancel(cancelled)).isTrue();
+		wheel.advance(10_999, fired::add);
+		assertThat(fired).isEmpty();
+		wheel.advance(11_000, fired::add);
+		assertThat(fired).containsExactly("late");
+		wheel.advance(13_000, fired::add);
+		assertThat(fired).containsExactly("late", "next");
+		assertThat(wheel.cancel(cancelled)).isFalse();
+		assertThat(wheel.size()).isZero();
+	}
+}
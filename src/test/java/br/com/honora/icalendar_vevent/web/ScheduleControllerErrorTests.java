@@ -0,0 +1,44 @@
+package br.com.honora.icalendar_vevent.web;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ScheduleControllerErrorTests {
+
+	private static final String FROM = "2095-05-01T00:00:00Z";
+	private static final String TO = "2095-05-31T23:59:59Z";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void unknownScheduleIdsAreBadRequestOnEveryGroupEndpoint() throws Exception {
+		String unknown = UUID.randomUUID().toString();
+
+		for (String path : new String[] { "/api/schedules/freebusy", "/api/schedules/conflicts",
+				"/api/schedules/occurrences/histogram" }) {
+			mockMvc.perform(get(path).accept(MediaType.APPLICATION_JSON)
+					.param("ids", unknown).param("from", FROM).param("to", TO))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.detail").value("Schedule not found: " + unknown));
+		}
+	}
+
+	@Test
+	void invalidFeedWindowIsBadRequest() throws Exception {
+		mockMvc.perform(get("/api/schedules/calendar.ics").param("from", FROM))
+				.andExpect(status().isBadRequest());
+	}
+}
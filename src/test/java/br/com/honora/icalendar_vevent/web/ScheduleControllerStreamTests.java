@@ -0,0 +1,115 @@
+package br.com.honora.icalendar_vevent.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.honora.icalendar_vevent.dto.request.ScheduleRequest;
+import br.com.honora.icalendar_vevent.dto.response.ScheduleOccurrenceResponse;
+import br.com.honora.icalendar_vevent.repository.ScheduleRepository;
+import br.com.honora.icalendar_vevent.service.ScheduleService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ScheduleControllerStreamTests {
+
+	private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+	private static final String FROM = "2095-05-01T00:00:00Z";
+	private static final String TO = "2095-05-31T23:59:59Z";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	private final List<UUID> created = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		scheduleRepository.deleteAllById(created);
+		created.clear();
+	}
+
+	@Test
+	void streamWritesOneJsonOccurrencePerLineInListOrder() throws Exception {
+		// 21:00 local = 00:00Z: cai exatamente nas bordas das fatias do stream
+		create(LocalDateTime.of(2095, 4, 30, 21, 0), "DAILY", "linha 1\nlinha 2");
+		create(LocalDateTime.of(2095, 5, 2, 9, 0), "WEEKLY", null);
+
+		MvcResult started = mockMvc.perform(get("/api/schedules/occurrences/stream").param("from", FROM).param("to", TO))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		assertThat(body).endsWith("\n");
+		List<ScheduleOccurrenceResponse> streamed = new ArrayList<>();
+		for (String line : body.split("\n")) {
+			assertThat(line).startsWith("{").endsWith("}");
+			ScheduleOccurrenceResponse o = objectMapper.readValue(line, ScheduleOccurrenceResponse.class);
+			if (created.contains(o.getScheduleId())) {
+				streamed.add(o);
+			}
+		}
+		List<ScheduleOccurrenceResponse> listed = scheduleService.findOccurrencesBetween(FROM, TO).stream()
+				.filter(o -> created.contains(o.getScheduleId()))
+				.toList();
+
+		assertThat(listed).hasSize(31 + 5);
+		assertThat(streamed).usingRecursiveFieldByFieldElementComparator()
+				.withComparatorForType(OffsetDateTime::compareTo, OffsetDateTime.class)
+				.containsExactlyElementsOf(listed);
+	}
+
+	@Test
+	void icsFeedRejectsABadWindowBeforeTheBodyStarts() throws Exception {
+		mockMvc.perform(get("/api/schedules/calendar.ics").param("from", "ontem").param("to", TO))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/schedules/calendar.ics").param("from", FROM))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isBadRequest());
+	}
+
+	private void create(LocalDateTime start, String freq, String notes) {
+		UUID id = scheduleService.create(ScheduleRequest.builder()
+				.rrule(new ObjectMapper().createObjectNode().put("freq", freq))
+				.tzid("America/Sao_Paulo")
+				.seriesStartLocal(start)
+				.seriesStartUtc(start.atZone(ZONE).toOffsetDateTime())
+				.durationSeconds(3600)
+				.notes(notes)
+				.build()).getId();
+		created.add(id);
+	}
+}
@@ -0,0 +1,34 @@
+-- Fixture para os testes de EXPLAIN: 1M schedules, 1M RDATEs e 1M OVERRIDES.
+-- Séries diárias com início espalhado entre 2015-01-01 e 2024-12-28, encerradas
+-- 1..60 dias depois; 1% das séries não tem fim. A janela consultada pelos testes
+-- (janeiro/2025) é o "mês corrente" da massa: poucas séries ativas, como no uso real.
+
+INSERT INTO tb_sch_schedule (sch_rrule_json, sch_tzid, sch_series_start_local, sch_series_start_utc,
+                             sch_series_until_utc, sch_duration_seconds, sch_summary,
+                             sch_has_rdates, sch_has_overrides)
+SELECT '{"freq":"DAILY","interval":1}'::jsonb,
+       'America/Sao_Paulo',
+       timestamp '2015-01-01 08:00:00' + (g % 3650) * interval '1 day',
+       (timestamp '2015-01-01 08:00:00' + (g % 3650) * interval '1 day') AT TIME ZONE 'America/Sao_Paulo',
+       CASE WHEN g % 100 = 0 THEN NULL
+            ELSE ((timestamp '2015-01-01 08:00:00' + (g % 3650 + 1 + g % 60) * interval '1 day')
+                  AT TIME ZONE 'America/Sao_Paulo') END,
+       3600,
+       'explain-fixture',
+       true,
+       true
+FROM generate_series(1, 1000000) AS g;
+
+INSERT INTO tb_srd_schedule_rdate (sch_id, srd_rdate_local, srd_duration_seconds)
+SELECT s.sch_id, s.sch_series_start_local + interval '3 hours', 1800
+FROM tb_sch_schedule s
+WHERE s.sch_summary = 'explain-fixture';
+
+INSERT INTO tb_sov_schedule_override (sch_id, sov_recurrence_id_local, sov_new_start_local, sov_new_duration_seconds)
+SELECT s.sch_id, s.sch_series_start_local, s.sch_series_start_local + interval '5 hours', 3600
+FROM tb_sch_schedule s
+WHERE s.sch_summary = 'explain-fixture';
+
+ANALYZE tb_sch_schedule;
+ANALYZE tb_srd_schedule_rdate;
+ANALYZE tb_sov_schedule_override;